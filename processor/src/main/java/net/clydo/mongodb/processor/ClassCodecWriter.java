@@ -0,0 +1,389 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.processor;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Writes the codec of a {@code @MongoModel} or {@code @MongoType} class.
+ * <p>
+ * Non-private fields are accessed directly, private fields through {@code static final} {@code VarHandle}s that the
+ * JIT treats as constants. {@code int}, {@code long}, {@code double} and {@code boolean} fields are read and written
+ * with the typed {@code BsonReader}/{@code BsonWriter} methods; every other field goes through a codec resolved once
+ * when the generated codec is constructed.
+ */
+final class ClassCodecWriter extends CodecWriter {
+    private static final String UUID_STORAGE = "net.clydo.mongodb.codec.uuid.UUIDStorage";
+    private static final String MODEL_CODEC = "net.clydo.mongodb.codec.GeneratedModelCodec";
+
+    private final String typeName;
+    private final boolean model;
+    private final List<FieldModel> fields = new ArrayList<>();
+    /**
+     * The fields bound to the {@code @MongoConstructor} parameters in parameter order, or {@code null} for the no-args path.
+     */
+    @Nullable
+    private final List<FieldModel> parameters;
+
+    ClassCodecWriter(@NotNull ProcessingEnvironment env, @NotNull TypeElement type) {
+        super(env, type);
+
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new UnsupportedTypeException(type.getSimpleName() + " is abstract");
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new UnsupportedTypeException(type.getSimpleName() + " declares type parameters");
+        }
+
+        this.typeName = type.getQualifiedName().toString();
+        this.model = hasAnnotation(type, MongoCodecProcessor.MONGO_MODEL);
+
+        val omitNulls = Boolean.TRUE.equals(annotationValue(type, MongoCodecProcessor.MONGO_MODEL, "omitNulls"));
+
+        val storedNames = new HashSet<String>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            val storedName = (String) annotationValue(field, MongoCodecProcessor.MONGO_FIELD, "value");
+            if (storedName == null) {
+                continue;
+            }
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                throw new UnsupportedTypeException("static field " + field.getSimpleName() + " is annotated with @MongoField");
+            }
+            if (!storedNames.add(storedName)) {
+                throw new UnsupportedTypeException("duplicate @MongoField name '" + storedName + "'");
+            }
+
+            // Render eagerly so unsupported field types are reported before anything is written.
+            this.render(field.asType());
+
+            this.fields.add(new FieldModel(
+                    field.getSimpleName().toString(),
+                    storedName,
+                    field.asType(),
+                    !field.getModifiers().contains(Modifier.PRIVATE),
+                    field.getModifiers().contains(Modifier.FINAL),
+                    omitNulls || Boolean.TRUE.equals(annotationValue(field, MongoCodecProcessor.MONGO_FIELD, "omitNull")),
+                    this.uuidStorage(field)
+            ));
+        }
+
+        this.parameters = this.resolveConstructor();
+    }
+
+    /**
+     * Returns the {@code @MongoField(uuid = ...)} storage constant of a {@code UUID} field, or {@code null} when it follows the schema.
+     */
+    private @Nullable String uuidStorage(@NotNull VariableElement field) {
+        val storage = annotationValue(field, MongoCodecProcessor.MONGO_FIELD, "uuid");
+        if (!(storage instanceof VariableElement constant) || constant.getSimpleName().contentEquals("DEFAULT")) {
+            return null;
+        }
+        if (!this.env.getTypeUtils().isSameType(field.asType(), this.env.getElementUtils().getTypeElement("java.util.UUID").asType())) {
+            return null;
+        }
+        return constant.getSimpleName().toString();
+    }
+
+    private @Nullable List<FieldModel> resolveConstructor() {
+        val constructors = ElementFilter.constructorsIn(this.type.getEnclosedElements());
+
+        ExecutableElement mongoConstructor = null;
+        for (ExecutableElement constructor : constructors) {
+            if (hasAnnotation(constructor, MongoCodecProcessor.MONGO_CONSTRUCTOR)) {
+                if (mongoConstructor != null) {
+                    throw new UnsupportedTypeException("more than one constructor with @MongoConstructor");
+                }
+                mongoConstructor = constructor;
+            }
+        }
+
+        if (mongoConstructor == null) {
+            // Without explicit constructors javac reports the implicit default one, so an empty list never happens here.
+            val noArgs = constructors.stream()
+                    .filter(constructor -> constructor.getParameters().isEmpty())
+                    .findFirst()
+                    .orElseThrow(() -> new UnsupportedTypeException("no no-args constructor"));
+            if (noArgs.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new UnsupportedTypeException("the no-args constructor is private");
+            }
+            for (FieldModel field : this.fields) {
+                if (field.isFinal()) {
+                    throw new UnsupportedTypeException("final field " + field.javaName() + " can only be set through a @MongoConstructor");
+                }
+            }
+            return null;
+        }
+
+        if (mongoConstructor.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new UnsupportedTypeException("the @MongoConstructor is private");
+        }
+
+        val types = this.env.getTypeUtils();
+        val parameters = new ArrayList<FieldModel>();
+        for (VariableElement parameter : mongoConstructor.getParameters()) {
+            val storedName = (String) annotationValue(parameter, MongoCodecProcessor.MONGO_PARAMETER, "value");
+            if (storedName == null) {
+                throw new UnsupportedTypeException("parameter " + parameter.getSimpleName() + " is not annotated with @MongoParameter");
+            }
+
+            val field = this.fields.stream()
+                    .filter(candidate -> candidate.storedName().equals(storedName))
+                    .findFirst()
+                    .orElseThrow(() -> new UnsupportedTypeException("no such field: " + storedName));
+            if (!types.isSameType(field.type(), parameter.asType())) {
+                throw new UnsupportedTypeException("parameter type of '" + storedName + "' does not match its field");
+            }
+
+            parameters.add(field);
+        }
+
+        val requiredAll = annotationValue(mongoConstructor, MongoCodecProcessor.MONGO_CONSTRUCTOR, "requiredAll");
+        if (!Boolean.FALSE.equals(requiredAll) && parameters.size() != this.fields.size()) {
+            throw new UnsupportedTypeException("@MongoConstructor(requiredAll = true) does not cover every @MongoField");
+        }
+
+        return parameters;
+    }
+
+    @Override
+    @NotNull String write() {
+        val source = this.header();
+
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("public final class ").append(this.codecName)
+                .append(" implements ").append(this.model ? MODEL_CODEC : "Codec").append('<').append(this.typeName).append("> {\n");
+
+        this.writeHandles(source);
+
+        for (FieldModel field : this.fields) {
+            source.append("    private final Codec<").append(this.renderBoxed(field.type())).append("> ").append(field.codecName()).append(";\n");
+        }
+        source.append('\n');
+
+        source.append("    public ").append(this.codecName).append("(CodecRegistry registry) {\n");
+        for (FieldModel field : this.fields) {
+            source.append("        this.").append(field.codecName()).append(" = (Codec) ");
+            if (field.uuidStorage() != null) {
+                source.append(UUID_STORAGE).append('.').append(field.uuidStorage()).append(".codec();\n");
+            } else {
+                source.append("CodecsHelper.getCodec(registry, ").append(this.renderReflectType(field.type())).append(");\n");
+            }
+        }
+        source.append("    }\n\n");
+
+        this.writeDecode(source);
+        this.writeEncode(source);
+
+        source.append("    @Override\n");
+        source.append("    public Class<").append(this.typeName).append("> getEncoderClass() {\n");
+        source.append("        return ").append(this.typeName).append(".class;\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        return source.toString();
+    }
+
+    private void writeHandles(@NotNull StringBuilder source) {
+        val handled = this.fields.stream().filter(field -> !field.direct()).toList();
+        if (handled.isEmpty()) {
+            return;
+        }
+
+        for (FieldModel field : handled) {
+            source.append("    private static final java.lang.invoke.VarHandle ").append(field.handleName()).append(";\n");
+        }
+        source.append('\n');
+        source.append("    static {\n");
+        source.append("        try {\n");
+        source.append("            java.lang.invoke.MethodHandles.Lookup lookup = java.lang.invoke.MethodHandles.privateLookupIn(")
+                .append(this.typeName).append(".class, java.lang.invoke.MethodHandles.lookup());\n");
+        for (FieldModel field : handled) {
+            source.append("            ").append(field.handleName()).append(" = lookup.findVarHandle(").append(this.typeName).append(".class, ")
+                    .append(literal(field.javaName())).append(", ").append(this.renderErasure(field.type())).append(".class);\n");
+        }
+        source.append("        } catch (ReflectiveOperationException e) {\n");
+        source.append("            throw new ExceptionInInitializerError(e);\n");
+        source.append("        }\n");
+        source.append("    }\n\n");
+    }
+
+    private void writeDecode(@NotNull StringBuilder source) {
+        source.append("    @Override\n");
+        source.append("    public ").append(this.typeName).append(" decode(BsonReader reader, DecoderContext decoderContext) {\n");
+        source.append("        reader.readStartDocument();\n\n");
+
+        val targets = this.parameters != null ? this.parameters : this.fields;
+        if (this.parameters != null) {
+            for (FieldModel field : this.parameters) {
+                source.append("        ").append(this.render(field.type())).append(' ').append(field.localName())
+                        .append(" = ").append(defaultValue(field.type())).append(";\n");
+            }
+        } else {
+            source.append("        ").append(this.typeName).append(" result = new ").append(this.typeName).append("();\n");
+        }
+
+        source.append("        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {\n");
+        source.append("            String name = reader.readName();\n");
+        source.append("            if (reader.getCurrentBsonType() == BsonType.NULL) {\n");
+        source.append("                reader.readNull();\n");
+        source.append("                continue;\n");
+        source.append("            }\n\n");
+        source.append("            switch (name) {\n");
+        for (FieldModel field : targets) {
+            source.append("                case ").append(literal(field.storedName())).append(" -> ");
+            if (this.parameters != null) {
+                source.append(field.localName()).append(" = ").append(this.readExpression(field)).append(";\n");
+            } else {
+                source.append(this.writeStatement(field, "result", this.readExpression(field))).append('\n');
+            }
+        }
+        source.append("                default -> reader.skipValue();\n");
+        source.append("            }\n");
+        source.append("        }\n\n");
+
+        source.append("        reader.readEndDocument();\n");
+        if (this.parameters != null) {
+            source.append("        return new ").append(this.typeName).append('(');
+            for (int i = 0; i < this.parameters.size(); i++) {
+                if (i > 0) source.append(", ");
+                source.append(this.parameters.get(i).localName());
+            }
+            source.append(");\n");
+        } else {
+            source.append("        return result;\n");
+        }
+        source.append("    }\n\n");
+    }
+
+    private void writeEncode(@NotNull StringBuilder source) {
+        source.append("    @Override\n");
+        source.append("    public void encode(BsonWriter writer, ").append(this.typeName).append(" value, EncoderContext encoderContext) {\n");
+        source.append("        writer.writeStartDocument();\n");
+
+        for (FieldModel field : this.fields) {
+            if ("_id".equals(field.storedName())) {
+                continue;
+            }
+
+            val name = literal(field.storedName());
+            val read = this.readStatement(field, "value");
+            source.append('\n');
+            switch (field.type().getKind()) {
+                case INT -> source.append("        writer.writeInt32(").append(name).append(", ").append(read).append(");\n");
+                case LONG -> source.append("        writer.writeInt64(").append(name).append(", ").append(read).append(");\n");
+                case DOUBLE -> source.append("        writer.writeDouble(").append(name).append(", ").append(read).append(");\n");
+                case BOOLEAN -> source.append("        writer.writeBoolean(").append(name).append(", ").append(read).append(");\n");
+                case BYTE, SHORT, CHAR, FLOAT -> {
+                    source.append("        writer.writeName(").append(name).append(");\n");
+                    source.append("        encoderContext.encodeWithChildContext(this.").append(field.codecName()).append(", writer, ").append(read).append(");\n");
+                }
+                default -> {
+                    source.append("        ").append(this.render(field.type())).append(' ').append(field.localName()).append(" = ").append(read).append(";\n");
+                    source.append("        if (").append(field.localName()).append(" != null) {\n");
+                    source.append("            writer.writeName(").append(name).append(");\n");
+                    source.append("            encoderContext.encodeWithChildContext(this.").append(field.codecName()).append(", writer, ").append(field.localName()).append(");\n");
+                    if (field.omitNull()) {
+                        source.append("        }\n");
+                    } else {
+                        source.append("        } else {\n");
+                        source.append("            writer.writeNull(").append(name).append(");\n");
+                        source.append("        }\n");
+                    }
+                }
+            }
+        }
+
+        source.append("\n        writer.writeEndDocument();\n");
+        source.append("    }\n\n");
+    }
+
+    /**
+     * Returns an expression reading the current value from the reader with the exact type of the field.
+     */
+    private @NotNull String readExpression(@NotNull FieldModel field) {
+        val codec = "this." + field.codecName();
+        return switch (field.type().getKind()) {
+            case INT -> "reader.getCurrentBsonType() == BsonType.INT32 ? reader.readInt32() : " + codec + ".decode(reader, decoderContext)";
+            case LONG -> "reader.getCurrentBsonType() == BsonType.INT64 ? reader.readInt64()"
+                    + " : reader.getCurrentBsonType() == BsonType.INT32 ? reader.readInt32() : " + codec + ".decode(reader, decoderContext)";
+            case DOUBLE -> "reader.getCurrentBsonType() == BsonType.DOUBLE ? reader.readDouble() : " + codec + ".decode(reader, decoderContext)";
+            case BOOLEAN -> "reader.getCurrentBsonType() == BsonType.BOOLEAN ? reader.readBoolean() : " + codec + ".decode(reader, decoderContext)";
+            case BYTE, SHORT, CHAR, FLOAT -> codec + ".decode(reader, decoderContext)";
+            // Same path as TypeCodec, so a model decodes alike with and without the processor.
+            default -> "(" + this.render(field.type()) + ") CodecsHelper.readValue(reader, null, null, decoderContext, CodecsHelper.getDbRefTransformer(), null, null, " + codec + ")";
+        };
+    }
+
+    private @NotNull String readStatement(@NotNull FieldModel field, @NotNull String instance) {
+        if (field.direct()) {
+            return instance + "." + field.javaName();
+        }
+        return "(" + this.renderErasure(field.type()) + ") " + field.handleName() + ".get(" + instance + ")";
+    }
+
+    private @NotNull String writeStatement(@NotNull FieldModel field, @NotNull String instance, @NotNull String expression) {
+        if (field.direct()) {
+            return instance + "." + field.javaName() + " = " + expression + ";";
+        }
+        return field.handleName() + ".set(" + instance + ", (" + this.renderErasure(field.type()) + ") (" + expression + "));";
+    }
+
+    private static @NotNull String defaultValue(@NotNull TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "false";
+            case BYTE -> "(byte) 0";
+            case SHORT -> "(short) 0";
+            case CHAR -> "'\\0'";
+            case INT -> "0";
+            case LONG -> "0L";
+            case FLOAT -> "0F";
+            case DOUBLE -> "0D";
+            default -> "null";
+        };
+    }
+
+    private record FieldModel(String javaName, String storedName, TypeMirror type, boolean direct, boolean isFinal, boolean omitNull, @Nullable String uuidStorage) {
+        String codecName() {
+            return this.javaName + "Codec";
+        }
+
+        String handleName() {
+            return "HANDLE_" + this.javaName;
+        }
+
+        String localName() {
+            return this.javaName + "Value";
+        }
+    }
+}
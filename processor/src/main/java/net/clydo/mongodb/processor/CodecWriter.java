@@ -0,0 +1,252 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.processor;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import java.util.stream.Collectors;
+
+/**
+ * Base class of the generated codec writers: naming, annotation lookup and rendering of types as source.
+ */
+abstract class CodecWriter {
+    static final String GENERATED = "@javax.annotation.processing.Generated(\"" + MongoCodecProcessor.class.getName() + "\")";
+    static final String IMPORTS = """
+            import net.clydo.mongodb.codec.CodecsHelper;
+            import org.bson.BsonReader;
+            import org.bson.BsonType;
+            import org.bson.BsonWriter;
+            import org.bson.codecs.Codec;
+            import org.bson.codecs.DecoderContext;
+            import org.bson.codecs.EncoderContext;
+            import org.bson.codecs.configuration.CodecRegistry;
+            """;
+    private static final String TYPE_UTILS = "org.apache.commons.lang3.reflect.TypeUtils";
+
+    protected final ProcessingEnvironment env;
+    protected final TypeElement type;
+    protected final String packageName;
+    protected final String codecName;
+
+    protected CodecWriter(@NotNull ProcessingEnvironment env, @NotNull TypeElement type) {
+        this.env = env;
+        this.type = type;
+        this.packageName = env.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+
+        val binaryName = env.getElementUtils().getBinaryName(type).toString();
+        val simpleBinaryName = this.packageName.isEmpty() ? binaryName : binaryName.substring(this.packageName.length() + 1);
+        this.codecName = simpleBinaryName.replace('$', '_') + MongoCodecProcessor.CODEC_SUFFIX;
+
+        this.validateAccessible(type);
+    }
+
+    /**
+     * Renders the complete source file of the generated codec.
+     */
+    abstract @NotNull String write();
+
+    @NotNull String qualifiedCodecName() {
+        return this.packageName.isEmpty() ? this.codecName : this.packageName + "." + this.codecName;
+    }
+
+    protected @NotNull StringBuilder header() {
+        val source = new StringBuilder();
+        if (!this.packageName.isEmpty()) {
+            source.append("package ").append(this.packageName).append(";\n\n");
+        }
+        source.append(IMPORTS).append('\n');
+        source.append(GENERATED).append('\n');
+        return source;
+    }
+
+    /**
+     * Generated codecs live in the type's package, so the type and all of its enclosing types must be reachable from there.
+     */
+    private void validateAccessible(@NotNull TypeElement element) {
+        Element current = element;
+        while (current instanceof TypeElement typeElement) {
+            if (typeElement.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new UnsupportedTypeException(typeElement.getSimpleName() + " is private");
+            }
+            if (typeElement.getNestingKind() == NestingKind.MEMBER
+                    && !typeElement.getModifiers().contains(Modifier.STATIC)
+                    && typeElement.getKind().isClass()
+                    && typeElement.getKind() != ElementKind.ENUM
+                    && typeElement.getKind() != ElementKind.RECORD) {
+                throw new UnsupportedTypeException(typeElement.getSimpleName() + " is an inner (non-static) class");
+            }
+            if (typeElement.getNestingKind() == NestingKind.LOCAL || typeElement.getNestingKind() == NestingKind.ANONYMOUS) {
+                throw new UnsupportedTypeException(typeElement.getSimpleName() + " is not a member type");
+            }
+            current = typeElement.getEnclosingElement();
+        }
+    }
+
+    /**
+     * Returns the {@code value()} of the annotation with the given name on the element, or {@code null} if it is absent.
+     */
+    protected static @Nullable Object annotationValue(@NotNull Element element, @NotNull String annotation, @NotNull String attribute) {
+        val mirror = annotation(element, annotation);
+        if (mirror == null) {
+            return null;
+        }
+
+        for (val entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    protected static @Nullable AnnotationMirror annotation(@NotNull Element element, @NotNull String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            val annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    protected static boolean hasAnnotation(@NotNull Element element, @NotNull String annotation) {
+        return annotation(element, annotation) != null;
+    }
+
+    /**
+     * Renders a type as Java source. Type annotations are dropped on purpose, {@code TypeMirror#toString()} would keep them.
+     */
+    protected @NotNull String render(@NotNull TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN, BYTE, SHORT, INT, LONG, CHAR, FLOAT, DOUBLE -> type.getKind().name().toLowerCase();
+            case ARRAY -> this.render(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED -> {
+                val declared = (DeclaredType) type;
+                val raw = ((TypeElement) declared.asElement()).getQualifiedName().toString();
+                if (declared.getTypeArguments().isEmpty()) {
+                    yield raw;
+                }
+                yield raw + declared.getTypeArguments().stream().map(this::render).collect(Collectors.joining(", ", "<", ">"));
+            }
+            case WILDCARD -> {
+                val wildcard = (WildcardType) type;
+                if (wildcard.getExtendsBound() != null) {
+                    yield "? extends " + this.render(wildcard.getExtendsBound());
+                }
+                if (wildcard.getSuperBound() != null) {
+                    yield "? super " + this.render(wildcard.getSuperBound());
+                }
+                yield "?";
+            }
+            default -> throw new UnsupportedTypeException("unsupported field type " + type);
+        };
+    }
+
+    /**
+     * Renders the erasure of a type, with primitives kept as they are.
+     */
+    protected @NotNull String renderErasure(@NotNull TypeMirror type) {
+        return this.render(this.env.getTypeUtils().erasure(type));
+    }
+
+    /**
+     * Renders the boxed form of a type, used as the type argument of its {@code Codec}.
+     */
+    protected @NotNull String renderBoxed(@NotNull TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return this.env.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return this.render(type);
+    }
+
+    /**
+     * Renders an expression evaluating to the {@code java.lang.reflect.Type} of the given type,
+     * as accepted by {@code CodecsHelper.getCodec}.
+     */
+    protected @NotNull String renderReflectType(@NotNull TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN, BYTE, SHORT, INT, LONG, CHAR, FLOAT, DOUBLE -> this.renderBoxed(type) + ".class";
+            case ARRAY -> {
+                val component = ((ArrayType) type).getComponentType();
+                if (component.getKind() == TypeKind.DECLARED && !((DeclaredType) component).getTypeArguments().isEmpty()) {
+                    yield TYPE_UTILS + ".genericArrayType(" + this.renderReflectType(component) + ")";
+                }
+                yield this.renderErasure(type) + ".class";
+            }
+            case DECLARED -> {
+                val declared = (DeclaredType) type;
+                val raw = ((TypeElement) declared.asElement()).getQualifiedName() + ".class";
+                if (declared.getTypeArguments().isEmpty()) {
+                    yield raw;
+                }
+                yield TYPE_UTILS + ".parameterize(" + raw
+                        + declared.getTypeArguments().stream().map(this::renderReflectType).collect(Collectors.joining(", ", ", ", ")"));
+            }
+            case WILDCARD -> {
+                val wildcard = (WildcardType) type;
+                if (wildcard.getExtendsBound() != null) {
+                    yield TYPE_UTILS + ".wildcardType().withUpperBounds(" + this.renderReflectType(wildcard.getExtendsBound()) + ").build()";
+                }
+                if (wildcard.getSuperBound() != null) {
+                    yield TYPE_UTILS + ".wildcardType().withLowerBounds(" + this.renderReflectType(wildcard.getSuperBound()) + ").build()";
+                }
+                yield TYPE_UTILS + ".WILDCARD_ALL";
+            }
+            default -> throw new UnsupportedTypeException("unsupported field type " + type);
+        };
+    }
+
+    protected static @NotNull String literal(@NotNull String value) {
+        val literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.processor;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+
+/**
+ * Writes the codec of a {@code @MongoEnum}: exhaustive {@code switch}es between the constants and their {@code @MongoMapAs}
+ * keys and, when declared, codes. Like the reflective codec, both representations are read whatever the storage is.
+ */
+final class EnumCodecWriter extends CodecWriter {
+    private static final int MAX_CODE = 0xFFFF;
+
+    private final LinkedHashMap<String, String> constants = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Integer> codes = new LinkedHashMap<>();
+    private final boolean int32;
+
+    EnumCodecWriter(@NotNull ProcessingEnvironment env, @NotNull TypeElement type) {
+        super(env, type);
+
+        val storage = annotationValue(type, MongoCodecProcessor.MONGO_ENUM, "storage");
+        this.int32 = storage instanceof VariableElement constant && constant.getSimpleName().contentEquals("INT32");
+
+        val keys = new HashSet<String>();
+        val usedCodes = new HashSet<Integer>();
+        for (val element : type.getEnclosedElements()) {
+            if (element.getKind() != ElementKind.ENUM_CONSTANT) {
+                continue;
+            }
+
+            val mapAs = (String) annotationValue(element, MongoCodecProcessor.MONGO_MAP_AS, "value");
+            if (mapAs == null) {
+                throw new UnsupportedTypeException(element.getSimpleName() + " is not annotated with @MongoMapAs");
+            }
+            if (!keys.add(mapAs)) {
+                throw new UnsupportedTypeException("duplicate @MongoMapAs key '" + mapAs + "'");
+            }
+
+            this.constants.put(element.getSimpleName().toString(), mapAs);
+
+            val code = (Integer) annotationValue(element, MongoCodecProcessor.MONGO_MAP_AS, "code");
+            if (code == null || code == -1) {
+                if (this.int32) {
+                    throw new UnsupportedTypeException(element.getSimpleName() + " has no @MongoMapAs code");
+                }
+                continue;
+            }
+            if (code < 0 || code > MAX_CODE) {
+                throw new UnsupportedTypeException(element.getSimpleName() + " has an out of range @MongoMapAs code " + code);
+            }
+            if (!usedCodes.add(code)) {
+                throw new UnsupportedTypeException("duplicate @MongoMapAs code " + code);
+            }
+            this.codes.put(element.getSimpleName().toString(), code);
+        }
+
+        if (this.constants.isEmpty()) {
+            throw new UnsupportedTypeException("enum has no constants");
+        }
+    }
+
+    @Override
+    @NotNull String write() {
+        val enumType = this.type.getQualifiedName().toString();
+        val source = this.header();
+
+        source.append("public final class ").append(this.codecName).append(" implements Codec<").append(enumType).append("> {\n");
+
+        source.append("    public ").append(this.codecName).append("(CodecRegistry registry) {\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public ").append(enumType).append(" decode(BsonReader reader, DecoderContext decoderContext) {\n");
+        if (!this.codes.isEmpty()) {
+            source.append("        if (reader.getCurrentBsonType() == BsonType.INT32) {\n");
+            source.append("            return switch (reader.readInt32()) {\n");
+            this.codes.forEach((constant, code) ->
+                    source.append("                case ").append(code).append(" -> ").append(enumType).append('.').append(constant).append(";\n"));
+            source.append("                default -> null;\n");
+            source.append("            };\n");
+            source.append("        }\n");
+        }
+        source.append("        return switch (reader.readString()) {\n");
+        this.constants.forEach((constant, key) ->
+                source.append("            case ").append(literal(key)).append(" -> ").append(enumType).append('.').append(constant).append(";\n"));
+        source.append("            default -> null;\n");
+        source.append("        };\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public void encode(BsonWriter writer, ").append(enumType).append(" value, EncoderContext encoderContext) {\n");
+        if (this.int32) {
+            source.append("        writer.writeInt32(switch (value) {\n");
+            this.codes.forEach((constant, code) ->
+                    source.append("            case ").append(constant).append(" -> ").append(code).append(";\n"));
+        } else {
+            source.append("        writer.writeString(switch (value) {\n");
+            this.constants.forEach((constant, key) ->
+                    source.append("            case ").append(constant).append(" -> ").append(literal(key)).append(";\n"));
+        }
+        source.append("        });\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public Class<").append(enumType).append("> getEncoderClass() {\n");
+        source.append("        return ").append(enumType).append(".class;\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        return source.toString();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.processor;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Generates a plain-Java {@code Codec} for every {@code @MongoModel}, {@code @MongoType} and {@code @MongoEnum}
+ * declared in the compilation.
+ * <p>
+ * The generated codec for {@code com.example.Outer.Inner} is {@code com.example.Outer_Inner_MongoCodec};
+ * {@code ClassCodecProvider} picks it up by that name at runtime and falls back to the reflective
+ * {@code TypeCodec} / {@code EnumCodec} when it is absent. Types the generator can not handle
+ * (private types, type variables, missing constructors, ...) are skipped with a note and keep using the fallback.
+ */
+@SupportedAnnotationTypes({
+        MongoCodecProcessor.MONGO_MODEL,
+        MongoCodecProcessor.MONGO_TYPE,
+        MongoCodecProcessor.MONGO_ENUM
+})
+public class MongoCodecProcessor extends AbstractProcessor {
+    static final String ANNOTATIONS = "net.clydo.mongodb.annotations.";
+    static final String MONGO_MODEL = ANNOTATIONS + "MongoModel";
+    static final String MONGO_TYPE = ANNOTATIONS + "MongoType";
+    static final String MONGO_ENUM = ANNOTATIONS + "MongoEnum";
+    static final String MONGO_FIELD = ANNOTATIONS + "MongoField";
+    static final String MONGO_MAP_AS = ANNOTATIONS + "MongoMapAs";
+    static final String MONGO_CONSTRUCTOR = ANNOTATIONS + "MongoConstructor";
+    static final String MONGO_PARAMETER = ANNOTATIONS + "MongoParameter";
+
+    /**
+     * Suffix appended to the flattened binary name of a type to form the name of its generated codec.
+     */
+    static final String CODEC_SUFFIX = "_MongoCodec";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, @NotNull RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (val element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                val kind = element.getKind();
+                if (kind != ElementKind.CLASS && kind != ElementKind.ENUM) {
+                    // Annotation types such as @MongoConstructor are themselves meta-annotated with @MongoType.
+                    continue;
+                }
+
+                val type = (TypeElement) element;
+                if (!this.generated.add(type.getQualifiedName().toString())) {
+                    continue;
+                }
+
+                this.generate(type);
+            }
+        }
+        return false;
+    }
+
+    private void generate(@NotNull TypeElement type) {
+        val messager = this.processingEnv.getMessager();
+        try {
+            val writer = type.getKind() == ElementKind.ENUM
+                    ? new EnumCodecWriter(this.processingEnv, type)
+                    : new ClassCodecWriter(this.processingEnv, type);
+
+            val source = writer.write();
+            val file = this.processingEnv.getFiler().createSourceFile(writer.qualifiedCodecName(), type);
+            try (val out = file.openWriter()) {
+                out.write(source);
+            }
+        } catch (UnsupportedTypeException e) {
+            messager.printMessage(Diagnostic.Kind.NOTE, "No codec generated, falling back to reflection: " + e.getMessage(), type);
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write codec: " + e.getMessage(), type);
+        }
+    }
+}
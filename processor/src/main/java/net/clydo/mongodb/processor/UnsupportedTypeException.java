@@ -0,0 +1,34 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.processor;
+
+import lombok.experimental.StandardException;
+
+import java.io.Serial;
+
+/**
+ * Thrown by the codec writers when a type can not be handled by generated code.
+ */
+@StandardException
+class UnsupportedTypeException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,243 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.processor;
+
+import com.mongodb.MongoClientSettings;
+import lombok.val;
+import net.clydo.mongodb.MongoHelpers;
+import net.clydo.mongodb.annotations.MongoEnum;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoMapAs;
+import net.clydo.mongodb.annotations.MongoModel;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.codec.CodecsHelper;
+import net.clydo.mongodb.codec.GeneratedModelCodec;
+import net.clydo.mongodb.codec.type.ClassCodecProvider;
+import net.clydo.mongodb.codec.type.EnumCodec;
+import net.clydo.mongodb.codec.type.TypeCodec;
+import net.clydo.mongodb.codec.uuid.UUIDStorage;
+import net.clydo.mongodb.loader.LoaderRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonString;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The fixtures of this class are compiled with {@link MongoCodecProcessor}; their generated codecs must write the same
+ * BSON as {@link TypeCodec} and {@link EnumCodec} and read it back alike.
+ */
+class GeneratedCodecParityTest {
+
+    @Test
+    void providerPicksTheGeneratedCodecs() {
+        val loader = new LoaderRegistry();
+        val registry = generated(loader);
+
+        val profileCodec = registry.get(Profile.class);
+        assertInstanceOf(GeneratedModelCodec.class, profileCodec);
+        assertEquals("GeneratedCodecParityTest_Profile_MongoCodec", profileCodec.getClass().getSimpleName());
+        assertFalse(registry.get(Address.class) instanceof GeneratedModelCodec<?>);
+        assertEquals("GeneratedCodecParityTest_Tier_MongoCodec", registry.get(Tier.class).getClass().getSimpleName());
+
+        // The generated codecs need no reflective metadata of their classes.
+        assertNull(loader.getType(Profile.class));
+        assertNull(loader.getType(Address.class));
+    }
+
+    @Test
+    void generatedAndReflectiveCodecsWriteTheSameDocument() {
+        val profile = profile();
+        val generated = generated(new LoaderRegistry()).get(Profile.class);
+        val reflective = reflective(new LoaderRegistry()).get(Profile.class);
+        assertInstanceOf(TypeCodec.class, reflective);
+
+        val document = encode(generated, profile);
+        assertEquals(encode(reflective, profile), document);
+
+        assertEquals(new BsonString(profile.uuid.toString()), document.get("uuid"));
+        assertFalse(document.containsKey("nickname"));
+        assertTrue(document.get("bio").isNull());
+        assertTrue(document.get("tier").isInt32());
+        assertEquals(2, document.getInt32("tier").getValue());
+        assertEquals(new BsonString("blue"), document.get("color"));
+        assertFalse(document.getDocument("address").containsKey("zip"));
+
+        assertEquals(document, encode(generated, decode(generated, document)));
+        assertEquals(document, encode(reflective, decode(generated, document)));
+        assertEquals(document, encode(generated, decode(reflective, document)));
+    }
+
+    @Test
+    void int32EnumsReadLegacyStrings() {
+        val legacy = new BsonDocument("tier", new BsonString("gold"));
+        val generated = generated(new LoaderRegistry()).get(Holder.class);
+        val reflective = reflective(new LoaderRegistry()).get(Holder.class);
+
+        assertEquals(Tier.GOLD, decode(generated, legacy).tier);
+        assertEquals(Tier.GOLD, decode(reflective, legacy).tier);
+        assertEquals(encode(reflective, decode(reflective, legacy)), encode(generated, decode(generated, legacy)));
+    }
+
+    private static Profile profile() {
+        val profile = new Profile();
+        profile.id = new ObjectId();
+        profile.uuid = UUID.randomUUID();
+        profile.nickname = null;
+        profile.bio = null;
+        profile.tier = Tier.GOLD;
+        profile.color = Color.BLUE;
+        profile.level = 7;
+        profile.balance = 1L << 40;
+        profile.ratio = 0.25;
+        profile.active = true;
+        profile.tags = List.of("a", "b");
+        profile.address = new Address();
+        profile.address.city = "Berlin";
+        return profile;
+    }
+
+    private static <T> BsonDocument encode(Codec<T> codec, T value) {
+        val document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), value, EncoderContext.builder().build());
+        return document;
+    }
+
+    private static <T> T decode(Codec<T> codec, BsonDocument document) {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+    private static CodecRegistry generated(LoaderRegistry loader) {
+        return CodecRegistries.fromRegistries(
+                CodecRegistries.fromProviders(new ClassCodecProvider(null, loader)),
+                MongoClientSettings.getDefaultCodecRegistry()
+        );
+    }
+
+    /**
+     * Like {@link ClassCodecProvider}, without looking for generated codecs.
+     */
+    private static CodecRegistry reflective(LoaderRegistry loader) {
+        return CodecRegistries.fromRegistries(
+                CodecRegistries.fromProviders(new CodecProvider() {
+                    @Override
+                    @SuppressWarnings({"unchecked", "rawtypes"})
+                    public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+                        if (clazz.isEnum()) {
+                            val value = loader.getEnum(clazz);
+                            return value == null ? null : (Codec<T>) new EnumCodec(clazz, value);
+                        }
+                        val type = clazz.isAnnotationPresent(MongoModel.class) ? loader.buildModelType(clazz) : loader.getModelOrType(clazz);
+                        if (type == null) {
+                            return null;
+                        }
+                        return new TypeCodec<>(registry, MongoHelpers.getDefaultBsonTypeClassMap(), CodecsHelper.getDbRefTransformer(), clazz, type, null, loader);
+                    }
+                }),
+                MongoClientSettings.getDefaultCodecRegistry()
+        );
+    }
+
+    @MongoModel("profiles")
+    public static class Profile {
+        @MongoField("_id")
+        public ObjectId id;
+
+        @MongoField(value = "uuid", uuid = UUIDStorage.STRING)
+        public UUID uuid;
+
+        @MongoField(value = "nickname", omitNull = true)
+        public String nickname;
+
+        @MongoField("bio")
+        public String bio;
+
+        @MongoField("tier")
+        public Tier tier;
+
+        @MongoField("color")
+        public Color color;
+
+        @MongoField("level")
+        public int level;
+
+        @MongoField("balance")
+        private long balance;
+
+        @MongoField("ratio")
+        public double ratio;
+
+        @MongoField("active")
+        public boolean active;
+
+        @MongoField("tags")
+        public List<String> tags;
+
+        @MongoField("address")
+        public Address address;
+    }
+
+    @MongoType
+    public static class Address {
+        @MongoField("city")
+        public String city;
+
+        @MongoField(value = "zip", omitNull = true)
+        public String zip;
+    }
+
+    @MongoType
+    public static class Holder {
+        @MongoField("tier")
+        public Tier tier;
+    }
+
+    @MongoEnum(storage = MongoEnum.Storage.INT32)
+    public enum Tier {
+        @MongoMapAs(value = "free", code = 1)
+        FREE,
+        @MongoMapAs(value = "gold", code = 2)
+        GOLD
+    }
+
+    @MongoEnum
+    public enum Color {
+        @MongoMapAs("red")
+        RED,
+        @MongoMapAs("blue")
+        BLUE
+    }
+}
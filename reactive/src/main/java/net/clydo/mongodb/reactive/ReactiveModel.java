@@ -0,0 +1,226 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.reactive;
+
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import lombok.val;
+import net.clydo.mongodb.loader.classes.values.MongoMutableField;
+import net.clydo.mongodb.operations.ModelFields;
+import net.clydo.mongodb.reactive.operations.ReactiveCountOperations;
+import net.clydo.mongodb.reactive.operations.ReactiveCreateOperations;
+import net.clydo.mongodb.reactive.operations.ReactiveDeleteOperations;
+import net.clydo.mongodb.reactive.operations.ReactiveFindOperations;
+import net.clydo.mongodb.reactive.operations.ReactiveUpdateOperations;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A {@code @MongoModel} bound to a collection of the reactive streams driver, the counterpart of
+ * {@link net.clydo.mongodb.loader.classes.values.MongoModelValue}.
+ *
+ * @param <M> The type of the model.
+ */
+public final class ReactiveModel<M> {
+    private final Class<M> type;
+    private final String modelName;
+    private final MongoCollection<M> collection;
+    private final List<String> uniques;
+    private final HashMap<String, MongoMutableField> fields;
+
+    private final ReactiveCountOperations<M> countOperations;
+    private final ReactiveCreateOperations<M> createOperations;
+    private final ReactiveDeleteOperations<M> deleteOperations;
+    private final ReactiveFindOperations<M> findOperations;
+    private final ReactiveUpdateOperations<M> updateOperations;
+
+    public ReactiveModel(
+            final Class<M> type,
+            final String modelName,
+            final MongoCollection<M> collection,
+            final List<String> uniques,
+            final HashMap<String, MongoMutableField> fields
+    ) {
+        this.type = type;
+        this.modelName = modelName;
+        this.collection = collection;
+        this.uniques = uniques;
+        this.fields = fields;
+
+        this.countOperations = new ReactiveCountOperations<>(this);
+        this.createOperations = new ReactiveCreateOperations<>(this);
+        this.deleteOperations = new ReactiveDeleteOperations<>(this);
+        this.findOperations = new ReactiveFindOperations<>(this);
+        this.updateOperations = new ReactiveUpdateOperations<>(this);
+    }
+
+    /**
+     * Creates a new {@link ReactiveModel} on the collection {@code modelName} of {@code database}.
+     *
+     * @param type      The class type of the model.
+     * @param fields    A map of field names to {@link MongoMutableField} instances.
+     * @param modelName The name of the model.
+     * @param database  The database holding the collection, with the codecs of the model registered.
+     * @param <M>       The type of the model.
+     * @return A new {@link ReactiveModel} instance.
+     */
+    @Contract("_, _, _, _ -> new")
+    public static <M> @NotNull ReactiveModel<M> of(
+            final Class<M> type,
+            final HashMap<String, MongoMutableField> fields,
+            final String modelName,
+            final @NotNull MongoDatabase database
+    ) {
+        return new ReactiveModel<>(
+                type,
+                modelName,
+                database.getCollection(modelName, type),
+                fields.entrySet().stream()
+                        .filter(entry -> entry.getValue().unique())
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toList()),
+                fields
+        );
+    }
+
+    /**
+     * Creates the unique index of every {@code @MongoUnique} field, named like those of the synchronous helper.
+     *
+     * @return A publisher of the created index names, completing right away when the model has no unique field.
+     */
+    public @NotNull Publisher<String> createIndexes() {
+        if (this.uniques.isEmpty()) {
+            return subscriber -> {
+                subscriber.onSubscribe(new Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onComplete();
+            };
+        }
+
+        val indexes = this.uniques.stream()
+                .map(unique -> ModelFields.uniqueIndex(this.modelName, unique))
+                .toList();
+        return this.collection.createIndexes(indexes);
+    }
+
+    /**
+     * Provides access to count operations for this model.
+     *
+     * @return The {@link ReactiveCountOperations} instance for this model.
+     */
+    public ReactiveCountOperations<M> count() {
+        return this.countOperations;
+    }
+
+    /**
+     * Provides access to create operations for this model.
+     *
+     * @return The {@link ReactiveCreateOperations} instance for this model.
+     */
+    public ReactiveCreateOperations<M> create() {
+        return this.createOperations;
+    }
+
+    /**
+     * Provides access to delete operations for this model.
+     *
+     * @return The {@link ReactiveDeleteOperations} instance for this model.
+     */
+    public ReactiveDeleteOperations<M> delete() {
+        return this.deleteOperations;
+    }
+
+    /**
+     * Provides access to find operations for this model.
+     *
+     * @return The {@link ReactiveFindOperations} instance for this model.
+     */
+    public ReactiveFindOperations<M> find() {
+        return this.findOperations;
+    }
+
+    /**
+     * Provides access to update operations for this model.
+     *
+     * @return The {@link ReactiveUpdateOperations} instance for this model.
+     */
+    public ReactiveUpdateOperations<M> update() {
+        return this.updateOperations;
+    }
+
+    /**
+     * Returns the class type of the model.
+     *
+     * @return The class type of the model.
+     */
+    public Class<M> type() {
+        return this.type;
+    }
+
+    /**
+     * Returns the name of the model.
+     *
+     * @return The name of the model.
+     */
+    public String modelName() {
+        return this.modelName;
+    }
+
+    /**
+     * Returns the reactive MongoDB collection associated with this model.
+     *
+     * @return The MongoDB collection for this model.
+     */
+    public MongoCollection<M> collection() {
+        return this.collection;
+    }
+
+    /**
+     * Returns the list of unique field names for this model.
+     *
+     * @return The list of unique field names.
+     */
+    public List<String> uniques() {
+        return this.uniques;
+    }
+
+    /**
+     * Returns a map of field names to {@link MongoMutableField} instances for this model.
+     *
+     * @return The map of field names to {@link MongoMutableField} instances.
+     */
+    public HashMap<String, MongoMutableField> fields() {
+        return this.fields;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.reactive;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import lombok.Getter;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoModel;
+import net.clydo.mongodb.codec.CodecsHelper;
+import net.clydo.mongodb.codec.uuid.UUIDStorage;
+import net.clydo.mongodb.loader.LoaderRegistry;
+import net.clydo.mongodb.util.ReflectionUtil;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The reactive streams counterpart of {@link net.clydo.mongodb.MongoHelper}.
+ * Models are read from the same annotations and encoded by the same codecs as with the synchronous driver; only the
+ * operations differ, returning {@link org.reactivestreams.Publisher Publishers} instead of blocking.
+ */
+public class ReactiveMongoHelper implements Closeable {
+    @Getter
+    protected final MongoClient mongoClient;
+    private final LoaderRegistry registry;
+    private final Set<String> schemas;
+    private final Map<Class<?>, ReactiveModel<?>> models;
+
+    /**
+     * Constructs a new {@link ReactiveMongoHelper} instance.
+     *
+     * @param mongoClient The reactive MongoDB client to be used by this helper.
+     */
+    public ReactiveMongoHelper(MongoClient mongoClient) {
+        this.mongoClient = mongoClient;
+        this.registry = new LoaderRegistry();
+        this.schemas = new HashSet<>();
+        this.models = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a new {@link ReactiveMongoHelper} instance using the provided {@link MongoClientSettings}.
+     *
+     * @param settings The settings to configure the MongoDB client.
+     * @return A new {@link ReactiveMongoHelper} instance.
+     */
+    @Contract("_ -> new")
+    public static @NotNull ReactiveMongoHelper create(MongoClientSettings settings) {
+        return new ReactiveMongoHelper(MongoClients.create(settings));
+    }
+
+    /**
+     * Creates a new {@link ReactiveMongoHelper} instance using the provided MongoDB connection string.
+     *
+     * @param connectionString The connection string for connecting to MongoDB.
+     * @return A new {@link ReactiveMongoHelper} instance.
+     */
+    @Contract("_ -> new")
+    public static @NotNull ReactiveMongoHelper create(String connectionString) {
+        return new ReactiveMongoHelper(MongoClients.create(new ConnectionString(connectionString)));
+    }
+
+    /**
+     * Creates a new schema with the specified name and models.
+     *
+     * @param schemaName The name of the schema to create.
+     * @param models     The model classes to include in the schema.
+     */
+    public void newSchema(
+            final String schemaName,
+            final Class<?>... models
+    ) {
+        this.newSchema(schemaName, null, UUIDStorage.DEFAULT, models);
+    }
+
+    /**
+     * Creates a new schema with the specified name, codec registry, UUID storage, and models.
+     * Unlike {@link net.clydo.mongodb.MongoHelper#newSchema}, unique indexes are not created here since that would
+     * block; subscribe to {@link ReactiveModel#createIndexes()} of every model instead.
+     *
+     * @param schemaName    The name of the schema to create.
+     * @param codecRegistry The codec registry to use for the schema, or {@code null}.
+     * @param uuidStorage   The storage of {@link java.util.UUID} values in this schema.
+     * @param models        The model classes to include in the schema.
+     */
+    public void newSchema(
+            final String schemaName,
+            final CodecRegistry codecRegistry,
+            final @NotNull UUIDStorage uuidStorage,
+            final Class<?> @NotNull ... models
+    ) {
+        synchronized (this.schemas) {
+            if (!this.schemas.add(schemaName)) {
+                throw new IllegalStateException(schemaName + " is already registered");
+            }
+        }
+
+        val database = this.mongoClient.getDatabase(schemaName)
+                .withCodecRegistry(CodecsHelper.createCodecRegistry(null, this.registry, codecRegistry, uuidStorage));
+
+        for (Class<?> clazz : models) {
+            val mongoModel = Objects.requireNonNull(ReflectionUtil.getAnnotation(clazz, MongoModel.class), "Class " + clazz.getSimpleName() + " must be annotated with @MongoModel.");
+            val type = this.registry.buildModelType(clazz);
+            this.models.put(clazz, ReactiveModel.of(clazz, type.fields(), mongoModel.value(), database));
+        }
+    }
+
+    /**
+     * Retrieves the model associated with the specified class.
+     *
+     * @param clazz The class of the model to retrieve.
+     * @param <M>   The type of the model.
+     * @return The {@link ReactiveModel} of the specified class.
+     * @throws NullPointerException If no model is found for the specified class.
+     */
+    @SuppressWarnings("unchecked")
+    public <M> @NotNull ReactiveModel<M> getModel(Class<M> clazz) {
+        return (ReactiveModel<M>) Objects.requireNonNull(this.models.get(clazz), "No model found for " + clazz.getSimpleName());
+    }
+
+    /**
+     * Closes the MongoDB client and releases any associated resources.
+     */
+    @Override
+    public void close() {
+        this.mongoClient.close();
+    }
+}
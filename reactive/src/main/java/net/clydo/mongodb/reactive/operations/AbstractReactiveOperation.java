@@ -0,0 +1,99 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.reactive.operations;
+
+import com.mongodb.reactivestreams.client.MongoCollection;
+import net.clydo.mongodb.loader.classes.values.MongoMutableField;
+import net.clydo.mongodb.operations.ModelFields;
+import net.clydo.mongodb.reactive.ReactiveModel;
+import org.bson.conversions.Bson;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * The filter and update helpers shared by the reactive operations, built by {@link ModelFields} like those of
+ * {@link net.clydo.mongodb.operations.AbstractOperation} for the synchronous driver.
+ */
+public class AbstractReactiveOperation<M> {
+    protected final ReactiveModel<M> model;
+
+    public AbstractReactiveOperation(ReactiveModel<M> model) {
+        this.model = model;
+    }
+
+    protected @NotNull HashMap<String, MongoMutableField> fields() {
+        return this.model.fields();
+    }
+
+    protected @NotNull MongoCollection<M> collection() {
+        return this.model.collection();
+    }
+
+    protected @NotNull String firstUniqueFieldName() {
+        return ModelFields.firstUniqueFieldName(this.model.uniques());
+    }
+
+    /**
+     * Returns the value of {@code fieldName} in {@code datum}, which must be set.
+     */
+    protected @NotNull Object getFieldValue(@NotNull M datum, @NotNull String fieldName) {
+        return ModelFields.fieldValue(this.fields(), datum, fieldName);
+    }
+
+    /**
+     * Converts a value of the given field to its stored form, see {@link MongoMutableField#storedValue(Object)}.
+     * Names that are not model fields are passed through unchanged.
+     */
+    protected @Nullable Object storedValue(@NotNull String fieldName, @Nullable Object value) {
+        return ModelFields.storedValue(this.fields(), fieldName, value);
+    }
+
+    /**
+     * Creates an equality filter on a field, encoding the value the way the field is stored.
+     */
+    protected @NotNull Bson eq(@NotNull String fieldName, @Nullable Object value) {
+        return ModelFields.eq(this.fields(), fieldName, value);
+    }
+
+    /**
+     * Creates an {@code $in} filter on a field, encoding the values the way the field is stored.
+     */
+    protected @NotNull Bson in(@NotNull String fieldName, @NotNull Collection<?> values) {
+        return ModelFields.in(this.fields(), fieldName, values.toArray());
+    }
+
+    /**
+     * Creates the {@code $set} of a field to its value in {@code datum}. A {@code null} value of a field that
+     * {@linkplain MongoMutableField#omitNull() omits nulls} is {@code $unset} instead.
+     */
+    protected @NotNull Bson set(@NotNull String fieldName, @NotNull MongoMutableField field, @NotNull M datum) {
+        return ModelFields.set(fieldName, field, datum);
+    }
+
+    /**
+     * Creates the {@code $set} of every field to its value in {@code datum}.
+     */
+    protected @NotNull Bson setAll(@NotNull M datum) {
+        return ModelFields.setAll(this.fields(), datum);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.reactive.operations;
+
+import net.clydo.mongodb.reactive.ReactiveModel;
+import org.bson.conversions.Bson;
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+
+/**
+ * Count operations of a {@link ReactiveModel}.
+ */
+public class ReactiveCountOperations<M> extends AbstractReactiveOperation<M> {
+    public ReactiveCountOperations(ReactiveModel<M> model) {
+        super(model);
+    }
+
+    /**
+     * Counts every document of the collection.
+     */
+    public @NotNull Publisher<Long> all() {
+        return this.collection().countDocuments();
+    }
+
+    /**
+     * Counts the documents matching {@code filter}.
+     */
+    public @NotNull Publisher<Long> many(@NotNull Bson filter) {
+        return this.collection().countDocuments(filter);
+    }
+
+    /**
+     * Estimates the number of documents from the collection metadata, without scanning it.
+     */
+    public @NotNull Publisher<Long> estimated() {
+        return this.collection().estimatedDocumentCount();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.reactive.operations;
+
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.client.result.InsertOneResult;
+import net.clydo.mongodb.reactive.ReactiveModel;
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+
+import java.util.List;
+
+/**
+ * Create operations of a {@link ReactiveModel}.
+ */
+public class ReactiveCreateOperations<M> extends AbstractReactiveOperation<M> {
+    public ReactiveCreateOperations(ReactiveModel<M> model) {
+        super(model);
+    }
+
+    /**
+     * Inserts {@code datum}.
+     */
+    public @NotNull Publisher<InsertOneResult> one(@NotNull M datum) {
+        return this.collection().insertOne(datum);
+    }
+
+    /**
+     * Inserts {@code data} in order, stopping at the first failure.
+     */
+    public @NotNull Publisher<InsertManyResult> many(@NotNull List<? extends M> data) {
+        return this.collection().insertMany(data);
+    }
+
+    /**
+     * Inserts {@code data}, continuing past failures when {@code ordered} is {@code false}.
+     */
+    public @NotNull Publisher<InsertManyResult> many(@NotNull List<? extends M> data, boolean ordered) {
+        return this.collection().insertMany(data, new InsertManyOptions().ordered(ordered));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.reactive.operations;
+
+import com.mongodb.client.result.DeleteResult;
+import lombok.val;
+import net.clydo.mongodb.reactive.ReactiveModel;
+import org.bson.conversions.Bson;
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+
+import java.util.Collection;
+
+/**
+ * Delete operations of a {@link ReactiveModel}.
+ */
+public class ReactiveDeleteOperations<M> extends AbstractReactiveOperation<M> {
+    public ReactiveDeleteOperations(ReactiveModel<M> model) {
+        super(model);
+    }
+
+    /**
+     * Deletes the first document matching {@code filter}.
+     */
+    public @NotNull Publisher<DeleteResult> one(@NotNull Bson filter) {
+        return this.collection().deleteOne(filter);
+    }
+
+    /**
+     * Deletes every document matching {@code filter}.
+     */
+    public @NotNull Publisher<DeleteResult> many(@NotNull Bson filter) {
+        return this.collection().deleteMany(filter);
+    }
+
+    /**
+     * Deletes the stored entity of {@code datum}, addressed by the model's only unique field.
+     */
+    public @NotNull Publisher<DeleteResult> one(@NotNull M datum) {
+        val fieldName = this.firstUniqueFieldName();
+        return this.one(this.eq(fieldName, this.getFieldValue(datum, fieldName)));
+    }
+
+    /**
+     * Deletes the document with the unique value {@code uniqueValue}.
+     */
+    public @NotNull Publisher<DeleteResult> byUnique(@NotNull Object uniqueValue) {
+        return this.one(this.eq(this.firstUniqueFieldName(), uniqueValue));
+    }
+
+    /**
+     * Deletes the documents with any of the unique values {@code uniqueValues}.
+     */
+    public @NotNull Publisher<DeleteResult> byUniques(@NotNull Collection<?> uniqueValues) {
+        return this.many(this.in(this.firstUniqueFieldName(), uniqueValues));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.reactive.operations;
+
+import com.mongodb.reactivestreams.client.FindPublisher;
+import net.clydo.mongodb.reactive.ReactiveModel;
+import org.bson.conversions.Bson;
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+
+import java.util.Collection;
+
+/**
+ * Find operations of a {@link ReactiveModel}. The returned {@link FindPublisher FindPublishers} honour the demand of
+ * their subscriber: cursor batches are only fetched as items are requested, and {@link FindPublisher#batchSize(int)}
+ * bounds how many documents are buffered at once.
+ */
+public class ReactiveFindOperations<M> extends AbstractReactiveOperation<M> {
+    public ReactiveFindOperations(ReactiveModel<M> model) {
+        super(model);
+    }
+
+    /**
+     * Finds every document of the collection.
+     */
+    public @NotNull FindPublisher<M> all() {
+        return this.collection().find();
+    }
+
+    /**
+     * Finds the documents matching {@code filter}.
+     */
+    public @NotNull FindPublisher<M> many(@NotNull Bson filter) {
+        return this.collection().find(filter);
+    }
+
+    /**
+     * Finds the documents whose {@code fieldName} equals {@code value}.
+     */
+    public @NotNull FindPublisher<M> many(@NotNull String fieldName, Object value) {
+        return this.many(this.eq(fieldName, value));
+    }
+
+    /**
+     * Finds the first document matching {@code filter}, completing empty when there is none.
+     */
+    public @NotNull Publisher<M> one(@NotNull Bson filter) {
+        return this.many(filter).first();
+    }
+
+    /**
+     * Finds the first document whose {@code fieldName} equals {@code value}.
+     */
+    public @NotNull Publisher<M> one(@NotNull String fieldName, Object value) {
+        return this.one(this.eq(fieldName, value));
+    }
+
+    /**
+     * Finds the document with the unique value {@code uniqueValue} of the model's only unique field.
+     */
+    public @NotNull Publisher<M> firstByUnique(@NotNull Object uniqueValue) {
+        return this.one(this.firstUniqueFieldName(), uniqueValue);
+    }
+
+    /**
+     * Finds the documents with any of the unique values {@code uniqueValues}, in no particular order.
+     */
+    public @NotNull FindPublisher<M> byUniques(@NotNull Collection<?> uniqueValues) {
+        return this.many(this.in(this.firstUniqueFieldName(), uniqueValues));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.reactive.operations;
+
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+import lombok.val;
+import net.clydo.mongodb.reactive.ReactiveModel;
+import org.bson.conversions.Bson;
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+
+import java.util.ArrayList;
+
+/**
+ * Update operations of a {@link ReactiveModel}. Entities are addressed by the model's only unique field.
+ */
+public class ReactiveUpdateOperations<M> extends AbstractReactiveOperation<M> {
+    public ReactiveUpdateOperations(ReactiveModel<M> model) {
+        super(model);
+    }
+
+    /**
+     * Applies {@code update} to the first document matching {@code filter}.
+     */
+    public @NotNull Publisher<UpdateResult> one(@NotNull Bson filter, @NotNull Bson update) {
+        return this.collection().updateOne(filter, update);
+    }
+
+    /**
+     * Applies {@code update} to every document matching {@code filter}.
+     */
+    public @NotNull Publisher<UpdateResult> many(@NotNull Bson filter, @NotNull Bson update) {
+        return this.collection().updateMany(filter, update);
+    }
+
+    /**
+     * Sets every field of the stored entity to its value in {@code datum}.
+     */
+    public @NotNull Publisher<UpdateResult> one(@NotNull M datum) {
+        return this.one(this.byUnique(datum), this.setAll(datum));
+    }
+
+    /**
+     * Sets only {@code fieldNames} of the stored entity to their values in {@code datum}.
+     */
+    public @NotNull Publisher<UpdateResult> one(@NotNull M datum, @NotNull String @NotNull ... fieldNames) {
+        if (fieldNames.length == 0) {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+
+        val updates = new ArrayList<Bson>(fieldNames.length);
+        for (val fieldName : fieldNames) {
+            val field = this.fields().get(fieldName);
+            if (field == null) {
+                throw new NullPointerException("No such field: " + fieldName);
+            }
+            updates.add(this.set(fieldName, field, datum));
+        }
+        return this.one(this.byUnique(datum), Updates.combine(updates));
+    }
+
+    /**
+     * Sets every field of the stored entity to its value in {@code datum}, inserting it when it does not exist yet.
+     */
+    public @NotNull Publisher<UpdateResult> upsert(@NotNull M datum) {
+        return this.collection().updateOne(this.byUnique(datum), this.setAll(datum), new UpdateOptions().upsert(true));
+    }
+
+    private @NotNull Bson byUnique(@NotNull M datum) {
+        val fieldName = this.firstUniqueFieldName();
+        return this.eq(fieldName, this.getFieldValue(datum, fieldName));
+    }
+}
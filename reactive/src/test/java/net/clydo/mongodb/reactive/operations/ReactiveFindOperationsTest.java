@@ -0,0 +1,191 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.reactive.operations;
+
+import com.mongodb.reactivestreams.client.FindPublisher;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.annotations.MongoUnique;
+import net.clydo.mongodb.loader.LoaderRegistry;
+import net.clydo.mongodb.reactive.ReactiveModel;
+import net.clydo.mongodb.testing.TestCollections;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The publishers of {@link ReactiveFindOperations} against a collection whose find publishers emit fixed documents only
+ * as they are requested, so no server is needed. The operations must hand the demand of the subscriber through to the
+ * driver instead of draining the cursor on their own.
+ */
+class ReactiveFindOperationsTest {
+
+    @Test
+    void emitsOnlyWhatIsRequested() {
+        val source = new Source(10);
+        val subscriber = new Recorder();
+        model(source).find().byUniques(List.of(1L, 2L)).subscribe(subscriber);
+
+        subscriber.subscription.request(3);
+        assertEquals(3, subscriber.received.size());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(7);
+        assertEquals(10, subscriber.received.size());
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.failure);
+        assertEquals(List.of(3L, 7L), source.requests);
+    }
+
+    @Test
+    void stopsAfterCancel() {
+        val source = new Source(10);
+        val subscriber = new Recorder();
+        model(source).find().all().subscribe(subscriber);
+
+        subscriber.subscription.request(2);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(5);
+
+        assertEquals(2, subscriber.received.size());
+        assertFalse(subscriber.completed);
+        assertTrue(source.cancelled);
+    }
+
+    @Test
+    void createIndexesWithoutUniquesCompletesEmpty() {
+        val subscriber = new Recorder();
+        new ReactiveModel<>(Account.class, "accounts", null, List.of(), TestCollections.fields(new LoaderRegistry(), Account.class))
+                .createIndexes()
+                .subscribe(subscriber);
+
+        assertTrue(subscriber.completed);
+        assertTrue(subscriber.received.isEmpty());
+    }
+
+    private static ReactiveModel<Account> model(Source source) {
+        final FindPublisher<Account> publisher = TestCollections.proxy(FindPublisher.class, (proxy, method, args) -> switch (method) {
+            case "subscribe" -> {
+                @SuppressWarnings("unchecked") // The publisher emits Account documents.
+                final Subscriber<? super Account> subscriber = (Subscriber<? super Account>) args[0];
+                source.subscribe(subscriber);
+                yield null;
+            }
+            default -> throw TestCollections.unsupported(method);
+        });
+        final MongoCollection<Account> collection = TestCollections.proxy(MongoCollection.class, (proxy, method, args) -> switch (method) {
+            case "find" -> publisher;
+            default -> throw TestCollections.unsupported(method);
+        });
+        return new ReactiveModel<>(Account.class, "accounts", collection, List.of("number"), TestCollections.fields(new LoaderRegistry(), Account.class));
+    }
+
+    /**
+     * Emits {@code size} accounts, never more than requested, and records the demand it saw.
+     */
+    private static final class Source {
+        private final List<Account> documents;
+        private final List<Long> requests = new ArrayList<>();
+        private boolean cancelled;
+
+        Source(int size) {
+            this.documents = LongStream.range(0, size).mapToObj(Account::new).toList();
+        }
+
+        void subscribe(@NotNull Subscriber<? super Account> subscriber) {
+            subscriber.onSubscribe(new Subscription() {
+                private int next;
+
+                @Override
+                public void request(long n) {
+                    if (Source.this.cancelled || this.next > Source.this.documents.size()) {
+                        return;
+                    }
+                    Source.this.requests.add(n);
+                    for (long i = 0; i < n && this.next < Source.this.documents.size(); i++) {
+                        subscriber.onNext(Source.this.documents.get(this.next++));
+                    }
+                    if (this.next == Source.this.documents.size()) {
+                        this.next++;
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    Source.this.cancelled = true;
+                }
+            });
+        }
+    }
+
+    private static final class Recorder implements Subscriber<Object> {
+        private final List<Object> received = new ArrayList<>();
+        private Subscription subscription;
+        private boolean completed;
+        private Throwable failure;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Object item) {
+            this.received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+    }
+
+    @MongoType
+    public static class Account {
+        @MongoUnique
+        @MongoField("number")
+        public long number;
+
+        public Account() {
+        }
+
+        Account(long number) {
+            this.number = number;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.cache;
+
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.annotations.MongoUnique;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.testing.TestCollections;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups of cached entities per {@link NearCacheOptions.Storage}, and the memory each storage keeps for them.
+ * <p>
+ * The setup fills a cache with {@link #entries} five-field entities and prints the heap it retained per entry (measured
+ * after full collections, without the key strings, which the caller holds anyway) and the direct memory of
+ * {@link NearCacheOptions.Storage#OFF_HEAP} pages. Run with a fixed heap, e.g.
+ * {@code gradle jmh -Pjmh="NearCacheStorageBenchmark -jvmArgs -Xmx2g"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NearCacheStorageBenchmark {
+    @Param({"OBJECT", "RAW_BSON", "OFF_HEAP"})
+    public NearCacheOptions.Storage storage;
+
+    @Param("200000")
+    public int entries;
+
+    private NearCache<Player> cache;
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        this.keys = new String[this.entries];
+        for (int i = 0; i < this.entries; i++) {
+            this.keys[i] = "player-" + i;
+        }
+
+        val before = usedHeap();
+        this.cache = new NearCache<>(model(), "name", NearCacheOptions.defaults()
+                .withMaximumSize(this.entries)
+                .offHeap(1024L * 1024 * 1024)
+                .withStorage(this.storage));
+        for (int i = 0; i < this.entries; i++) {
+            val level = i;
+            this.cache.get(this.keys[i], name -> new Player((String) name, level));
+        }
+        val retained = usedHeap() - before;
+
+        val stats = this.cache.stats();
+        System.out.printf(
+                "%n%s: %d entries, heap %.1f MB (%d B/entry), direct %.1f MB%n",
+                this.storage, stats.size(), retained / 1e6, retained / Math.max(1, stats.size()), stats.offHeapBytes() / 1e6
+        );
+    }
+
+    @Benchmark
+    public Player lookup() {
+        return this.cache.get(this.keys[ThreadLocalRandom.current().nextInt(this.entries)], name -> {
+            throw new IllegalStateException("Not cached: " + name);
+        });
+    }
+
+    private static long usedHeap() {
+        val memory = ManagementFactory.getMemoryMXBean();
+        var used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    private static MongoModelValue<Player> model() {
+        return TestCollections.fake(Player.class, List.of("name"), (proxy, method, args) -> {
+            throw TestCollections.unsupported(method);
+        });
+    }
+
+    @MongoType
+    public static class Player {
+        @MongoField("_id")
+        public ObjectId id;
+
+        @MongoUnique
+        @MongoField("name")
+        public String name;
+
+        @MongoField("level")
+        public int level;
+
+        @MongoField("balance")
+        public long balance;
+
+        @MongoField("guild")
+        public String guild;
+
+        public Player() {
+        }
+
+        Player(String name, int level) {
+            this.id = new ObjectId();
+            this.name = name;
+            this.level = level;
+            this.balance = level * 100L;
+            this.guild = "guild-" + (level % 50);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.codec.type;
+
+import com.mongodb.MongoClientSettings;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.codec.CodecsHelper;
+import net.clydo.mongodb.loader.LoaderRegistry;
+import net.clydo.mongodb.loader.classes.values.MongoMutableField;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Encoding and decoding the values of a {@code List<String>} and a {@code Map<String, Integer>} field, either looking
+ * the codec up in the registry for every value (what {@link TypeCodec} did before codecs were cached per field) or
+ * through {@link MongoMutableField#codec(CodecRegistry)}. The driver does not cache parameterized lookups, so every
+ * lookup walks the providers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollectionFieldCodecBenchmark {
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    private CodecRegistry registry;
+    private MongoMutableField tagsField;
+    private MongoMutableField scoresField;
+    private Profile profile;
+    private BasicOutputBuffer buffer;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        val loader = new LoaderRegistry();
+        this.registry = CodecRegistries.fromRegistries(
+                CodecRegistries.fromProviders(new ClassCodecProvider(null, loader)),
+                MongoClientSettings.getDefaultCodecRegistry()
+        );
+        val fields = loader.buildType(Profile.class).fields();
+        this.tagsField = fields.get("tags");
+        this.scoresField = fields.get("scores");
+
+        this.profile = new Profile();
+        this.profile.tags = List.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j");
+        this.profile.scores = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            this.profile.scores.put("k" + i, i);
+        }
+
+        this.buffer = new BasicOutputBuffer();
+        this.encoded = this.encode(field -> field.codec(this.registry));
+    }
+
+    @Benchmark
+    public byte[] encodeLookupPerValue() {
+        return this.encode(field -> this.lookup(field));
+    }
+
+    @Benchmark
+    public byte[] encodeCachedPerField() {
+        return this.encode(field -> field.codec(this.registry));
+    }
+
+    @Benchmark
+    public void decodeLookupPerValue(Blackhole blackhole) {
+        this.decode(field -> this.lookup(field), blackhole);
+    }
+
+    @Benchmark
+    public void decodeCachedPerField(Blackhole blackhole) {
+        this.decode(field -> field.codec(this.registry), blackhole);
+    }
+
+    @SuppressWarnings("unchecked") // The registry returns the codec of the field's own type.
+    private Codec<Object> lookup(MongoMutableField field) {
+        return (Codec<Object>) CodecsHelper.getCodec(this.registry, field.wrappedType());
+    }
+
+    private byte[] encode(Function<MongoMutableField, Codec<Object>> codecs) {
+        this.buffer.truncateToPosition(0);
+        try (val writer = new BsonBinaryWriter(this.buffer)) {
+            writer.writeStartDocument();
+            writer.writeName("tags");
+            codecs.apply(this.tagsField).encode(writer, this.tagsField.get(this.profile), ENCODER_CONTEXT);
+            writer.writeName("scores");
+            codecs.apply(this.scoresField).encode(writer, this.scoresField.get(this.profile), ENCODER_CONTEXT);
+            writer.writeEndDocument();
+        }
+        return this.buffer.toByteArray();
+    }
+
+    private void decode(Function<MongoMutableField, Codec<Object>> codecs, Blackhole blackhole) {
+        try (val reader = new BsonBinaryReader(ByteBuffer.wrap(this.encoded))) {
+            reader.readStartDocument();
+            reader.readName();
+            blackhole.consume(codecs.apply(this.tagsField).decode(reader, DECODER_CONTEXT));
+            reader.readName();
+            blackhole.consume(codecs.apply(this.scoresField).decode(reader, DECODER_CONTEXT));
+            reader.readEndDocument();
+        }
+    }
+
+    @MongoType
+    public static class Profile {
+        @MongoField("tags")
+        public List<String> tags;
+
+        @MongoField("scores")
+        public Map<String, Integer> scores;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.codec.type;
+
+import com.mongodb.MongoClientSettings;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.loader.LoaderRegistry;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a mostly empty document with {@link MongoField#omitNull()} against the same fields written as
+ * BSON null. The size difference is checked by {@code OmitNullsEncodingTest}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OmitNullsBenchmark {
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    private Codec<Dense> denseCodec;
+    private Codec<Sparse> sparseCodec;
+    private Dense dense;
+    private Sparse sparse;
+    private BasicOutputBuffer buffer;
+    private byte[] denseEncoded;
+    private byte[] sparseEncoded;
+
+    @Setup
+    public void setup() {
+        val registry = CodecRegistries.fromRegistries(
+                CodecRegistries.fromProviders(new ClassCodecProvider(null, new LoaderRegistry())),
+                MongoClientSettings.getDefaultCodecRegistry()
+        );
+        this.denseCodec = registry.get(Dense.class);
+        this.sparseCodec = registry.get(Sparse.class);
+
+        this.dense = new Dense();
+        this.dense.name = "player";
+        this.dense.level = 12;
+        this.sparse = new Sparse();
+        this.sparse.name = "player";
+        this.sparse.level = 12;
+
+        this.buffer = new BasicOutputBuffer();
+        this.denseEncoded = this.encode(this.denseCodec, this.dense);
+        this.sparseEncoded = this.encode(this.sparseCodec, this.sparse);
+    }
+
+    @Benchmark
+    public byte[] encodeNulls() {
+        return this.encode(this.denseCodec, this.dense);
+    }
+
+    @Benchmark
+    public byte[] encodeOmitNulls() {
+        return this.encode(this.sparseCodec, this.sparse);
+    }
+
+    @Benchmark
+    public Dense decodeNulls() {
+        return this.decode(this.denseCodec, this.denseEncoded);
+    }
+
+    @Benchmark
+    public Sparse decodeOmitNulls() {
+        return this.decode(this.sparseCodec, this.sparseEncoded);
+    }
+
+    private <T> byte[] encode(Codec<T> codec, T value) {
+        this.buffer.truncateToPosition(0);
+        try (val writer = new BsonBinaryWriter(this.buffer)) {
+            codec.encode(writer, value, ENCODER_CONTEXT);
+        }
+        return this.buffer.toByteArray();
+    }
+
+    private <T> T decode(Codec<T> codec, byte[] encoded) {
+        try (val reader = new BsonBinaryReader(ByteBuffer.wrap(encoded))) {
+            return codec.decode(reader, DECODER_CONTEXT);
+        }
+    }
+
+    @MongoType
+    public static class Dense {
+        @MongoField("name")
+        public String name;
+
+        @MongoField("level")
+        public Integer level;
+
+        @MongoField("nickname")
+        public String nickname;
+
+        @MongoField("guild")
+        public String guild;
+
+        @MongoField("locale")
+        public String locale;
+
+        @MongoField("lastSeen")
+        public Long lastSeen;
+
+        @MongoField("rating")
+        public Double rating;
+
+        @MongoField("banReason")
+        public String banReason;
+    }
+
+    @MongoType
+    public static class Sparse {
+        @MongoField(value = "name", omitNull = true)
+        public String name;
+
+        @MongoField(value = "level", omitNull = true)
+        public Integer level;
+
+        @MongoField(value = "nickname", omitNull = true)
+        public String nickname;
+
+        @MongoField(value = "guild", omitNull = true)
+        public String guild;
+
+        @MongoField(value = "locale", omitNull = true)
+        public String locale;
+
+        @MongoField(value = "lastSeen", omitNull = true)
+        public Long lastSeen;
+
+        @MongoField(value = "rating", omitNull = true)
+        public Double rating;
+
+        @MongoField(value = "banReason", omitNull = true)
+        public String banReason;
+    }
+}
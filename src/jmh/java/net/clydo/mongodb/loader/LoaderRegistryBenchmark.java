@@ -0,0 +1,72 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.loader;
+
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving already loaded types of one shared {@link LoaderRegistry} from many threads, which is what the driver does
+ * for every document it decodes. Run with {@code -t 1} and {@code -t <cores>}: lookups take no lock, so the throughput
+ * per thread should stay flat as threads are added.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class LoaderRegistryBenchmark {
+    private LoaderRegistry registry;
+
+    @Setup
+    public void setup() {
+        this.registry = new LoaderRegistry();
+        this.registry.getModelOrType(Order.class);
+    }
+
+    @Benchmark
+    public Object loadedType() {
+        return this.registry.getModelOrType(Order.class);
+    }
+
+    @MongoType
+    public static class Order {
+        @MongoField("sku")
+        public String sku;
+
+        @MongoField("quantity")
+        public int quantity;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.loader.classes.accessor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing an {@code int} and a {@code String} field through {@link Field} (the path
+ * {@code MongoMutableField} used before accessors), a {@link MethodHandleFieldAccessor} and the constant accessor
+ * built by {@link FieldAccessor#of(Field)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldAccessBenchmark {
+    private Holder holder;
+    private int next;
+
+    private Field intField;
+    private Field stringField;
+    private FieldAccessor intHandles;
+    private FieldAccessor stringHandles;
+    private FieldAccessor intConstant;
+    private FieldAccessor stringConstant;
+
+    @Setup
+    public void setup() throws NoSuchFieldException {
+        this.holder = new Holder();
+
+        this.intField = Holder.class.getDeclaredField("score");
+        this.stringField = Holder.class.getDeclaredField("name");
+        this.intField.setAccessible(true);
+        this.stringField.setAccessible(true);
+
+        this.intHandles = new MethodHandleFieldAccessor(this.intField);
+        this.stringHandles = new MethodHandleFieldAccessor(this.stringField);
+        this.intConstant = FieldAccessor.of(this.intField);
+        this.stringConstant = FieldAccessor.of(this.stringField);
+        if (!this.intConstant.getClass().isHidden()) {
+            throw new IllegalStateException("No constant accessor was defined");
+        }
+    }
+
+    @Benchmark
+    public int reflectionInt() throws IllegalAccessException {
+        this.intField.set(this.holder, this.next++);
+        return (int) this.intField.get(this.holder);
+    }
+
+    @Benchmark
+    public int methodHandleInt() {
+        this.intHandles.setInt(this.holder, this.next++);
+        return this.intHandles.getInt(this.holder);
+    }
+
+    @Benchmark
+    public int constantInt() {
+        this.intConstant.setInt(this.holder, this.next++);
+        return this.intConstant.getInt(this.holder);
+    }
+
+    @Benchmark
+    public Object reflectionObject() throws IllegalAccessException {
+        this.stringField.set(this.holder, "a");
+        return this.stringField.get(this.holder);
+    }
+
+    @Benchmark
+    public Object methodHandleObject() {
+        this.stringHandles.set(this.holder, "a");
+        return this.stringHandles.get(this.holder);
+    }
+
+    @Benchmark
+    public Object constantObject() {
+        this.stringConstant.set(this.holder, "a");
+        return this.stringConstant.get(this.holder);
+    }
+
+    public static class Holder {
+        private int score;
+        private String name;
+    }
+}
@@ -22,12 +22,15 @@ package net.clydo.mongodb;
 
 import com.mongodb.client.MongoClient;
 import lombok.Getter;
+import net.clydo.mongodb.codec.uuid.UUIDStorage;
 import net.clydo.mongodb.loader.classes.values.MongoModelValue;
 import net.clydo.mongodb.schematic.MongoSchemaHelper;
+import net.clydo.mongodb.schematic.WarmUpOptions;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.Closeable;
+import java.time.Duration;
 
 /**
  * A helper class for managing MongoDB connections and schemas.
@@ -79,6 +82,71 @@ public class MongoHelper implements Closeable {
         this.schemaHelper.newSchema(schemaName, codecRegistry, models);
     }
 
+    /**
+     * Creates a new schema with the specified name, codec registry, UUID storage, and models.
+     * The UUID storage decides how {@link java.util.UUID} values are stored in this schema, unless a field overrides it
+     * through {@code @MongoField(uuid = ...)}.
+     *
+     * @param schemaName    The name of the schema to create.
+     * @param codecRegistry The codec registry to use for the schema, or {@code null}.
+     * @param uuidStorage   The storage of {@link java.util.UUID} values in this schema.
+     * @param models        The model classes to include in the schema.
+     */
+    public void newSchema(
+            final String schemaName,
+            final CodecRegistry codecRegistry,
+            final @NotNull UUIDStorage uuidStorage,
+            final Class<?> @NotNull ... models
+    ) {
+        this.schemaHelper.newSchema(schemaName, codecRegistry, uuidStorage, models);
+    }
+
+    /**
+     * Creates a new schema like {@link #newSchema(String, CodecRegistry, UUIDStorage, Class[])} and warms it up before
+     * returning: the codecs of every model and nested type are built eagerly and run through {@code warmUpRounds}
+     * synthetic encode/decode round-trips, so the first real requests do not pay for class loading and interpretation.
+     * A few thousand rounds are usually enough for the JIT to compile the hot codec methods.
+     *
+     * @param schemaName    The name of the schema to create.
+     * @param codecRegistry The codec registry to use for the schema, or {@code null}.
+     * @param uuidStorage   The storage of {@link java.util.UUID} values in this schema.
+     * @param warmUpRounds  The number of round-trips per model and nested type; {@code 0} skips the warm-up.
+     * @param models        The model classes to include in the schema.
+     * @return How long the warm-up took.
+     */
+    public @NotNull Duration newSchema(
+            final String schemaName,
+            final CodecRegistry codecRegistry,
+            final @NotNull UUIDStorage uuidStorage,
+            final int warmUpRounds,
+            final Class<?> @NotNull ... models
+    ) {
+        return this.schemaHelper.newSchema(schemaName, codecRegistry, uuidStorage, warmUpRounds, models);
+    }
+
+    /**
+     * Creates a new schema like {@link #newSchema(String, CodecRegistry, UUIDStorage, Class[])} and warms it up before
+     * returning. Each model and nested type is encoded and decoded from a representative instance, with every field it
+     * can fill set to a sample value, until {@link WarmUpOptions#rounds()} round-trips are done or
+     * {@link WarmUpOptions#maxDuration()} has passed.
+     *
+     * @param schemaName    The name of the schema to create.
+     * @param codecRegistry The codec registry to use for the schema, or {@code null}.
+     * @param uuidStorage   The storage of {@link java.util.UUID} values in this schema.
+     * @param warmUp        The number of round-trips and the time budget of the warm-up.
+     * @param models        The model classes to include in the schema.
+     * @return How long the warm-up took.
+     */
+    public @NotNull Duration newSchema(
+            final String schemaName,
+            final CodecRegistry codecRegistry,
+            final @NotNull UUIDStorage uuidStorage,
+            final @NotNull WarmUpOptions warmUp,
+            final Class<?> @NotNull ... models
+    ) {
+        return this.schemaHelper.newSchema(schemaName, codecRegistry, uuidStorage, warmUp, models);
+    }
+
     /**
      * Retrieves the model associated with the specified class.
      * This method allows access to the model definition for a given class within the schema.
@@ -94,11 +162,16 @@ public class MongoHelper implements Closeable {
 
     /**
      * Closes the MongoDB client and releases any associated resources.
+     * Pending updates of {@linkplain MongoModelValue#writeBehind() write-behind queues} are flushed first.
      * This method is part of the {@link Closeable} interface and should be called
      * when the MongoDB client is no longer needed.
      */
     @Override
     public void close() {
-        this.mongoClient.close();
+        try {
+            this.schemaHelper.close();
+        } finally {
+            this.mongoClient.close();
+        }
     }
 }
@@ -28,4 +28,20 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 public @interface MongoEnum {
+    /**
+     * How the constants are written to the database. {@link Storage#INT32} requires every constant to declare a
+     * {@link MongoMapAs#code()}; values stored as strings are still read, so a collection can be migrated in place.
+     */
+    Storage storage() default Storage.STRING;
+
+    enum Storage {
+        /**
+         * The {@link MongoMapAs#value()} key as a BSON string.
+         */
+        STRING,
+        /**
+         * The {@link MongoMapAs#code()} as a BSON int32.
+         */
+        INT32
+    }
 }
@@ -20,6 +20,8 @@
 
 package net.clydo.mongodb.annotations;
 
+import net.clydo.mongodb.codec.uuid.UUIDStorage;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -29,4 +31,14 @@ import java.lang.annotation.Target;
 @Target(ElementType.FIELD)
 public @interface MongoField {
     String value();
+
+    /**
+     * How a {@link java.util.UUID} field is stored; {@link UUIDStorage#DEFAULT} follows the schema. Ignored for other types.
+     */
+    UUIDStorage uuid() default UUIDStorage.DEFAULT;
+
+    /**
+     * Leaves the field out of the document when it is {@code null} instead of writing BSON null, see {@link MongoModel#omitNulls()}.
+     */
+    boolean omitNull() default false;
 }
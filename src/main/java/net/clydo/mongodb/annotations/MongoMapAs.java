@@ -29,4 +29,10 @@ import java.lang.annotation.Target;
 @Target(ElementType.FIELD)
 public @interface MongoMapAs {
     String value();
+
+    /**
+     * The int32 code written when the enum uses {@link MongoEnum.Storage#INT32}. Codes must be unique, non-negative
+     * and below {@code 65536}; they are never derived from the ordinal so constants can be reordered safely.
+     */
+    int code() default -1;
 }
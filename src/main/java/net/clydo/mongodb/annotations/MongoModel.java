@@ -30,4 +30,22 @@ import java.lang.annotation.Target;
 @MongoType
 public @interface MongoModel {
     String value();
+
+    /**
+     * Leaves every {@code null} field out of the document instead of writing BSON null; updates {@code $unset} them.
+     * A missing field decodes like a {@code null} one, except that field initializers are kept.
+     */
+    boolean omitNulls() default false;
+
+    /**
+     * Snapshots every decoded entity so {@code update().changed(datum)} can send only the fields modified since.
+     * Costs one extra encode of each decoded entity.
+     */
+    boolean trackChanges() default false;
+
+    /**
+     * The number of documents the server returns per cursor batch for {@code find()} queries of this model;
+     * {@code 0} leaves it to the server.
+     */
+    int batchSize() default 0;
 }
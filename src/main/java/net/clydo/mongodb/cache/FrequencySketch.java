@@ -0,0 +1,90 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.cache;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An approximate, aging access counter for cache admission: a count-min sketch of four rows of saturating counters
+ * that are all halved after {@code 10 * width} increments, so keys that stop being requested lose their weight.
+ * <p>
+ * Updates are not synchronized; a lost increment under contention only makes the estimate slightly lower.
+ */
+final class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int MAX_WIDTH = 1 << 22;
+    private static final int[] SEEDS = {0x97cb3127, 0xb492b66f, 0x9ae16a3b, 0x85ebca6b};
+
+    private final byte[] counts;
+    private final int width;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+        this.width = Math.min(MAX_WIDTH, Integer.highestOneBit(Math.max(16, maximumSize) - 1) << 1);
+        this.counts = new byte[DEPTH * this.width];
+        this.sampleSize = 10 * this.width;
+    }
+
+    void increment(@NotNull Object key) {
+        val hash = spread(key.hashCode());
+        var added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            val index = this.index(hash, row);
+            if (this.counts[index] < MAX_COUNT) {
+                this.counts[index]++;
+                added = true;
+            }
+        }
+
+        if (added && ++this.additions >= this.sampleSize) {
+            this.age();
+        }
+    }
+
+    int frequency(@NotNull Object key) {
+        val hash = spread(key.hashCode());
+        var frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, this.counts[this.index(hash, row)]);
+        }
+        return frequency;
+    }
+
+    private int index(int hash, int row) {
+        var h = (hash ^ SEEDS[row]) * SEEDS[row];
+        h ^= h >>> 16;
+        return row * this.width + (h & (this.width - 1));
+    }
+
+    private void age() {
+        this.additions = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] >>>= 1;
+        }
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9e3779b9;
+        return hash ^ (hash >>> 15);
+    }
+}
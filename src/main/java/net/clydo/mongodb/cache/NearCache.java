@@ -0,0 +1,436 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.cache;
+
+import lombok.val;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonElement;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A bounded read-through cache of the entities of a model, keyed by the value of its unique field.
+ * <p>
+ * Lookups that are not cached run their loader and keep the result for {@link NearCacheOptions#ttl()}, or remember the
+ * miss for {@link NearCacheOptions#missTtl()}. When the cache is full, a new value is only admitted if it was requested
+ * more often than a victim sampled from the cached values, so a burst of one-off lookups can not flush the hot set.
+ * <p>
+ * The write operations of the model invalidate the unique values they are addressed by and the unique values of the
+ * entities they write; writes by an arbitrary filter invalidate the whole cache. A result that was loaded while an
+ * invalidation happened is not cached. Unique values are compared with {@link Object#equals}, so they must be passed
+ * as the Java type of the unique field. Changing the unique value of a document through a write that is not addressed
+ * by it leaves the old value cached until it expires.
+ *
+ * @param <M> The type of the model.
+ */
+public final class NearCache<M> {
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+    private static final Object MISSING = new Object();
+    private static final long NEVER = Long.MIN_VALUE;
+    private static final int SAMPLE_SIZE = 8;
+
+    private final MongoModelValue<M> model;
+    private final String fieldName;
+    private final NearCacheOptions options;
+    private final long ttlNanos;
+    private final long missTtlNanos;
+
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final FrequencySketch sketch;
+    private final @Nullable OffHeapStore offHeap;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Every cached entry, for sampling eviction victims; guarded by {@code this}.
+     */
+    private final Entry[] slots;
+    private int size;
+
+    private volatile Codec<M> codec;
+
+    public NearCache(@NotNull MongoModelValue<M> model, @NotNull String fieldName, @NotNull NearCacheOptions options) {
+        this.model = model;
+        this.fieldName = fieldName;
+        this.options = options;
+        this.ttlNanos = options.ttl().toNanos();
+        this.missTtlNanos = options.missTtl().toNanos();
+        this.sketch = new FrequencySketch(options.maximumSize());
+        this.slots = new Entry[options.maximumSize()];
+        this.offHeap = options.storage() == NearCacheOptions.Storage.OFF_HEAP ? new OffHeapStore(options.offHeapBytes()) : null;
+    }
+
+    /**
+     * Returns the cached entity of a unique value, or loads and caches it.
+     *
+     * @param uniqueValue The value of the unique field.
+     * @param loader      Finds the entity of a unique value, returning {@code null} if there is none.
+     * @return The entity, or {@code null} if the unique value has no document.
+     */
+    public @Nullable M get(@NotNull Object uniqueValue, @NotNull Function<Object, M> loader) {
+        val cached = this.lookup(uniqueValue);
+        if (cached == MISSING) {
+            return null;
+        }
+        if (cached != null) {
+            val datum = this.unwrap(cached);
+            if (datum != null) {
+                return datum;
+            }
+        }
+
+        val generation = this.generation.get();
+        val loaded = loader.apply(uniqueValue);
+        this.store(uniqueValue, loaded, generation);
+        return loaded;
+    }
+
+    /**
+     * Returns the cached entity of a unique value, or loads and caches it, see {@link #get}.
+     *
+     * @param uniqueValue The value of the unique field.
+     * @param loader      Finds the entity of a unique value, completing with {@code null} if there is none.
+     * @return A future of the entity, completed right away when it is cached.
+     */
+    public @NotNull CompletableFuture<M> getAsync(@NotNull Object uniqueValue, @NotNull Function<Object, CompletableFuture<M>> loader) {
+        val cached = this.lookup(uniqueValue);
+        if (cached == MISSING) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (cached != null) {
+            val datum = this.unwrap(cached);
+            if (datum != null) {
+                return CompletableFuture.completedFuture(datum);
+            }
+        }
+
+        val generation = this.generation.get();
+        return loader.apply(uniqueValue).thenApply(loaded -> {
+            this.store(uniqueValue, loaded, generation);
+            return loaded;
+        });
+    }
+
+    /**
+     * Drops the entry of a unique value.
+     */
+    public void invalidate(@Nullable Object uniqueValue) {
+        this.generation.incrementAndGet();
+        if (uniqueValue == null) {
+            return;
+        }
+
+        synchronized (this) {
+            val entry = this.entries.remove(uniqueValue);
+            if (entry != null) {
+                this.unlink(entry);
+            }
+        }
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public void invalidateAll() {
+        this.generation.incrementAndGet();
+        synchronized (this) {
+            for (int slot = 0; slot < this.size; slot++) {
+                this.release(this.slots[slot]);
+            }
+            this.entries.clear();
+            Arrays.fill(this.slots, 0, this.size, null);
+            this.size = 0;
+        }
+    }
+
+    /**
+     * Returns the name of the unique field the cache is keyed by.
+     */
+    public @NotNull String fieldName() {
+        return this.fieldName;
+    }
+
+    public @NotNull NearCacheOptions options() {
+        return this.options;
+    }
+
+    /**
+     * Returns the counters of the cache since it was created.
+     */
+    public @NotNull Stats stats() {
+        val offHeap = this.offHeap;
+        return new Stats(this.hits.sum(), this.misses.sum(), this.evictions.sum(), this.entries.size(), offHeap == null ? 0L : offHeap.usedBytes());
+    }
+
+    private @Nullable Object lookup(@NotNull Object uniqueValue) {
+        this.sketch.increment(uniqueValue);
+
+        val entry = this.entries.get(uniqueValue);
+        if (entry != null) {
+            if (!entry.expired(System.nanoTime())) {
+                this.hits.increment();
+                return entry.value;
+            }
+            this.remove(entry);
+        }
+
+        this.misses.increment();
+        return null;
+    }
+
+    private void store(@NotNull Object uniqueValue, @Nullable M loaded, long generation) {
+        if (loaded == null && this.missTtlNanos == 0) {
+            return;
+        }
+
+        val now = System.nanoTime();
+        final Object value;
+        final long expiresAt;
+        if (loaded == null) {
+            value = MISSING;
+            expiresAt = now + this.missTtlNanos;
+        } else {
+            value = switch (this.options.storage()) {
+                case OBJECT -> loaded;
+                case RAW_BSON -> this.encode(loaded).toByteArray();
+                case OFF_HEAP -> {
+                    val buffer = this.encode(loaded);
+                    //noinspection DataFlowIssue
+                    yield this.offHeap.write(buffer.getInternalBuffer(), buffer.getPosition());
+                }
+            };
+            if (value == null) {
+                return;
+            }
+            expiresAt = this.ttlNanos == 0 ? NEVER : now + this.ttlNanos;
+        }
+        val entry = new Entry(uniqueValue, value, expiresAt);
+
+        synchronized (this) {
+            if (this.generation.get() != generation) {
+                this.release(entry);
+                return;
+            }
+
+            val previous = this.entries.get(uniqueValue);
+            if (previous != null) {
+                this.release(previous);
+                entry.slot = previous.slot;
+                this.slots[entry.slot] = entry;
+                this.entries.put(uniqueValue, entry);
+                return;
+            }
+
+            if (this.size == this.slots.length) {
+                val victim = this.victim(now);
+                if (!victim.expired(now) && this.sketch.frequency(uniqueValue) <= this.sketch.frequency(victim.key)) {
+                    this.release(entry);
+                    return;
+                }
+                this.entries.remove(victim.key);
+                this.unlink(victim);
+                this.evictions.increment();
+            }
+
+            entry.slot = this.size;
+            this.slots[this.size++] = entry;
+            this.entries.put(uniqueValue, entry);
+        }
+    }
+
+    /**
+     * Samples a few cached entries and returns an expired one, or else the least frequently requested one.
+     */
+    private @NotNull Entry victim(long now) {
+        val random = ThreadLocalRandom.current();
+        Entry victim = null;
+        var victimFrequency = Integer.MAX_VALUE;
+
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            val candidate = this.slots[random.nextInt(this.size)];
+            if (candidate.expired(now)) {
+                return candidate;
+            }
+
+            val frequency = this.sketch.frequency(candidate.key);
+            if (frequency < victimFrequency) {
+                victim = candidate;
+                victimFrequency = frequency;
+            }
+        }
+        return victim;
+    }
+
+    private synchronized void remove(@NotNull Entry entry) {
+        if (this.entries.remove(entry.key, entry)) {
+            this.unlink(entry);
+        }
+    }
+
+    /**
+     * Moves the last slot into the slot of a removed entry and releases its off-heap bytes; the caller holds the lock.
+     */
+    private void unlink(@NotNull Entry entry) {
+        this.release(entry);
+        val last = this.slots[--this.size];
+        this.slots[entry.slot] = last;
+        last.slot = entry.slot;
+        this.slots[this.size] = null;
+    }
+
+    private void release(@NotNull Entry entry) {
+        if (entry.value instanceof OffHeapStore.Ref ref) {
+            //noinspection DataFlowIssue
+            this.offHeap.free(ref);
+        }
+    }
+
+    /**
+     * Returns the entity of a cached value other than a miss, or {@code null} when its off-heap bytes were released
+     * since it was looked up.
+     */
+    private @Nullable M unwrap(@NotNull Object value) {
+        if (value instanceof byte[] bytes) {
+            return this.decode(ByteBuffer.wrap(bytes));
+        }
+        if (value instanceof OffHeapStore.Ref ref) {
+            //noinspection DataFlowIssue
+            return this.offHeap.read(ref, this::decode);
+        }
+        return this.model.type().cast(value);
+    }
+
+    private @NotNull M decode(@NotNull ByteBuffer bytes) {
+        try (val reader = new BsonBinaryReader(bytes)) {
+            return this.codec().decode(reader, DECODER_CONTEXT);
+        }
+    }
+
+    /**
+     * Encodes an entity with the model codec, adding its {@code _id} when the codec leaves it out (model codecs do, since
+     * the server assigns it), so the decoded copy keeps the {@code _id} the loaded entity had.
+     */
+    private @NotNull BasicOutputBuffer encode(@NotNull M datum) {
+        val buffer = new BasicOutputBuffer();
+        try (val writer = new BsonBinaryWriter(buffer)) {
+            this.codec().encode(writer, datum, ENCODER_CONTEXT);
+        }
+
+        val id = this.id(datum);
+        if (id == null || new RawBsonDocument(buffer.getInternalBuffer(), 0, buffer.getPosition()).containsKey("_id")) {
+            return buffer;
+        }
+
+        val withId = new BasicOutputBuffer(buffer.getPosition() + 32);
+        try (val reader = new BsonBinaryReader(ByteBuffer.wrap(buffer.getInternalBuffer(), 0, buffer.getPosition()));
+             val writer = new BsonBinaryWriter(withId)) {
+            writer.pipe(reader, List.of(new BsonElement("_id", id)));
+        }
+        return withId;
+    }
+
+    /**
+     * Returns the {@code _id} of an entity encoded by the codec of its field, or {@code null} when it has none.
+     */
+    private @Nullable BsonValue id(@NotNull M datum) {
+        val field = this.model.fields().get("_id");
+        if (field == null) {
+            return null;
+        }
+        val value = field.get(datum);
+        if (value == null) {
+            return null;
+        }
+
+        val document = new BsonDocument();
+        try (val writer = new BsonDocumentWriter(document)) {
+            writer.writeStartDocument();
+            writer.writeName("_id");
+            ENCODER_CONTEXT.encodeWithChildContext(field.codec(this.model.collection().getCodecRegistry()), writer, value);
+            writer.writeEndDocument();
+        }
+        return document.get("_id");
+    }
+
+    private @NotNull Codec<M> codec() {
+        var codec = this.codec;
+        if (codec == null) {
+            codec = this.model.collection().getCodecRegistry().get(this.model.type());
+            this.codec = codec;
+        }
+        return codec;
+    }
+
+    /**
+     * The counters of a {@link NearCache}.
+     *
+     * @param hits         Lookups answered from the cache, including cached misses.
+     * @param misses       Lookups that ran the loader.
+     * @param evictions    Entries dropped to make room for new ones.
+     * @param size         The number of entries currently cached.
+     * @param offHeapBytes The direct memory taken by entities stored {@link NearCacheOptions.Storage#OFF_HEAP}.
+     */
+    public record Stats(long hits, long misses, long evictions, int size, long offHeapBytes) {
+        public double hitRate() {
+            val requests = this.hits + this.misses;
+            return requests == 0 ? 0.0 : (double) this.hits / requests;
+        }
+    }
+
+    private static final class Entry {
+        private final Object key;
+        private final Object value;
+        private final long expiresAt;
+        private int slot;
+
+        private Entry(Object key, Object value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean expired(long now) {
+            return this.expiresAt != NEVER && now - this.expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.cache;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * Settings of a {@link NearCache}.
+ *
+ * @param maximumSize  The maximum number of cached unique values, found or not.
+ * @param ttl          How long a found entity stays cached after it was loaded; {@link Duration#ZERO} keeps it until it
+ *                     is evicted or invalidated.
+ * @param missTtl      How long a unique value without a document stays cached as a miss; {@link Duration#ZERO} does not
+ *                     cache misses.
+ * @param storage      What the cache holds for a found entity.
+ * @param offHeapBytes The memory reserved for entities with {@link Storage#OFF_HEAP}; once it is full, further entities
+ *                     are not cached until others are dropped.
+ */
+public record NearCacheOptions(int maximumSize, @NotNull Duration ttl, @NotNull Duration missTtl, @NotNull Storage storage, long offHeapBytes) {
+    public static final long DEFAULT_OFF_HEAP_BYTES = 256L * 1024 * 1024;
+
+    public NearCacheOptions {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("ttl must not be negative");
+        }
+        if (missTtl.isNegative()) {
+            throw new IllegalArgumentException("missTtl must not be negative");
+        }
+        if (offHeapBytes <= 0) {
+            throw new IllegalArgumentException("offHeapBytes must be positive");
+        }
+    }
+
+    /**
+     * 10 000 entries, found entities for 5 minutes, misses for 30 seconds, stored as {@link Storage#RAW_BSON}.
+     */
+    @Contract(" -> new")
+    public static @NotNull NearCacheOptions defaults() {
+        return new NearCacheOptions(10_000, Duration.ofMinutes(5), Duration.ofSeconds(30), Storage.RAW_BSON, DEFAULT_OFF_HEAP_BYTES);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull NearCacheOptions withMaximumSize(int maximumSize) {
+        return new NearCacheOptions(maximumSize, this.ttl, this.missTtl, this.storage, this.offHeapBytes);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull NearCacheOptions withTtl(@NotNull Duration ttl) {
+        return new NearCacheOptions(this.maximumSize, ttl, this.missTtl, this.storage, this.offHeapBytes);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull NearCacheOptions withMissTtl(@NotNull Duration missTtl) {
+        return new NearCacheOptions(this.maximumSize, this.ttl, missTtl, this.storage, this.offHeapBytes);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull NearCacheOptions withStorage(@NotNull Storage storage) {
+        return new NearCacheOptions(this.maximumSize, this.ttl, this.missTtl, storage, this.offHeapBytes);
+    }
+
+    /**
+     * Stores entities {@link Storage#OFF_HEAP} in at most {@code offHeapBytes} of direct memory.
+     */
+    @Contract("_ -> new")
+    public @NotNull NearCacheOptions offHeap(long offHeapBytes) {
+        return new NearCacheOptions(this.maximumSize, this.ttl, this.missTtl, Storage.OFF_HEAP, offHeapBytes);
+    }
+
+    /**
+     * What a {@link NearCache} keeps for a found entity.
+     */
+    public enum Storage {
+        /**
+         * The decoded entity itself. Lookups return the same instance to every caller, so changes made to it are seen
+         * by all of them before they are written.
+         */
+        OBJECT,
+        /**
+         * The encoded BSON bytes of the entity. Every lookup decodes a fresh instance, trading decoding time for
+         * isolation between callers.
+         */
+        RAW_BSON,
+        /**
+         * The encoded BSON bytes of the entity in direct memory, decoded on every lookup like {@link #RAW_BSON}. Only a
+         * small index entry per cached value stays on the heap, so large caches do not add to garbage collection work.
+         */
+        OFF_HEAP
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.cache;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Byte payloads in direct {@link ByteBuffer} pages outside the Java heap.
+ * <p>
+ * Pages of {@link #PAGE_SIZE} bytes are allocated on demand up to the capacity and each one is split into chunks of a
+ * single size class; classes grow by 25%, so a payload wastes at most a fifth of its chunk. Freed chunks are reused by
+ * payloads of the same class, which keeps allocation and freeing constant-time without ever moving payloads. Pages are
+ * never returned; they are released with the store.
+ * <p>
+ * Payloads are read under a shared lock while allocation and freeing take it exclusively, so a chunk is never reused
+ * while it is being read.
+ */
+final class OffHeapStore {
+    static final int PAGE_SIZE = 1 << 20;
+    private static final int MIN_CHUNK = 64;
+    private static final int[] CHUNK_SIZES = chunkSizes();
+
+    private final int maxPages;
+    private final ArrayList<ByteBuffer> pages = new ArrayList<>();
+    private final SizeClass[] classes = new SizeClass[CHUNK_SIZES.length];
+    private final StampedLock lock = new StampedLock();
+    private long usedBytes;
+
+    OffHeapStore(long capacityBytes) {
+        this.maxPages = (int) Math.min(Integer.MAX_VALUE, Math.max(1, capacityBytes / PAGE_SIZE));
+        for (int i = 0; i < this.classes.length; i++) {
+            this.classes[i] = new SizeClass(CHUNK_SIZES[i]);
+        }
+    }
+
+    /**
+     * Copies {@code length} bytes of {@code bytes} into a free chunk.
+     *
+     * @return The location of the copy, or {@code null} when the payload is larger than a page or the store is full.
+     */
+    @Nullable Ref write(byte @NotNull [] bytes, int length) {
+        var sizeClass = Arrays.binarySearch(CHUNK_SIZES, length);
+        if (sizeClass < 0) {
+            sizeClass = -sizeClass - 1;
+        }
+        if (sizeClass == CHUNK_SIZES.length) {
+            return null;
+        }
+
+        val stamp = this.lock.writeLock();
+        try {
+            val chunks = this.classes[sizeClass];
+            final long position;
+            if (chunks.freeCount > 0) {
+                position = chunks.free[--chunks.freeCount];
+            } else {
+                if (chunks.page < 0 || chunks.nextOffset + chunks.chunkSize > PAGE_SIZE) {
+                    if (this.pages.size() == this.maxPages) {
+                        return null;
+                    }
+                    this.pages.add(ByteBuffer.allocateDirect(PAGE_SIZE));
+                    chunks.page = this.pages.size() - 1;
+                    chunks.nextOffset = 0;
+                }
+                position = (long) chunks.page << 32 | chunks.nextOffset;
+                chunks.nextOffset += chunks.chunkSize;
+            }
+
+            val ref = new Ref((int) (position >>> 32), (int) position, length, sizeClass);
+            this.pages.get(ref.page).put(ref.offset, bytes, 0, length);
+            this.usedBytes += chunks.chunkSize;
+            return ref;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Applies {@code reader} to the payload of {@code ref}, as a read-only buffer of exactly its bytes.
+     *
+     * @return The result of {@code reader}, or {@code null} when {@code ref} was freed in the meantime.
+     */
+    <T> @Nullable T read(@NotNull Ref ref, @NotNull Function<ByteBuffer, T> reader) {
+        val stamp = this.lock.readLock();
+        try {
+            if (ref.freed) {
+                return null;
+            }
+            return reader.apply(this.pages.get(ref.page).slice(ref.offset, ref.length).asReadOnlyBuffer());
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the chunk of {@code ref} to its size class; freeing a ref twice has no effect.
+     */
+    void free(@NotNull Ref ref) {
+        val stamp = this.lock.writeLock();
+        try {
+            if (ref.freed) {
+                return;
+            }
+            ref.freed = true;
+
+            val chunks = this.classes[ref.sizeClass];
+            if (chunks.freeCount == chunks.free.length) {
+                chunks.free = Arrays.copyOf(chunks.free, Math.max(16, chunks.free.length * 2));
+            }
+            chunks.free[chunks.freeCount++] = (long) ref.page << 32 | ref.offset;
+            this.usedBytes -= chunks.chunkSize;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the bytes of all chunks in use, including the unused tail of each chunk.
+     */
+    long usedBytes() {
+        val stamp = this.lock.readLock();
+        try {
+            return this.usedBytes;
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    private static int @NotNull [] chunkSizes() {
+        val sizes = new ArrayList<Integer>();
+        for (int size = MIN_CHUNK; size < PAGE_SIZE; size = (size + (size >> 2) + 7) & ~7) {
+            sizes.add(size);
+        }
+        sizes.add(PAGE_SIZE);
+        return sizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * The location of a payload.
+     */
+    static final class Ref {
+        private final int page;
+        private final int offset;
+        private final int length;
+        private final int sizeClass;
+        /**
+         * Guarded by the lock of the store.
+         */
+        private boolean freed;
+
+        private Ref(int page, int offset, int length, int sizeClass) {
+            this.page = page;
+            this.offset = offset;
+            this.length = length;
+            this.sizeClass = sizeClass;
+        }
+    }
+
+    private static final class SizeClass {
+        private final int chunkSize;
+        private int page = -1;
+        private int nextOffset;
+        private long[] free = new long[0];
+        private int freeCount;
+
+        private SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+}
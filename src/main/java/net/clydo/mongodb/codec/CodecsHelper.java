@@ -20,10 +20,17 @@
 
 package net.clydo.mongodb.codec;
 
+import com.mongodb.DocumentToDBRefTransformer;
+import com.mongodb.MongoClientSettings;
 import lombok.Getter;
 import lombok.experimental.UtilityClass;
 import lombok.val;
+import net.clydo.mongodb.codec.type.ClassCodecProvider;
+import net.clydo.mongodb.codec.uuid.BinaryUUIDCodec;
 import net.clydo.mongodb.codec.uuid.StringUUIDCodec;
+import net.clydo.mongodb.codec.uuid.UUIDStorage;
+import net.clydo.mongodb.loader.LoaderRegistry;
+import net.clydo.mongodb.schematic.MongoSchemaHelper;
 import org.bson.BsonReader;
 import org.bson.BsonType;
 import org.bson.Transformer;
@@ -39,6 +46,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
@@ -52,6 +60,55 @@ public class CodecsHelper {
             )
     ));
 
+    private final CodecRegistry binaryUuidCodecRegistry = CodecRegistries.fromCodecs(
+            new BinaryUUIDCodec()
+    );
+
+    /**
+     * The value transformer of every model codec, reflective or generated, turning decoded {@code {$ref, $id}}
+     * documents into {@link com.mongodb.DBRef}s.
+     */
+    @Getter
+    private final Transformer dbRefTransformer = new DocumentToDBRefTransformer();
+
+    /**
+     * Returns the registry installing the {@link UUID} codec of the given schema-wide storage.
+     *
+     * @param storage The storage of the schema, {@link UUIDStorage#DEFAULT} meaning {@link UUIDStorage#STRING}.
+     * @return The registry to place ahead of the driver defaults.
+     */
+    public CodecRegistry getUuidCodecRegistry(final @NotNull UUIDStorage storage) {
+        return storage == UUIDStorage.BINARY ? binaryUuidCodecRegistry : defaultCodecRegistry;
+    }
+
+    /**
+     * Returns the codecs of a schema: the class codecs of {@code loader}, the {@link UUID} codec of {@code uuidStorage}
+     * and the driver defaults, followed by the codecs of the caller.
+     *
+     * @param schemaHelper  The schema helper of the class codecs, or {@code null} outside of a synchronous schema.
+     * @param loader        The registry the class codecs read their models and types from.
+     * @param codecRegistry The codecs of the caller, consulted last, or {@code null}.
+     * @param uuidStorage   The storage of {@link UUID} values in the schema.
+     */
+    public @NotNull CodecRegistry createCodecRegistry(
+            final @Nullable MongoSchemaHelper schemaHelper,
+            final @NotNull LoaderRegistry loader,
+            final @Nullable CodecRegistry codecRegistry,
+            final @NotNull UUIDStorage uuidStorage
+    ) {
+        val codecRegistries = new ArrayList<>(Arrays.asList(
+                CodecRegistries.fromProviders(
+                        new ClassCodecProvider(schemaHelper, loader)
+                ),
+                getUuidCodecRegistry(uuidStorage),
+                MongoClientSettings.getDefaultCodecRegistry()
+        ));
+        if (codecRegistry != null) {
+            codecRegistries.add(codecRegistry);
+        }
+        return CodecRegistries.fromRegistries(codecRegistries);
+    }
+
     public @Nullable Object readValue(
             final @NotNull BsonReader reader,
             final CodecRegistry registry,
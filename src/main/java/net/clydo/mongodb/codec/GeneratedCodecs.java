@@ -0,0 +1,94 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.codec;
+
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Optional;
+
+/**
+ * Locates codecs generated at compile time by the {@code MongoHelper-processor} annotation processor.
+ * <p>
+ * The codec generated for {@code com.example.Outer.Inner} is {@code com.example.Outer_Inner_MongoCodec} and has a
+ * public {@code (CodecRegistry)} constructor. The lookup is done once per class and cached.
+ */
+@UtilityClass
+public class GeneratedCodecs {
+    public final String CODEC_SUFFIX = "_MongoCodec";
+
+    private final ClassValue<Optional<MethodHandle>> CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(@NotNull Class<?> type) {
+            return Optional.ofNullable(findConstructor(type));
+        }
+    };
+
+    /**
+     * Returns a new instance of the generated codec of the given class, or {@code null} if none was generated.
+     *
+     * @param clazz    The class to get the codec for.
+     * @param registry The registry the generated codec resolves its field codecs from.
+     * @param <T>      The type of the class.
+     * @return The generated codec, or {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable Codec<T> get(@NotNull Class<T> clazz, @NotNull CodecRegistry registry) {
+        val constructor = CONSTRUCTORS.get(clazz);
+        if (constructor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return (Codec<T>) constructor.get().invoke(registry);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new CodecConfigurationException(String.format("Can not create generated codec for class %s", clazz), e);
+        }
+    }
+
+    private @Nullable MethodHandle findConstructor(@NotNull Class<?> type) {
+        val packageName = type.getPackageName();
+        val binaryName = type.getName();
+        val simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        val codecName = (packageName.isEmpty() ? "" : packageName + ".") + simpleBinaryName.replace('$', '_') + CODEC_SUFFIX;
+
+        try {
+            val codecClass = Class.forName(codecName, true, type.getClassLoader());
+            if (!Codec.class.isAssignableFrom(codecClass)) {
+                return null;
+            }
+
+            return MethodHandles.publicLookup().findConstructor(codecClass, MethodType.methodType(void.class, CodecRegistry.class));
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.codec;
+
+import org.bson.codecs.Codec;
+
+/**
+ * Implemented by the codecs the {@code MongoHelper-processor} generates for {@code @MongoModel} classes, so
+ * {@link net.clydo.mongodb.codec.type.ClassCodecProvider} knows which generated codecs may need change tracking
+ * without building the metadata of their class.
+ *
+ * @param <T> The type of the model.
+ */
+public interface GeneratedModelCodec<T> extends Codec<T> {
+}
@@ -20,22 +20,26 @@
 
 package net.clydo.mongodb.codec.type;
 
-import com.mongodb.DocumentToDBRefTransformer;
 import lombok.val;
 import net.clydo.mongodb.MongoHelpers;
+import net.clydo.mongodb.codec.CodecsHelper;
+import net.clydo.mongodb.codec.GeneratedCodecs;
+import net.clydo.mongodb.codec.GeneratedModelCodec;
 import net.clydo.mongodb.loader.LoaderRegistry;
+import net.clydo.mongodb.loader.classes.values.ClassCacheValue;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
 import net.clydo.mongodb.schematic.MongoSchemaHelper;
+import net.clydo.mongodb.tracking.ChangeTracker;
 import org.bson.codecs.Codec;
 import org.bson.codecs.configuration.CodecProvider;
 import org.bson.codecs.configuration.CodecRegistry;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.List;
 
 public class ClassCodecProvider implements CodecProvider {
-    private static final DocumentToDBRefTransformer TRANSFORMER = new DocumentToDBRefTransformer();
-
     private final MongoSchemaHelper schemaHelper;
     private final LoaderRegistry registry;
 
@@ -52,6 +56,12 @@ public class ClassCodecProvider implements CodecProvider {
     @Override
     @SuppressWarnings({"unchecked", "rawtypes"})
     public <T> Codec<T> get(Class<T> clazz, List<Type> typeArguments, CodecRegistry registry) {
+        val generated = GeneratedCodecs.get(clazz, registry);
+        if (generated != null) {
+            // Only generated model codecs may need tracking; the others are used as they are, without any reflection.
+            return generated instanceof GeneratedModelCodec<T> ? this.tracked(this.registry.findModel(clazz), generated) : generated;
+        }
+
         if (Enum.class.isAssignableFrom(clazz)) {
             val encoder = this.registry.getEnum(clazz);
             if (encoder == null) {
@@ -65,6 +75,17 @@ public class ClassCodecProvider implements CodecProvider {
             return null;
         }
 
-        return new TypeCodec<>(registry, MongoHelpers.getDefaultBsonTypeClassMap(), TRANSFORMER, clazz, typeHolder, this.schemaHelper, this.registry);
+        return this.tracked(typeHolder, new TypeCodec<>(registry, MongoHelpers.getDefaultBsonTypeClassMap(), CodecsHelper.getDbRefTransformer(), clazz, typeHolder, this.schemaHelper, this.registry));
+    }
+
+    /**
+     * Wraps {@code codec} in a {@link TrackingCodec} when {@code value} is a model with change tracking enabled.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Codec<T> tracked(@Nullable ClassCacheValue<?> value, Codec<T> codec) {
+        if (value instanceof MongoModelValue<?> model && model.changeTracker() != null) {
+            return new TrackingCodec<>(codec, (ChangeTracker<T>) model.changeTracker());
+        }
+        return codec;
     }
 }
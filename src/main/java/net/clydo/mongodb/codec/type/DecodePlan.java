@@ -0,0 +1,220 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.codec.type;
+
+import lombok.val;
+import net.clydo.mongodb.loader.classes.values.MongoMutableField;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, precompiled layout of a {@link TypeCodec}'s fields.
+ * <p>
+ * Every stored field name is assigned a dense slot index. Decoding walks the document once and resolves each
+ * name to its slot, first by checking the slot that follows the previous one (documents written by
+ * {@link TypeCodec#encode} come back in plan order) and only then through the name index.
+ * When the type is built through a {@code @MongoConstructor}, the plan also holds the argument index of each
+ * slot and a template argument array with primitive defaults.
+ * {@code int}, {@code long}, {@code double} and {@code boolean} slots are tagged with their primitive kind so
+ * the codec can move them between the BSON reader/writer and the field without boxing.
+ */
+final class DecodePlan {
+    static final int UNKNOWN = -1;
+
+    static final int KIND_OBJECT = 0;
+    static final int KIND_INT = 1;
+    static final int KIND_LONG = 2;
+    static final int KIND_DOUBLE = 3;
+    static final int KIND_BOOLEAN = 4;
+
+    private final String[] names;
+    private final MongoMutableField[] fields;
+    private final int[] kinds;
+    private final Map<String, Integer> slots;
+
+    private final int @Nullable [] argumentIndexes;
+    private final Object @Nullable [] argumentTemplate;
+
+    private DecodePlan(
+            String @NotNull [] names,
+            MongoMutableField @NotNull [] fields,
+            int @Nullable [] argumentIndexes,
+            Object @Nullable [] argumentTemplate
+    ) {
+        this.names = names;
+        this.fields = fields;
+        this.argumentIndexes = argumentIndexes;
+        this.argumentTemplate = argumentTemplate;
+
+        this.kinds = new int[fields.length];
+        for (int slot = 0; slot < fields.length; slot++) {
+            this.kinds[slot] = kindOf(fields[slot].type());
+        }
+
+        val slots = new HashMap<String, Integer>(names.length * 2);
+        for (int slot = 0; slot < names.length; slot++) {
+            slots.put(names[slot], slot);
+        }
+        this.slots = Map.copyOf(slots);
+    }
+
+    /**
+     * Builds a plan for a type populated through its no-args constructor and field setters.
+     */
+    static @NotNull DecodePlan ofFields(@NotNull Map<String, MongoMutableField> fields) {
+        val names = orderedNames(fields);
+        return new DecodePlan(names, resolve(fields, names), null, null);
+    }
+
+    /**
+     * Builds a plan for a type populated through a {@code @MongoConstructor}.
+     *
+     * @param fields     The mapped fields of the type.
+     * @param parameters The stored field names of the constructor parameters, in parameter order.
+     * @param types      The raw parameter types, in parameter order.
+     */
+    static @NotNull DecodePlan ofConstructor(
+            @NotNull Map<String, MongoMutableField> fields,
+            @NotNull List<String> parameters,
+            @NotNull Class<?> @NotNull [] types
+    ) {
+        val names = orderedNames(fields);
+
+        val argumentIndexes = new int[names.length];
+        for (int slot = 0; slot < names.length; slot++) {
+            argumentIndexes[slot] = parameters.indexOf(names[slot]);
+        }
+
+        val argumentTemplate = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            argumentTemplate[i] = defaultValue(types[i]);
+        }
+
+        return new DecodePlan(names, resolve(fields, names), argumentIndexes, argumentTemplate);
+    }
+
+    /**
+     * Resolves the slot of a stored field name.
+     *
+     * @param name     The field name read from the document.
+     * @param expected The slot expected at this position, usually the previous slot plus one.
+     * @return The slot index, or {@link #UNKNOWN} if the field is not mapped.
+     */
+    int slotOf(@NotNull String name, int expected) {
+        if (expected >= 0 && expected < this.names.length && this.names[expected].equals(name)) {
+            return expected;
+        }
+
+        val slot = this.slots.get(name);
+        return slot == null ? UNKNOWN : slot;
+    }
+
+    int size() {
+        return this.names.length;
+    }
+
+    @NotNull String name(int slot) {
+        return this.names[slot];
+    }
+
+    @NotNull MongoMutableField field(int slot) {
+        return this.fields[slot];
+    }
+
+    /**
+     * Returns the primitive kind of a slot ({@link #KIND_INT}, {@link #KIND_LONG}, {@link #KIND_DOUBLE},
+     * {@link #KIND_BOOLEAN}), or {@link #KIND_OBJECT} for fields that must go through their codec.
+     */
+    int kind(int slot) {
+        return this.kinds[slot];
+    }
+
+    boolean usesConstructor() {
+        return this.argumentIndexes != null;
+    }
+
+    /**
+     * Returns the constructor argument index of a slot, or {@link #UNKNOWN} if the slot is not a constructor parameter.
+     */
+    int argumentIndex(int slot) {
+        assert this.argumentIndexes != null;
+        return this.argumentIndexes[slot];
+    }
+
+    /**
+     * Returns a fresh argument array pre-filled with the defaults of the constructor parameter types.
+     */
+    Object @NotNull [] newArguments() {
+        assert this.argumentTemplate != null;
+        return this.argumentTemplate.clone();
+    }
+
+    /**
+     * Orders the names so that {@code _id} comes first, as the server stores it, followed by the
+     * remaining fields in the order {@link TypeCodec#encode} writes them.
+     */
+    private static String @NotNull [] orderedNames(@NotNull Map<String, MongoMutableField> fields) {
+        val names = new String[fields.size()];
+        int index = 0;
+        if (fields.containsKey("_id")) {
+            names[index++] = "_id";
+        }
+        for (String name : fields.keySet()) {
+            if (!"_id".equals(name)) {
+                names[index++] = name;
+            }
+        }
+        return names;
+    }
+
+    private static MongoMutableField @NotNull [] resolve(@NotNull Map<String, MongoMutableField> fields, String @NotNull [] names) {
+        val resolved = new MongoMutableField[names.length];
+        for (int slot = 0; slot < names.length; slot++) {
+            resolved[slot] = fields.get(names[slot]);
+        }
+        return resolved;
+    }
+
+    private static int kindOf(@NotNull Class<?> type) {
+        if (type == int.class) return KIND_INT;
+        if (type == long.class) return KIND_LONG;
+        if (type == double.class) return KIND_DOUBLE;
+        if (type == boolean.class) return KIND_BOOLEAN;
+        return KIND_OBJECT;
+    }
+
+    private static @Nullable Object defaultValue(@NotNull Class<?> type) {
+        if (!type.isPrimitive()) return null;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0D;
+        if (type == float.class) return 0F;
+        if (type == boolean.class) return false;
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        if (type == char.class) return (char) 0;
+        return null;
+    }
+}
@@ -20,8 +20,10 @@
 
 package net.clydo.mongodb.codec.type;
 
+import net.clydo.mongodb.annotations.MongoEnum;
 import net.clydo.mongodb.loader.enums.values.MongoEnumValue;
 import org.bson.BsonReader;
+import org.bson.BsonType;
 import org.bson.BsonWriter;
 import org.bson.codecs.Codec;
 import org.bson.codecs.DecoderContext;
@@ -31,20 +33,32 @@ import org.jetbrains.annotations.NotNull;
 public final class EnumCodec<T extends Enum<T>> implements Codec<T> {
     private final Class<T> clazz;
     private final MongoEnumValue<T> enumHolder;
+    private final boolean int32;
 
     public EnumCodec(final Class<T> clazz, final MongoEnumValue<T> enumHolder) {
         this.clazz = clazz;
         this.enumHolder = enumHolder;
+        this.int32 = enumHolder.storage() == MongoEnum.Storage.INT32;
     }
 
+    /**
+     * Reads either representation regardless of the configured storage, so switching storage does not break existing documents.
+     */
     @Override
     public T decode(final @NotNull BsonReader reader, final DecoderContext decoderContext) {
+        if (reader.getCurrentBsonType() == BsonType.INT32) {
+            return this.enumHolder.decode(reader.readInt32());
+        }
         return this.enumHolder.decode(reader.readString());
     }
 
     @Override
     public void encode(final @NotNull BsonWriter writer, final T value, final EncoderContext encoderContext) {
-        writer.writeString(this.enumHolder.encode(value));
+        if (this.int32) {
+            writer.writeInt32(this.enumHolder.encodeCode(value));
+        } else {
+            writer.writeString(this.enumHolder.encode(value));
+        }
     }
 
     @Override
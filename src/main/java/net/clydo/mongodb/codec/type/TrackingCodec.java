@@ -0,0 +1,62 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.codec.type;
+
+import lombok.val;
+import net.clydo.mongodb.tracking.ChangeTracker;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Wraps the codec of a model with change tracking enabled and snapshots every entity it decodes.
+ */
+public final class TrackingCodec<T> implements Codec<T> {
+    private final Codec<T> delegate;
+    private final ChangeTracker<T> tracker;
+
+    public TrackingCodec(final @NotNull Codec<T> delegate, final @NotNull ChangeTracker<T> tracker) {
+        this.delegate = delegate;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public T decode(final BsonReader reader, final DecoderContext decoderContext) {
+        val value = this.delegate.decode(reader, decoderContext);
+        if (value != null) {
+            this.tracker.capture(value);
+        }
+        return value;
+    }
+
+    @Override
+    public void encode(final BsonWriter writer, final T value, final EncoderContext encoderContext) {
+        this.delegate.encode(writer, value, encoderContext);
+    }
+
+    @Override
+    public Class<T> getEncoderClass() {
+        return this.delegate.getEncoderClass();
+    }
+}
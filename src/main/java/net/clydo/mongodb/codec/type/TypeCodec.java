@@ -25,6 +25,7 @@ import net.clydo.mongodb.annotations.MongoConstructor;
 import net.clydo.mongodb.annotations.MongoParameter;
 import net.clydo.mongodb.codec.CodecsHelper;
 import net.clydo.mongodb.loader.LoaderRegistry;
+import net.clydo.mongodb.loader.classes.accessor.FieldAccessor;
 import net.clydo.mongodb.loader.classes.values.ClassCacheValue;
 import net.clydo.mongodb.loader.classes.values.MongoMutableField;
 import net.clydo.mongodb.schematic.MongoSchemaHelper;
@@ -40,7 +41,6 @@ import org.bson.codecs.configuration.CodecConfigurationException;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Parameter;
@@ -48,14 +48,15 @@ import java.lang.reflect.Type;
 import java.util.*;
 
 public class TypeCodec<T> implements Codec<T> {
+    private static final Object[] NO_ARGS = new Object[0];
+
     private final CodecRegistry registry;
     private final ClassCacheValue<?> typeHolder;
     private final Class<T> clazz;
     private final TypeSupplier<T> supplier;
     private final BsonTypeCodecMap bsonTypeCodecMap;
     private final Transformer transformer;
-    @Nullable
-    private final LinkedList<String> requiredFields;
+    private final DecodePlan plan;
 
     @Contract(pure = true)
     public TypeCodec(CodecRegistry registry, final BsonTypeClassMap bsonTypeClassMap, Transformer transformer, @NotNull Class<T> clazz, @NotNull ClassCacheValue<?> typeHolder, MongoSchemaHelper schemaHelper, LoaderRegistry loaderRegistry) {
@@ -74,9 +75,9 @@ public class TypeCodec<T> implements Codec<T> {
                 .orElse(null);
 
         TypeSupplier<T> supplier;
+        val fields = this.typeHolder.fields();
         if (constructor != null) {
-            this.requiredFields = new LinkedList<>();
-            val fields = this.typeHolder.fields();
+            val requiredFields = new ArrayList<String>();
 
             val parameters = constructor.getParameters();
             for (Parameter parameter : parameters) {
@@ -99,11 +100,11 @@ public class TypeCodec<T> implements Codec<T> {
                     );
                 }
 
-                this.requiredFields.add(fieldName);
+                requiredFields.add(fieldName);
             }
 
             if (mongoConstructor[0] != null && mongoConstructor[0].requiredAll()) {
-                val allFieldsMatch = this.requiredFields.size() == fields.size() && this.requiredFields.containsAll(fields.keySet());
+                val allFieldsMatch = requiredFields.size() == fields.size() && requiredFields.containsAll(fields.keySet());
 
                 if (!allFieldsMatch) {
                     throw new IllegalStateException(
@@ -112,6 +113,7 @@ public class TypeCodec<T> implements Codec<T> {
                 }
             }
 
+            this.plan = DecodePlan.ofConstructor(fields, requiredFields, constructor.getParameterTypes());
             supplier = (args) -> {
                 try {
                     //noinspection unchecked
@@ -121,13 +123,13 @@ public class TypeCodec<T> implements Codec<T> {
                 }
             };
         } else {
-            this.requiredFields = null;
+            this.plan = DecodePlan.ofFields(fields);
 
             try {
                 val noArgsConstructor = clazz.getDeclaredConstructor();
                 supplier = (args) -> {
                     try {
-                        return (T) noArgsConstructor.newInstance();
+                        return (T) noArgsConstructor.newInstance(NO_ARGS);
                     } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
                         throw new CodecConfigurationException(String.format("Can not invoke no-args constructor for class %s", clazz), e);
                     }
@@ -145,74 +147,127 @@ public class TypeCodec<T> implements Codec<T> {
     public T decode(BsonReader reader, DecoderContext decoderContext) {
         reader.readStartDocument();
 
-        final T result;
-        if (this.requiredFields != null) {
-            val values = new ArrayList<>(Collections.nCopies(this.requiredFields.size(), null));
+        final T result = this.plan.usesConstructor()
+                ? this.decodeArguments(reader, decoderContext)
+                : this.decodeFields(reader, decoderContext);
 
-            while (true) {
-                val isDoc = this.processField(reader, decoderContext, (fieldName, value, mongoFieldHolder) -> {
-                    if (!this.requiredFields.contains(fieldName)) {
-                        return;
-                    }
+        reader.readEndDocument();
 
-                    val index = this.requiredFields.indexOf(fieldName);
-                    values.set(index, value);
-                });
-                if (isDoc) break;
-            }
+        return result;
+    }
 
-            result = this.supplier.get(values.toArray());
-        } else {
-            result = this.supplier.get();
+    /**
+     * Decodes into a no-args instance, writing each value straight into its field.
+     * Primitive slots whose BSON type matches are read with the typed reader methods and stored
+     * through the primitive setters, so they allocate nothing.
+     */
+    private T decodeFields(@NotNull BsonReader reader, DecoderContext decoderContext) {
+        val result = this.supplier.get(NO_ARGS);
 
-            while (true) {
-                val isDoc = this.processField(reader, decoderContext, (fieldName, value, mongoFieldHolder) -> {
-                    if (mongoFieldHolder == null) {
-                        return;
-                    }
+        int slot = DecodePlan.UNKNOWN;
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            slot = this.plan.slotOf(reader.readName(), slot + 1);
 
-                    mongoFieldHolder.set(result, value);
-                });
-                if (isDoc) break;
+            if (slot == DecodePlan.UNKNOWN) {
+                reader.skipValue();
+                continue;
             }
-        }
 
-        reader.readEndDocument();
+            val bsonType = reader.getCurrentBsonType();
+            if (bsonType == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+
+            val fieldHolder = this.plan.field(slot);
+            if (!this.readPrimitive(reader, bsonType, this.plan.kind(slot), fieldHolder.accessor(), result)) {
+                fieldHolder.set(result, this.readValue(reader, decoderContext, fieldHolder));
+            }
+        }
 
         return result;
     }
 
-    private boolean processField(
-            @NotNull BsonReader reader,
-            DecoderContext decoderContext,
-            FieldProcessor processor
-    ) {
-        val isEndDocument = reader.readBsonType() == BsonType.END_OF_DOCUMENT;
-        if (isEndDocument) {
-            return true;
-        }
+    /**
+     * Decodes the constructor arguments of a {@code @MongoConstructor} type and invokes it.
+     */
+    private T decodeArguments(@NotNull BsonReader reader, DecoderContext decoderContext) {
+        val values = this.plan.newArguments();
 
-        val fieldName = reader.readName();
-        val fieldHolder = this.typeHolder.fields().get(fieldName);
+        int slot = DecodePlan.UNKNOWN;
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            slot = this.plan.slotOf(reader.readName(), slot + 1);
 
-        if (reader.getCurrentBsonType() != BsonType.NULL) {
-            Type type = null;
-            if (fieldHolder != null) {
-                type = Primitives.wrap(fieldHolder.genericType());
+            val index = slot == DecodePlan.UNKNOWN ? DecodePlan.UNKNOWN : this.plan.argumentIndex(slot);
+            if (index == DecodePlan.UNKNOWN) {
+                reader.skipValue();
+                continue;
             }
 
-            val value = CodecsHelper.readValue(
-                    reader, this.registry, this.bsonTypeCodecMap, decoderContext, this.transformer, null, type, null
-            );
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
 
-            processor.process(fieldName, this.castIfNeeded(type, value), fieldHolder);
-        } else {
-            reader.readNull();
+            val fieldHolder = this.plan.field(slot);
+            values[index] = this.castIfNeeded(fieldHolder.wrappedType(), this.readValue(reader, decoderContext, fieldHolder));
         }
 
+        return this.supplier.get(values);
+    }
+
+    private boolean readPrimitive(@NotNull BsonReader reader, BsonType bsonType, int kind, FieldAccessor accessor, Object instance) {
+        switch (kind) {
+            case DecodePlan.KIND_INT -> {
+                if (bsonType == BsonType.INT32) {
+                    accessor.setInt(instance, reader.readInt32());
+                    return true;
+                }
+            }
+            case DecodePlan.KIND_LONG -> {
+                if (bsonType == BsonType.INT64) {
+                    accessor.setLong(instance, reader.readInt64());
+                    return true;
+                }
+                if (bsonType == BsonType.INT32) {
+                    accessor.setLong(instance, reader.readInt32());
+                    return true;
+                }
+            }
+            case DecodePlan.KIND_DOUBLE -> {
+                if (bsonType == BsonType.DOUBLE) {
+                    accessor.setDouble(instance, reader.readDouble());
+                    return true;
+                }
+            }
+            case DecodePlan.KIND_BOOLEAN -> {
+                if (bsonType == BsonType.BOOLEAN) {
+                    accessor.setBoolean(instance, reader.readBoolean());
+                    return true;
+                }
+            }
+        }
+        // Other BSON types (e.g. a double stored in an int field) go through the codec, which handles the conversion.
         return false;
     }
 
+    private Object readValue(@NotNull BsonReader reader, DecoderContext decoderContext, @NotNull MongoMutableField fieldHolder) {
+        return CodecsHelper.readValue(
+                reader, this.registry, this.bsonTypeCodecMap, decoderContext, this.transformer, null, null, fieldHolder.codec(this.registry)
+        );
+    }
+
+    /**
+     * Resolves the codec of every non-primitive field now instead of on first use.
+     */
+    public void resolveCodecs() {
+        for (int slot = 0; slot < this.plan.size(); slot++) {
+            if (this.plan.kind(slot) == DecodePlan.KIND_OBJECT) {
+                this.plan.field(slot).codec(this.registry);
+            }
+        }
+    }
+
     private Object castIfNeeded(Type type, Object value) {
         if (type instanceof Class<?> aClass) {
             return aClass.cast(value);
@@ -221,32 +276,49 @@ public class TypeCodec<T> implements Codec<T> {
         }
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void encode(@NotNull BsonWriter writer, T object, EncoderContext encoderContext) {
         writer.writeStartDocument();
 
-        for (val entry : this.typeHolder.fields().entrySet()) {
-            var fieldName = entry.getKey();
+        for (int slot = 0; slot < this.plan.size(); slot++) {
+            val fieldName = this.plan.name(slot);
             if ("_id".equals(fieldName)) {
                 continue;
             }
 
-            val fieldHolder = entry.getValue();
+            val fieldHolder = this.plan.field(slot);
+            val accessor = fieldHolder.accessor();
 
-            final Object[] value = {fieldHolder.get(object)};
-            if (value[0] != null) {
-                val fieldGenericType = Primitives.wrap(fieldHolder.genericType());
+            switch (this.plan.kind(slot)) {
+                case DecodePlan.KIND_INT -> {
+                    writer.writeInt32(fieldName, accessor.getInt(object));
+                    continue;
+                }
+                case DecodePlan.KIND_LONG -> {
+                    writer.writeInt64(fieldName, accessor.getLong(object));
+                    continue;
+                }
+                case DecodePlan.KIND_DOUBLE -> {
+                    writer.writeDouble(fieldName, accessor.getDouble(object));
+                    continue;
+                }
+                case DecodePlan.KIND_BOOLEAN -> {
+                    writer.writeBoolean(fieldName, accessor.getBoolean(object));
+                    continue;
+                }
+            }
 
+            val value = fieldHolder.get(object);
+            if (value != null) {
                 writer.writeName(fieldName);
-                val codec = (Codec<Object>) CodecsHelper.getCodec(this.registry, Primitives.wrap(fieldGenericType));
-
-                encoderContext.encodeWithChildContext(codec, writer, value[0]);
+                encoderContext.encodeWithChildContext(fieldHolder.codec(this.registry), writer, value);
 
                 continue;
             }
 
-            writer.writeNull(fieldName);
+            if (!fieldHolder.omitNull()) {
+                writer.writeNull(fieldName);
+            }
         }
 
         writer.writeEndDocument();
@@ -257,11 +329,6 @@ public class TypeCodec<T> implements Codec<T> {
         return this.clazz;
     }
 
-    @FunctionalInterface
-    private interface FieldProcessor {
-        void process(String fieldName, Object value, MongoMutableField mongoFieldHolder);
-    }
-
     private interface TypeSupplier<T> {
         T get(Object... args);
     }
@@ -0,0 +1,101 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.codec.uuid;
+
+import lombok.val;
+import org.bson.BsonBinary;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonReader;
+import org.bson.BsonSerializationException;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Stores {@link UUID}s as 16 byte BSON binaries of subtype 4 (standard representation).
+ * <p>
+ * The bytes are converted to and from the two {@code long} halves directly, without going through a
+ * {@code ByteBuffer} or string form. Strings written by {@link StringUUIDCodec} are accepted on decode
+ * so collections can be migrated between the two storages without downtime.
+ */
+public class BinaryUUIDCodec implements Codec<UUID> {
+
+    @Override
+    public UUID decode(@NotNull BsonReader reader, DecoderContext decoderContext) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return StringUUIDCodec.parse(reader.readString());
+        }
+        return read(reader);
+    }
+
+    @Override
+    public void encode(@NotNull BsonWriter writer, @NotNull UUID value, EncoderContext encoderContext) {
+        writer.writeBinaryData(toBinary(value));
+    }
+
+    @Override
+    public Class<UUID> getEncoderClass() {
+        return UUID.class;
+    }
+
+    /**
+     * Converts a UUID to its subtype 4 binary.
+     *
+     * @param value The UUID to convert.
+     * @return The binary holding the 16 big-endian bytes of the UUID.
+     */
+    public static @NotNull BsonBinary toBinary(@NotNull UUID value) {
+        val bytes = new byte[16];
+        write(bytes, 0, value.getMostSignificantBits());
+        write(bytes, 8, value.getLeastSignificantBits());
+        return new BsonBinary(BsonBinarySubType.UUID_STANDARD, bytes);
+    }
+
+    static @NotNull UUID read(@NotNull BsonReader reader) {
+        val binary = reader.readBinaryData();
+        val bytes = binary.getData();
+        if (bytes.length != 16 || binary.getType() != BsonBinarySubType.UUID_STANDARD.getValue()) {
+            throw new BsonSerializationException("Expected a 16 byte binary of subtype 4 for UUID, found subtype " + binary.getType() + " with " + bytes.length + " bytes");
+        }
+
+        return new UUID(read(bytes, 0), read(bytes, 8));
+    }
+
+    private static long read(byte @NotNull [] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = value << 8 | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static void write(byte @NotNull [] bytes, int offset, long value) {
+        for (int i = offset + 7; i >= offset; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
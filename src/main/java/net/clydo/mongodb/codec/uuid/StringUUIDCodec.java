@@ -20,28 +20,122 @@
 
 package net.clydo.mongodb.codec.uuid;
 
+import lombok.val;
 import org.bson.BsonReader;
+import org.bson.BsonType;
 import org.bson.BsonWriter;
 import org.bson.codecs.Codec;
 import org.bson.codecs.DecoderContext;
 import org.bson.codecs.EncoderContext;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.UUID;
 
+/**
+ * Stores {@link UUID}s as their 36 character canonical string.
+ * <p>
+ * Parsing and formatting are hand-rolled over the fixed layout instead of going through
+ * {@link UUID#fromString(String)}, and binary values written by {@link BinaryUUIDCodec} are accepted on decode
+ * so collections can be migrated between the two storages without downtime.
+ */
 public class StringUUIDCodec implements Codec<UUID> {
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
     @Override
     public UUID decode(@NotNull BsonReader reader, DecoderContext decoderContext) {
-        return UUID.fromString(reader.readString());
+        if (reader.getCurrentBsonType() == BsonType.BINARY) {
+            return BinaryUUIDCodec.read(reader);
+        }
+        return parse(reader.readString());
     }
 
     @Override
     public void encode(@NotNull BsonWriter writer, @NotNull UUID value, EncoderContext encoderContext) {
-        writer.writeString(value.toString());
+        writer.writeString(format(value));
     }
 
     @Override
     public Class<UUID> getEncoderClass() {
         return UUID.class;
     }
-}
\ No newline at end of file
+
+    /**
+     * Parses a canonical {@code 8-4-4-4-12} UUID string without allocating substrings.
+     * Other layouts accepted by {@link UUID#fromString(String)} are delegated to it.
+     *
+     * @param value The string to parse.
+     * @return The parsed UUID.
+     * @throws IllegalArgumentException If the string is not a valid UUID.
+     */
+    public static @NotNull UUID parse(@NotNull String value) {
+        if (value.length() != 36
+                || value.charAt(8) != '-'
+                || value.charAt(13) != '-'
+                || value.charAt(18) != '-'
+                || value.charAt(23) != '-') {
+            return UUID.fromString(value);
+        }
+
+        val mostSignificantBits = hex(value, 0, 8) << 32 | hex(value, 9, 13) << 16 | hex(value, 14, 18);
+        val leastSignificantBits = hex(value, 19, 23) << 48 | hex(value, 24, 36);
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * Formats a UUID as its lowercase canonical string.
+     *
+     * @param value The UUID to format.
+     * @return The 36 character string.
+     */
+    public static @NotNull String format(@NotNull UUID value) {
+        val bytes = new byte[36];
+        val mostSignificantBits = value.getMostSignificantBits();
+        val leastSignificantBits = value.getLeastSignificantBits();
+
+        hex(bytes, 0, mostSignificantBits >>> 32, 8);
+        bytes[8] = '-';
+        hex(bytes, 9, mostSignificantBits >>> 16, 4);
+        bytes[13] = '-';
+        hex(bytes, 14, mostSignificantBits, 4);
+        bytes[18] = '-';
+        hex(bytes, 19, leastSignificantBits >>> 48, 4);
+        bytes[23] = '-';
+        hex(bytes, 24, leastSignificantBits, 12);
+
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static long hex(@NotNull String value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            val c = value.charAt(i);
+            val digit = c < 128 ? HEX_VALUES[c] : -1;
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid UUID string: " + value);
+            }
+            result = result << 4 | digit;
+        }
+        return result;
+    }
+
+    private static void hex(byte @NotNull [] bytes, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            bytes[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.codec.uuid;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rewrites stored {@link java.util.UUID} values between {@link UUIDStorage#STRING} and {@link UUIDStorage#BINARY}.
+ * <p>
+ * Both UUID codecs read either form, so a collection can be migrated while it is in use: switch the field or schema
+ * to the new storage, then run {@link #migrate} until it reports zero rewritten documents.
+ */
+@UtilityClass
+public class UUIDMigrations {
+
+    /**
+     * Rewrites every value of a field that is not yet in the target storage, in unordered bulk writes of {@code batchSize} updates.
+     * <p>
+     * {@code fieldName} may be a dotted path into embedded documents. Values that are not UUIDs in the source storage are
+     * left as they are and not counted: strings that do not parse, binaries other than 16 bytes of subtype 4 (legacy
+     * subtype 3 UUIDs have a byte order that depends on the driver that wrote them) and values inside arrays.
+     *
+     * @param collection The collection to migrate.
+     * @param fieldName  The stored name of the UUID field.
+     * @param target     The storage to convert to, {@link UUIDStorage#DEFAULT} meaning {@link UUIDStorage#STRING}.
+     * @param batchSize  The number of documents fetched and rewritten per round-trip.
+     * @return The number of documents rewritten.
+     */
+    public long migrate(
+            @NotNull MongoCollection<?> collection,
+            @NotNull String fieldName,
+            @NotNull UUIDStorage target,
+            int batchSize
+    ) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+
+        val toBinary = target == UUIDStorage.BINARY;
+        val raw = collection.withDocumentClass(BsonDocument.class);
+        val documents = raw.find(Filters.type(fieldName, toBinary ? BsonType.STRING : BsonType.BINARY))
+                .projection(Projections.include(fieldName))
+                .batchSize(batchSize);
+
+        long migrated = 0;
+        val batch = new ArrayList<WriteModel<BsonDocument>>(batchSize);
+        for (BsonDocument document : documents) {
+            val converted = converted(document, fieldName, toBinary);
+            if (converted == null) {
+                continue;
+            }
+            batch.add(new UpdateOneModel<>(
+                    Filters.eq("_id", document.get("_id")),
+                    Updates.set(fieldName, converted)
+            ));
+
+            if (batch.size() >= batchSize) {
+                migrated += write(raw, batch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            migrated += write(raw, batch);
+        }
+        return migrated;
+    }
+
+    private long write(@NotNull MongoCollection<BsonDocument> collection, @NotNull List<WriteModel<BsonDocument>> batch) {
+        val result = collection.bulkWrite(batch, new BulkWriteOptions().ordered(false));
+        batch.clear();
+        return result.getModifiedCount();
+    }
+
+    /**
+     * @return The value at {@code fieldName} of {@code document} in the other storage, or {@code null} when there is no
+     * UUID in the source storage at that path.
+     */
+    @Nullable BsonValue converted(@NotNull BsonDocument document, @NotNull String fieldName, boolean toBinary) {
+        val value = resolve(document, fieldName);
+        if (value == null) {
+            return null;
+        }
+        return toBinary ? toBinaryValue(value) : toStringValue(value);
+    }
+
+    /**
+     * Follows a dotted path through embedded documents. Paths through arrays are not resolved.
+     */
+    private @Nullable BsonValue resolve(@NotNull BsonDocument document, @NotNull String path) {
+        BsonValue current = document;
+        for (val part : path.split("\\.")) {
+            if (!(current instanceof BsonDocument embedded)) {
+                return null;
+            }
+            current = embedded.get(part);
+        }
+        return current;
+    }
+
+    private @Nullable BsonValue toBinaryValue(@NotNull BsonValue value) {
+        if (!value.isString()) {
+            return null;
+        }
+        try {
+            return BinaryUUIDCodec.toBinary(StringUUIDCodec.parse(value.asString().getValue()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private @Nullable BsonValue toStringValue(@NotNull BsonValue value) {
+        if (!value.isBinary()) {
+            return null;
+        }
+        val binary = value.asBinary();
+        if (binary.getType() != BsonBinarySubType.UUID_STANDARD.getValue() || binary.getData().length != 16) {
+            return null;
+        }
+        return new BsonString(StringUUIDCodec.format(binary.asUuid()));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.codec.uuid;
+
+import org.bson.codecs.Codec;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * How {@link UUID} values are stored.
+ * Set per schema through {@code MongoHelper.newSchema} or per field through {@code @MongoField(uuid = ...)}.
+ */
+public enum UUIDStorage {
+    /**
+     * Use the schema's storage; as a schema option this is the same as {@link #STRING}.
+     */
+    DEFAULT(null),
+    /**
+     * The 36 character canonical string, handled by {@link StringUUIDCodec}.
+     */
+    STRING(new StringUUIDCodec()),
+    /**
+     * BSON binary subtype 4 (standard), handled by {@link BinaryUUIDCodec}. Takes 16 bytes instead of 36 and keeps indexes smaller.
+     */
+    BINARY(new BinaryUUIDCodec());
+
+    @Nullable
+    private final Codec<UUID> codec;
+
+    UUIDStorage(@Nullable Codec<UUID> codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Returns the codec for this storage, or {@code null} for {@link #DEFAULT}.
+     */
+    public @Nullable Codec<UUID> codec() {
+        return this.codec;
+    }
+}
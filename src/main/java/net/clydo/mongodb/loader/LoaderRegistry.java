@@ -29,11 +29,31 @@ import net.clydo.mongodb.loader.enums.EnumCacheLoader;
 import net.clydo.mongodb.loader.enums.values.MongoEnumValue;
 import net.clydo.mongodb.schematic.MongoSchemaHolder;
 import org.jetbrains.annotations.NotNull;
-
-import java.util.HashMap;
-
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches the loaded model, type and enum metadata per class.
+ * <p>
+ * Lookups of loaded classes are plain {@link ConcurrentHashMap} reads. Loading is single-flight: concurrent requests for
+ * the same class wait for the one thread that builds it. Loads triggered while a thread is already building (nested
+ * field types) never wait on another thread; they are skipped when the class is in flight, since only the side effect
+ * of caching it is needed, which also keeps self-referencing types from recursing.
+ */
 public class LoaderRegistry {
-    private final HashMap<Class<?>, CacheValue> cache;
+    /**
+     * Cached for classes that are neither {@code @MongoType} nor {@code @MongoModel}, so they are not reflected on again.
+     */
+    private static final CacheValue ABSENT = new CacheValue() {
+    };
+    private static final ThreadLocal<int[]> BUILD_DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final ConcurrentHashMap<Class<?>, CacheValue> cache;
+    private final ConcurrentHashMap<Class<?>, CompletableFuture<CacheValue>> loading;
 
     private final EnumCacheLoader enumCacheLoader;
     private final ClassCacheLoader classCacheLoader;
@@ -42,7 +62,8 @@ public class LoaderRegistry {
         this.enumCacheLoader = new EnumCacheLoader();
         this.classCacheLoader = new ClassCacheLoader(this);
 
-        this.cache = new HashMap<>();
+        this.cache = new ConcurrentHashMap<>();
+        this.loading = new ConcurrentHashMap<>();
     }
 
     public <T> void buildEnumOrType(@NotNull Class<T> clazz) {
@@ -53,37 +74,42 @@ public class LoaderRegistry {
         }
     }
 
+    /**
+     * Builds the model of {@code clazz}, replacing any cached value.
+     */
+    @SuppressWarnings("unchecked")
     public <C> MongoModelValue<C> buildModel(Class<C> clazz, MongoSchemaHolder schemaHolder) {
-        val mongoModel = this.classCacheLoader.buildModel(clazz, schemaHolder);
-        if (mongoModel == null) {
-            return null;
-        }
+        val value = this.load(clazz, true, () -> this.classCacheLoader.buildModel(clazz, schemaHolder));
+        return value instanceof MongoModelValue<?> model ? (MongoModelValue<C>) model : null;
+    }
 
-        this.cache.put(clazz, mongoModel);
-        return mongoModel;
+    /**
+     * Builds the fields of the model {@code clazz} without a synchronous collection, replacing any cached value, so
+     * its codecs can be used with other drivers.
+     */
+    @SuppressWarnings("unchecked")
+    public <C> MongoTypeValue<C> buildModelType(Class<C> clazz) {
+        val value = this.load(clazz, true, () -> this.classCacheLoader.buildModelType(clazz));
+        return value instanceof MongoTypeValue<?> type ? (MongoTypeValue<C>) type : null;
     }
 
+    @SuppressWarnings("unchecked")
     public <C> MongoTypeValue<C> buildType(Class<C> clazz) {
-        val mongoType = this.classCacheLoader.buildType(clazz);
-        if (mongoType == null) {
-            return null;
-        }
-
-        this.cache.put(clazz, mongoType);
-        return mongoType;
+        val value = this.load(clazz, false, () -> this.classCacheLoader.buildType(clazz));
+        return value instanceof MongoTypeValue<?> type ? (MongoTypeValue<C>) type : null;
     }
 
+    @SuppressWarnings("unchecked")
     public <C, E extends Enum<E>> MongoEnumValue<E> buildEnum(Class<C> clazz) {
-        final MongoEnumValue<E> value = this.enumCacheLoader.buildUnsafe(clazz);
-        this.cache.put(clazz, value);
-        return value;
+        val value = this.load(clazz, false, () -> this.enumCacheLoader.buildUnsafe(clazz));
+        return value instanceof MongoEnumValue<?> enumValue ? (MongoEnumValue<E>) enumValue : null;
     }
 
     public <T> ClassCacheValue<?> getModelOrType(Class<T> clazz) {
         var value = this.cache.get(clazz);
 
         if (value == null) {
-            value = this.buildType(clazz);
+            value = this.load(clazz, false, () -> this.classCacheLoader.buildType(clazz));
         }
 
         if (value instanceof ClassCacheValue<?> classCacheValue)
@@ -102,6 +128,14 @@ public class LoaderRegistry {
         return null;
     }
 
+    /**
+     * Returns the loaded model of {@code clazz}, or {@code null} when it is not one. Nothing is built.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable MongoModelValue<T> findModel(Class<T> clazz) {
+        return this.cache.get(clazz) instanceof MongoModelValue<?> model ? (MongoModelValue<T>) model : null;
+    }
+
     @SuppressWarnings("unchecked")
     public <T> MongoModelValue<T> getModel(Class<T> clazz) {
         val value = this.cache.get(clazz);
@@ -126,4 +160,67 @@ public class LoaderRegistry {
         return null;
     }
 
+    /**
+     * Returns the cached value of {@code clazz}, building it with {@code builder} when it is missing or {@code replace} is set.
+     * A {@code null} result of the builder is cached as {@link #ABSENT}.
+     */
+    private @Nullable CacheValue load(@NotNull Class<?> clazz, boolean replace, @NotNull Supplier<? extends CacheValue> builder) {
+        if (!replace) {
+            val cached = this.cache.get(clazz);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        val flight = new CompletableFuture<CacheValue>();
+        CompletableFuture<CacheValue> inFlight;
+        while ((inFlight = this.loading.putIfAbsent(clazz, flight)) != null) {
+            if (BUILD_DEPTH.get()[0] > 0) {
+                return this.cache.get(clazz);
+            }
+
+            val value = await(inFlight);
+            if (!replace) {
+                return value;
+            }
+        }
+
+        val depth = BUILD_DEPTH.get();
+        try {
+            // A concurrent load may have finished between the cache read and claiming the flight.
+            var value = replace ? null : this.cache.get(clazz);
+            if (value == null) {
+                depth[0]++;
+                try {
+                    value = builder.get();
+                } finally {
+                    depth[0]--;
+                }
+
+                this.cache.put(clazz, value != null ? value : ABSENT);
+            }
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.loading.remove(clazz, flight);
+        }
+    }
+
+    private static @Nullable CacheValue await(@NotNull CompletableFuture<CacheValue> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
 }
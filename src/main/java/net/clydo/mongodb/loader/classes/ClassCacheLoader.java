@@ -23,6 +23,7 @@ package net.clydo.mongodb.loader.classes;
 import lombok.val;
 import net.clydo.mongodb.annotations.*;
 import net.clydo.mongodb.loader.LoaderRegistry;
+import net.clydo.mongodb.loader.classes.accessor.FieldAccessor;
 import net.clydo.mongodb.loader.classes.values.MongoModelValue;
 import net.clydo.mongodb.loader.classes.values.MongoMutableField;
 import net.clydo.mongodb.loader.classes.values.MongoTypeValue;
@@ -37,6 +38,7 @@ import java.lang.reflect.ParameterizedType;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Objects;
+import java.util.UUID;
 
 public class ClassCacheLoader {
     private final LoaderRegistry registry;
@@ -54,7 +56,18 @@ public class ClassCacheLoader {
 
         val fields = this.collectFields(clazz, schemaHolder);
 
-        return MongoModelValue.of(clazz, fields, mongoModel.value(), schemaHolder);
+        return MongoModelValue.of(clazz, fields, mongoModel.value(), schemaHolder, mongoModel.trackChanges());
+    }
+
+    /**
+     * Builds the fields of a {@code @MongoModel} class like those of a {@code @MongoType}, without binding it to a
+     * collection of the synchronous driver.
+     */
+    public <C> MongoTypeValue<C> buildModelType(Class<C> clazz) {
+        Objects.requireNonNull(clazz, "The model class cannot be null.");
+        Objects.requireNonNull(ReflectionUtil.getAnnotation(clazz, MongoModel.class), "Class " + clazz.getSimpleName() + " must be annotated with @MongoModel.");
+
+        return MongoTypeValue.of(clazz, this.collectFields(clazz, null));
     }
 
     public <C> MongoTypeValue<C> buildType(Class<C> clazz) {
@@ -70,6 +83,8 @@ public class ClassCacheLoader {
 
     protected <M> @NotNull HashMap<String, MongoMutableField> collectFields(@NotNull Class<M> clazz, MongoSchemaHolder schemaHolder) {
         val fields = new HashMap<String, MongoMutableField>();
+        val mongoModel = ReflectionUtil.getAnnotation(clazz, MongoModel.class);
+        val omitNulls = mongoModel != null && mongoModel.omitNulls();
 
         Arrays.stream(clazz.getDeclaredFields())
                 .map(field -> Pair.of(field, ReflectionUtil.getAnnotation(field, MongoField.class)))
@@ -94,8 +109,11 @@ public class ClassCacheLoader {
                             field,
                             unique,
                             useDefault,
+                            omitNulls || mongoFieldInfo.omitNull(),
                             fieldType,
-                            fieldGenericType
+                            fieldGenericType,
+                            FieldAccessor.of(field),
+                            fieldType == UUID.class ? mongoFieldInfo.uuid().codec() : null
                     );
 
                     fields.put(fieldName, mongoField);
@@ -0,0 +1,215 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.loader.classes.accessor;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+
+/**
+ * The template of the accessors defined by {@link ConstantFieldAccessors}. It is never loaded under its own name: every
+ * field gets a hidden copy of this class whose {@code static final} handles are read from the class data of that copy,
+ * so the JIT treats them as constants and compiles {@code invokeExact} down to a direct field access.
+ * <p>
+ * Method bodies mirror {@link MethodHandleFieldAccessor}.
+ */
+final class ConstantFieldAccessor implements FieldAccessor {
+    private static final Field FIELD;
+    private static final Class<?> TYPE;
+    private static final MethodHandle GETTER;
+    private static final MethodHandle SETTER;
+    private static final MethodHandle PRIMITIVE_GETTER;
+    private static final MethodHandle PRIMITIVE_SETTER;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            FIELD = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, Field.class, 0);
+            GETTER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 1);
+            SETTER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 2);
+            PRIMITIVE_GETTER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 3);
+            PRIMITIVE_SETTER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 4);
+            TYPE = FIELD.getType();
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    ConstantFieldAccessor() {
+    }
+
+    @Override
+    public Object get(Object instance) {
+        try {
+            return (Object) GETTER.invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void set(Object instance, Object value) {
+        if (SETTER == null) {
+            throw notWritable();
+        }
+        try {
+            SETTER.invokeExact(instance, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public int getInt(Object instance) {
+        if (TYPE != int.class) {
+            throw notOfType(int.class);
+        }
+        try {
+            return (int) PRIMITIVE_GETTER.invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void setInt(Object instance, int value) {
+        if (TYPE != int.class) {
+            throw notOfType(int.class);
+        }
+        if (PRIMITIVE_SETTER == null) {
+            throw notWritable();
+        }
+        try {
+            PRIMITIVE_SETTER.invokeExact(instance, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public long getLong(Object instance) {
+        if (TYPE != long.class) {
+            throw notOfType(long.class);
+        }
+        try {
+            return (long) PRIMITIVE_GETTER.invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void setLong(Object instance, long value) {
+        if (TYPE != long.class) {
+            throw notOfType(long.class);
+        }
+        if (PRIMITIVE_SETTER == null) {
+            throw notWritable();
+        }
+        try {
+            PRIMITIVE_SETTER.invokeExact(instance, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public double getDouble(Object instance) {
+        if (TYPE != double.class) {
+            throw notOfType(double.class);
+        }
+        try {
+            return (double) PRIMITIVE_GETTER.invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void setDouble(Object instance, double value) {
+        if (TYPE != double.class) {
+            throw notOfType(double.class);
+        }
+        if (PRIMITIVE_SETTER == null) {
+            throw notWritable();
+        }
+        try {
+            PRIMITIVE_SETTER.invokeExact(instance, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(Object instance) {
+        if (TYPE != boolean.class) {
+            throw notOfType(boolean.class);
+        }
+        try {
+            return (boolean) PRIMITIVE_GETTER.invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void setBoolean(Object instance, boolean value) {
+        if (TYPE != boolean.class) {
+            throw notOfType(boolean.class);
+        }
+        if (PRIMITIVE_SETTER == null) {
+            throw notWritable();
+        }
+        try {
+            PRIMITIVE_SETTER.invokeExact(instance, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static IllegalStateException notOfType(Class<?> primitive) {
+        return new IllegalStateException("Field " + FIELD + " is not of type " + primitive);
+    }
+
+    private static IllegalStateException notWritable() {
+        return new IllegalStateException("Field " + FIELD + " is not writable");
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.loader.classes.accessor;
+
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Defines a hidden copy of {@link ConstantFieldAccessor} per field, holding the {@link FieldHandles} of that field as
+ * class data.
+ */
+@UtilityClass
+class ConstantFieldAccessors {
+    /**
+     * Named by string so the template class itself is never loaded.
+     */
+    private static final String TEMPLATE = "ConstantFieldAccessor.class";
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class);
+    private static final byte @Nullable [] TEMPLATE_BYTES = readTemplate();
+
+    /**
+     * @return The accessor, or {@code null} when the template is not available or the class can not be defined, for
+     * example when the library was repackaged without its class files as resources.
+     */
+    static @Nullable FieldAccessor define(@NotNull FieldHandles handles) {
+        if (TEMPLATE_BYTES == null) {
+            return null;
+        }
+
+        // Arrays.asList, since setters and primitive handles may be null.
+        val classData = Collections.unmodifiableList(Arrays.asList(
+                handles.field(),
+                handles.getter(),
+                handles.setter(),
+                handles.primitiveGetter(),
+                handles.primitiveSetter()
+        ));
+        try {
+            val lookup = MethodHandles.lookup().defineHiddenClassWithClassData(TEMPLATE_BYTES, classData, true);
+            return (FieldAccessor) lookup.findConstructor(lookup.lookupClass(), CONSTRUCTOR_TYPE).invoke();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static byte @Nullable [] readTemplate() {
+        try (val in = ConstantFieldAccessors.class.getResourceAsStream(TEMPLATE)) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
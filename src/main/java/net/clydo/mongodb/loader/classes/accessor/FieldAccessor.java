@@ -0,0 +1,70 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.loader.classes.accessor;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes a single model field without going through {@link Field#get(Object)} / {@link Field#set(Object, Object)}.
+ * Accessors are built once per field when the model is loaded and reused for every encode and decode.
+ */
+public interface FieldAccessor {
+
+    Object get(Object instance);
+
+    void set(Object instance, Object value);
+
+    /*
+     * Primitive-specialized variants. They are only valid for fields whose declared type is exactly the
+     * primitive in the method name and let codecs move values between the field and the BSON reader/writer
+     * without boxing.
+     */
+
+    int getInt(Object instance);
+
+    void setInt(Object instance, int value);
+
+    long getLong(Object instance);
+
+    void setLong(Object instance, long value);
+
+    double getDouble(Object instance);
+
+    void setDouble(Object instance, double value);
+
+    boolean getBoolean(Object instance);
+
+    void setBoolean(Object instance, boolean value);
+
+    /**
+     * Builds the accessor of {@code field}: a hidden class holding its handles as constants, or a
+     * {@link MethodHandleFieldAccessor} when such a class can not be defined.
+     */
+    @Contract("_ -> new")
+    static @NotNull FieldAccessor of(@NotNull Field field) {
+        final FieldHandles handles = FieldHandles.of(field);
+        final FieldAccessor constant = ConstantFieldAccessors.define(handles);
+        return constant != null ? constant : new MethodHandleFieldAccessor(handles);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.loader.classes.accessor;
+
+import lombok.val;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * The getter/setter {@link MethodHandle}s of a field, unreflected once and adapted to an erased
+ * {@code (Object)Object} / {@code (Object, Object)void} shape. For {@code int}, {@code long}, {@code double} and
+ * {@code boolean} fields they are also adapted to their primitive shape.
+ *
+ * @param setter          {@code null} for fields that can only be filled through a {@code @MongoConstructor}.
+ * @param primitiveGetter {@code null} unless the field is of a specialized primitive type.
+ * @param primitiveSetter {@code null} unless the field is writable and of a specialized primitive type.
+ */
+record FieldHandles(
+        @NotNull Field field,
+        @NotNull MethodHandle getter,
+        @Nullable MethodHandle setter,
+        @Nullable MethodHandle primitiveGetter,
+        @Nullable MethodHandle primitiveSetter
+) {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    @Contract("_ -> new")
+    static @NotNull FieldHandles of(@NotNull Field field) {
+        field.setAccessible(true);
+
+        val lookup = MethodHandles.lookup();
+        val fieldType = field.getType();
+
+        final MethodHandle rawGetter;
+        try {
+            rawGetter = lookup.unreflectGetter(field);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can not access field " + field, e);
+        }
+
+        MethodHandle rawSetter;
+        try {
+            rawSetter = lookup.unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            // Final fields of records and hidden classes can only be filled through a @MongoConstructor.
+            rawSetter = null;
+        }
+
+        val specialized = isSpecialized(fieldType);
+        return new FieldHandles(
+                field,
+                rawGetter.asType(GETTER_TYPE),
+                rawSetter == null ? null : rawSetter.asType(SETTER_TYPE),
+                specialized ? rawGetter.asType(MethodType.methodType(fieldType, Object.class)) : null,
+                specialized && rawSetter != null ? rawSetter.asType(MethodType.methodType(void.class, Object.class, fieldType)) : null
+        );
+    }
+
+    private static boolean isSpecialized(@NotNull Class<?> type) {
+        return type == int.class || type == long.class || type == double.class || type == boolean.class;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.loader.classes.accessor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+
+/**
+ * A {@link FieldAccessor} backed by the {@link FieldHandles} of the field held in instance fields, so every call is a
+ * plain {@code invokeExact} without per-call access checks.
+ * <p>
+ * {@link FieldAccessor#of(Field)} only uses it when a {@link ConstantFieldAccessors constant accessor} can not be
+ * defined: handles read from instance fields are not constants to the JIT, so it can not inline through them.
+ */
+public final class MethodHandleFieldAccessor implements FieldAccessor {
+    private final Field field;
+    private final MethodHandle getter;
+    @Nullable
+    private final MethodHandle setter;
+
+    @Nullable
+    private final MethodHandle primitiveGetter;
+    @Nullable
+    private final MethodHandle primitiveSetter;
+
+    public MethodHandleFieldAccessor(@NotNull Field field) {
+        this(FieldHandles.of(field));
+    }
+
+    MethodHandleFieldAccessor(@NotNull FieldHandles handles) {
+        this.field = handles.field();
+        this.getter = handles.getter();
+        this.setter = handles.setter();
+        this.primitiveGetter = handles.primitiveGetter();
+        this.primitiveSetter = handles.primitiveSetter();
+    }
+
+    @Override
+    public Object get(Object instance) {
+        try {
+            return (Object) this.getter.invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void set(Object instance, Object value) {
+        try {
+            this.writable(this.setter).invokeExact(instance, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public int getInt(Object instance) {
+        try {
+            return (int) this.primitive(this.primitiveGetter, int.class).invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void setInt(Object instance, int value) {
+        try {
+            this.writable(this.primitive(this.primitiveSetter, int.class)).invokeExact(instance, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public long getLong(Object instance) {
+        try {
+            return (long) this.primitive(this.primitiveGetter, long.class).invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void setLong(Object instance, long value) {
+        try {
+            this.writable(this.primitive(this.primitiveSetter, long.class)).invokeExact(instance, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public double getDouble(Object instance) {
+        try {
+            return (double) this.primitive(this.primitiveGetter, double.class).invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void setDouble(Object instance, double value) {
+        try {
+            this.writable(this.primitive(this.primitiveSetter, double.class)).invokeExact(instance, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(Object instance) {
+        try {
+            return (boolean) this.primitive(this.primitiveGetter, boolean.class).invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void setBoolean(Object instance, boolean value) {
+        try {
+            this.writable(this.primitive(this.primitiveSetter, boolean.class)).invokeExact(instance, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private MethodHandle primitive(@Nullable MethodHandle handle, @NotNull Class<?> primitive) {
+        if (this.field.getType() != primitive) {
+            throw new IllegalStateException("Field " + this.field + " is not of type " + primitive);
+        }
+        return handle;
+    }
+
+    private @NotNull MethodHandle writable(@Nullable MethodHandle handle) {
+        if (handle == null) {
+            throw new IllegalStateException("Field " + this.field + " is not writable");
+        }
+        return handle;
+    }
+}
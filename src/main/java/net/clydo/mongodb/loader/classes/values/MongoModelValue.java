@@ -21,20 +21,29 @@
 package net.clydo.mongodb.loader.classes.values;
 
 import com.mongodb.client.MongoCollection;
+import net.clydo.mongodb.cache.NearCache;
+import net.clydo.mongodb.cache.NearCacheOptions;
 import net.clydo.mongodb.loader.CacheValue;
+import net.clydo.mongodb.operations.async.AsyncExecutors;
+import net.clydo.mongodb.operations.async.AsyncOperations;
 import net.clydo.mongodb.operations.count.CountOperations;
 import net.clydo.mongodb.operations.create.CreateOperations;
 import net.clydo.mongodb.operations.delete.DeleteOperations;
 import net.clydo.mongodb.operations.find.FindOperations;
 import net.clydo.mongodb.operations.update.UpdateOperations;
 import net.clydo.mongodb.operations.upsert.UpsertOperations;
+import net.clydo.mongodb.operations.writebehind.WriteBehindOptions;
+import net.clydo.mongodb.operations.writebehind.WriteBehindQueue;
 import net.clydo.mongodb.schematic.MongoSchemaHolder;
+import net.clydo.mongodb.tracking.ChangeTracker;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -50,6 +59,9 @@ public final class MongoModelValue<M> implements CacheValue, ClassCacheValue<M>
     private final List<String> uniques;
     private final HashMap<String, MongoMutableField> fields;
     private final MongoSchemaHolder parent;
+    private final @Nullable ChangeTracker<M> changeTracker;
+    private volatile @Nullable NearCache<M> nearCache;
+    private volatile @Nullable WriteBehindQueue<M> writeBehind;
 
     private final CountOperations<M> countOperations;
     private final CreateOperations<M> createOperations;
@@ -57,6 +69,7 @@ public final class MongoModelValue<M> implements CacheValue, ClassCacheValue<M>
     private final FindOperations<M> findOperations;
     private final UpdateOperations<M> updateOperations;
     private final UpsertOperations<M> upsertOperations;
+    private final AsyncOperations<M> asyncOperations;
 
     /**
      * Constructs a new {@link MongoModelValue} instance.
@@ -75,6 +88,29 @@ public final class MongoModelValue<M> implements CacheValue, ClassCacheValue<M>
             List<String> uniques,
             HashMap<String, MongoMutableField> fields,
             MongoSchemaHolder parent
+    ) {
+        this(type, modelName, collection, uniques, fields, parent, false);
+    }
+
+    /**
+     * Constructs a new {@link MongoModelValue} instance.
+     *
+     * @param type          The class type of the model.
+     * @param modelName     The name of the model.
+     * @param collection    The MongoDB collection associated with this model.
+     * @param uniques       The list of unique field names for this model.
+     * @param fields        A map of field names to {@link MongoMutableField} instances.
+     * @param parent        The parent {@link MongoSchemaHolder} for this model.
+     * @param trackChanges  Whether decoded entities are snapshotted for {@link UpdateOperations#changed}.
+     */
+    public MongoModelValue(
+            Class<M> type,
+            String modelName,
+            MongoCollection<M> collection,
+            List<String> uniques,
+            HashMap<String, MongoMutableField> fields,
+            MongoSchemaHolder parent,
+            boolean trackChanges
     ) {
         this.type = type;
         this.modelName = modelName;
@@ -82,6 +118,7 @@ public final class MongoModelValue<M> implements CacheValue, ClassCacheValue<M>
         this.uniques = uniques;
         this.fields = fields;
         this.parent = parent;
+        this.changeTracker = trackChanges ? new ChangeTracker<>(this) : null;
 
         this.countOperations = new CountOperations<>(this);
         this.createOperations = new CreateOperations<>(this);
@@ -89,6 +126,7 @@ public final class MongoModelValue<M> implements CacheValue, ClassCacheValue<M>
         this.findOperations = new FindOperations<>(this);
         this.updateOperations = new UpdateOperations<>(this);
         this.upsertOperations = new UpsertOperations<>(this);
+        this.asyncOperations = new AsyncOperations<>(this, AsyncExecutors.threadPerTask());
     }
 
     /**
@@ -107,6 +145,28 @@ public final class MongoModelValue<M> implements CacheValue, ClassCacheValue<M>
             final HashMap<String, MongoMutableField> fields,
             final String modelName,
             final @NotNull MongoSchemaHolder parent
+    ) {
+        return of(type, fields, modelName, parent, false);
+    }
+
+    /**
+     * Creates a new {@link MongoModelValue} instance with the specified parameters.
+     *
+     * @param type         The class type of the model.
+     * @param fields       A map of field names to {@link MongoMutableField} instances.
+     * @param modelName    The name of the model.
+     * @param parent       The parent {@link MongoSchemaHolder} for this model.
+     * @param trackChanges Whether decoded entities are snapshotted for {@link UpdateOperations#changed}.
+     * @param <M>          The type of the model.
+     * @return A new {@link MongoModelValue} instance.
+     */
+    @Contract("_, _, _, _, _ -> new")
+    public static <M> @NotNull MongoModelValue<M> of(
+            final Class<M> type,
+            final HashMap<String, MongoMutableField> fields,
+            final String modelName,
+            final @NotNull MongoSchemaHolder parent,
+            final boolean trackChanges
     ) {
         return new MongoModelValue<>(
                 type,
@@ -117,7 +177,8 @@ public final class MongoModelValue<M> implements CacheValue, ClassCacheValue<M>
                         .map(Map.Entry::getKey)
                         .collect(Collectors.toList()),
                 fields,
-                parent
+                parent,
+                trackChanges
         );
     }
 
@@ -175,6 +236,26 @@ public final class MongoModelValue<M> implements CacheValue, ClassCacheValue<M>
         return this.upsertOperations;
     }
 
+    /**
+     * Provides the operations of this model as {@link java.util.concurrent.CompletableFuture}s, each running on a
+     * thread of its own, see {@link AsyncExecutors#threadPerTask()}.
+     *
+     * @return The {@link AsyncOperations} instance for this model.
+     */
+    public AsyncOperations<M> async() {
+        return this.asyncOperations;
+    }
+
+    /**
+     * Provides the operations of this model as {@link java.util.concurrent.CompletableFuture}s running on {@code executor}.
+     *
+     * @param executor Runs every operation as one task.
+     * @return A new {@link AsyncOperations} instance for this model.
+     */
+    public AsyncOperations<M> async(Executor executor) {
+        return new AsyncOperations<>(this, executor);
+    }
+
     /**
      * Returns the class type of the model.
      *
@@ -229,4 +310,99 @@ public final class MongoModelValue<M> implements CacheValue, ClassCacheValue<M>
     public MongoSchemaHolder parent() {
         return this.parent;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the change tracker of this model.
+     *
+     * @return The {@link ChangeTracker}, or {@code null} when the model does not track changes.
+     */
+    public @Nullable ChangeTracker<M> changeTracker() {
+        return this.changeTracker;
+    }
+
+    /**
+     * Returns the near cache of this model.
+     *
+     * @return The {@link NearCache}, or {@code null} when it is not {@linkplain #enableNearCache enabled}.
+     */
+    public @Nullable NearCache<M> nearCache() {
+        return this.nearCache;
+    }
+
+    /**
+     * Caches the entities found by {@code find().firstByUnique} and {@code find().uniqueByUnique}, replacing the current
+     * near cache. Write operations of this model invalidate the entries they touch.
+     *
+     * @param options The size, expiry and storage of the cache.
+     * @return The cache, for its {@link NearCache#stats() stats}.
+     * @throws IllegalStateException If the model does not have exactly one unique field.
+     */
+    public @NotNull NearCache<M> enableNearCache(@NotNull NearCacheOptions options) {
+        if (this.uniques.size() != 1) {
+            throw new IllegalStateException("A near cache needs exactly one unique field, '" + this.modelName + "' has " + this.uniques.size());
+        }
+
+        final NearCache<M> nearCache = new NearCache<>(this, this.uniques.get(0), options);
+        this.nearCache = nearCache;
+        return nearCache;
+    }
+
+    /**
+     * Stops caching unique lookups and drops the cached entities.
+     */
+    public void disableNearCache() {
+        final NearCache<M> nearCache = this.nearCache;
+        this.nearCache = null;
+        if (nearCache != null) {
+            nearCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns the write-behind queue of this model.
+     *
+     * @return The {@link WriteBehindQueue}, or {@code null} when it is not {@linkplain #enableWriteBehind enabled}.
+     */
+    public @Nullable WriteBehindQueue<M> writeBehind() {
+        return this.writeBehind;
+    }
+
+    /**
+     * Starts buffering updates queued through {@link #writeBehind()} by unique value, replacing and flushing the current
+     * queue. The queue is flushed and closed by {@link #disableWriteBehind()} and {@link net.clydo.mongodb.MongoHelper#close()}.
+     *
+     * @param options The capacity and flush triggers of the queue.
+     * @return The queue.
+     * @throws IllegalStateException If the model does not have exactly one unique field.
+     */
+    public @NotNull WriteBehindQueue<M> enableWriteBehind(@NotNull WriteBehindOptions options) {
+        if (this.uniques.size() != 1) {
+            throw new IllegalStateException("A write-behind queue needs exactly one unique field, '" + this.modelName + "' has " + this.uniques.size());
+        }
+
+        final WriteBehindQueue<M> previous;
+        final WriteBehindQueue<M> writeBehind = new WriteBehindQueue<>(this, this.uniques.get(0), options);
+        synchronized (this) {
+            previous = this.writeBehind;
+            this.writeBehind = writeBehind;
+        }
+        if (previous != null) {
+            previous.close();
+        }
+        return writeBehind;
+    }
+
+    /**
+     * Flushes the pending updates of the write-behind queue and closes it.
+     */
+    public void disableWriteBehind() {
+        final WriteBehindQueue<M> writeBehind;
+        synchronized (this) {
+            writeBehind = this.writeBehind;
+            this.writeBehind = null;
+        }
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+}
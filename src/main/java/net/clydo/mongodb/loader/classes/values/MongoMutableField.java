@@ -20,27 +20,79 @@
 
 package net.clydo.mongodb.loader.classes.values;
 
+import lombok.val;
+import net.clydo.mongodb.codec.CodecsHelper;
+import net.clydo.mongodb.loader.classes.accessor.FieldAccessor;
+import net.clydo.mongodb.util.Primitives;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
+import java.util.Objects;
+
+public final class MongoMutableField {
+    private final String fieldName;
+    private final Field field;
+    private final boolean unique;
+    private final boolean useDefault;
+    private final boolean omitNull;
+    private final Class<?> type;
+    private final Type genericType;
+    private final Type wrappedType;
+    private final FieldAccessor accessor;
+    @Nullable
+    private final Codec<Object> codecOverride;
+
+    /**
+     * The codec last resolved for {@link #wrappedType}, together with the registry it was resolved from.
+     * Published through a volatile write of an immutable pair, so readers never see a half-built entry.
+     */
+    private volatile ResolvedCodec resolvedCodec;
 
-public record MongoMutableField(
-        String fieldName,
-        Field field,
-        boolean unique,
-        boolean useDefault,
-        Class<?> type,
-        Type genericType
-) {
-    public MongoMutableField {
-        field.setAccessible(true);
+    public MongoMutableField(
+            String fieldName,
+            Field field,
+            boolean unique,
+            boolean useDefault,
+            boolean omitNull,
+            Class<?> type,
+            Type genericType,
+            FieldAccessor accessor,
+            @Nullable Codec<?> codecOverride
+    ) {
+        this.fieldName = fieldName;
+        this.field = field;
+        this.unique = unique;
+        this.useDefault = useDefault;
+        this.omitNull = omitNull;
+        this.type = type;
+        this.genericType = genericType;
+        this.wrappedType = Primitives.wrap(genericType);
+        this.accessor = accessor;
+        // An override is always built for the field's own type, so it encodes and decodes the field's values.
+        @SuppressWarnings("unchecked") final Codec<Object> override = (Codec<Object>) codecOverride;
+        this.codecOverride = override;
+    }
+
+    public MongoMutableField(
+            String fieldName,
+            Field field,
+            boolean unique,
+            boolean useDefault,
+            Class<?> type,
+            Type genericType
+    ) {
+        this(fieldName, field, unique, useDefault, false, type, genericType, FieldAccessor.of(field), null);
     }
 
     public Object get(Object object) {
-        try {
-            return this.field.get(object);
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException(e);
-        }
+        return this.accessor.get(object);
     }
 
     public void set(Object object, Object value) {
@@ -48,10 +100,119 @@ public record MongoMutableField(
             return;
         }
 
-        try {
-            this.field.set(object, value);
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException(e);
+        this.accessor.set(object, value);
+    }
+
+    /**
+     * Returns the codec for this field's {@link #wrappedType()}, resolving it from the registry only
+     * the first time it is requested for that registry. A codec fixed by the field's annotations
+     * (such as {@code @MongoField(uuid = ...)}) takes precedence over the registry.
+     *
+     * @param registry The codec registry of the calling codec.
+     * @return The codec for the field value.
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull Codec<Object> codec(@NotNull CodecRegistry registry) {
+        if (this.codecOverride != null) {
+            return this.codecOverride;
         }
+
+        val resolved = this.resolvedCodec;
+        if (resolved != null && resolved.registry() == registry) {
+            return resolved.codec();
+        }
+
+        val codec = (Codec<Object>) CodecsHelper.getCodec(registry, this.wrappedType);
+        this.resolvedCodec = new ResolvedCodec(registry, codec);
+        return codec;
+    }
+
+    /**
+     * Converts a value of this field to the form it is stored in, for use in filters and update operators.
+     * Values are returned as they are unless the field fixes its own codec, since the collection's registry
+     * already encodes them the same way the model codec does. Values that are not of the field's type, such as the
+     * string of a UUID stored as a string, are taken to be in stored form already.
+     *
+     * @param value The field value.
+     * @return The value to put in a filter or update.
+     */
+    public @Nullable Object storedValue(@Nullable Object value) {
+        if (this.codecOverride == null || value == null || !this.type.isInstance(value)) {
+            return value;
+        }
+
+        val document = new BsonDocument();
+        val writer = new BsonDocumentWriter(document);
+        writer.writeStartDocument();
+        writer.writeName(this.fieldName);
+        this.codecOverride.encode(writer, value, EncoderContext.builder().build());
+        writer.writeEndDocument();
+        return document.get(this.fieldName);
+    }
+
+    public String fieldName() {
+        return this.fieldName;
+    }
+
+    public Field field() {
+        return this.field;
+    }
+
+    public boolean unique() {
+        return this.unique;
+    }
+
+    public boolean useDefault() {
+        return this.useDefault;
+    }
+
+    /**
+     * Whether a {@code null} value is left out of the document instead of being written as BSON null.
+     */
+    public boolean omitNull() {
+        return this.omitNull;
+    }
+
+    public Class<?> type() {
+        return this.type;
+    }
+
+    public Type genericType() {
+        return this.genericType;
+    }
+
+    /**
+     * Returns the {@link #genericType()} with primitives replaced by their wrapper types.
+     */
+    public Type wrappedType() {
+        return this.wrappedType;
+    }
+
+    public FieldAccessor accessor() {
+        return this.accessor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MongoMutableField that)) return false;
+        return this.unique == that.unique
+                && this.useDefault == that.useDefault
+                && this.omitNull == that.omitNull
+                && Objects.equals(this.fieldName, that.fieldName)
+                && Objects.equals(this.field, that.field);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.fieldName, this.field, this.unique, this.useDefault, this.omitNull);
+    }
+
+    @Override
+    public String toString() {
+        return "MongoMutableField[fieldName=" + this.fieldName + ", field=" + this.field + ", unique=" + this.unique + ", useDefault=" + this.useDefault + ", omitNull=" + this.omitNull + "]";
+    }
+
+    private record ResolvedCodec(CodecRegistry registry, Codec<Object> codec) {
     }
 }
@@ -0,0 +1,142 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.loader.enums.values;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Read-only lookup from {@code @MongoMapAs} keys to enum constants that never hashes the key.
+ * <p>
+ * Keys are bucketed by length; inside a bucket a single character position that tells every key apart is picked at build
+ * time, so a lookup is one array access, a short {@code char} scan and at most one {@link String#equals}. Buckets without
+ * such a position fall back to comparing every key in the bucket.
+ */
+public final class EnumKeyTable<E> {
+    private final Bucket<E>[] buckets;
+
+    private EnumKeyTable(Bucket<E>[] buckets) {
+        this.buckets = buckets;
+    }
+
+    public @Nullable E get(@NotNull String key) {
+        val length = key.length();
+        if (length >= this.buckets.length) {
+            return null;
+        }
+
+        val bucket = this.buckets[length];
+        if (bucket == null) {
+            return null;
+        }
+
+        val keys = bucket.keys;
+        val position = bucket.position;
+        if (position >= 0) {
+            val c = key.charAt(position);
+            val chars = bucket.chars;
+            for (int i = 0; i < chars.length; i++) {
+                if (chars[i] == c) {
+                    return keys[i].equals(key) ? bucket.values[i] : null;
+                }
+            }
+            return null;
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return bucket.values[i];
+            }
+        }
+        return null;
+    }
+
+    // Generic arrays are created as wildcard arrays; every element stored below is of the declared element type.
+    @SuppressWarnings("unchecked")
+    static <E> @NotNull EnumKeyTable<E> of(@NotNull String[] keys, @NotNull E[] values) {
+        var maxLength = 0;
+        for (String key : keys) {
+            maxLength = Math.max(maxLength, key.length());
+        }
+
+        val grouped = (List<Integer>[]) new List<?>[maxLength + 1];
+        for (int i = 0; i < keys.length; i++) {
+            val length = keys[i].length();
+            if (grouped[length] == null) {
+                grouped[length] = new ArrayList<>();
+            }
+            grouped[length].add(i);
+        }
+
+        val buckets = (Bucket<E>[]) new Bucket<?>[maxLength + 1];
+        for (int length = 0; length <= maxLength; length++) {
+            val indexes = grouped[length];
+            if (indexes == null) {
+                continue;
+            }
+
+            val bucketKeys = new String[indexes.size()];
+            val bucketValues = (E[]) new Object[indexes.size()];
+            for (int i = 0; i < bucketKeys.length; i++) {
+                bucketKeys[i] = keys[indexes.get(i)];
+                bucketValues[i] = values[indexes.get(i)];
+            }
+
+            val position = distinctPosition(bucketKeys, length);
+            val chars = new char[position >= 0 ? bucketKeys.length : 0];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = bucketKeys[i].charAt(position);
+            }
+
+            buckets[length] = new Bucket<>(bucketKeys, bucketValues, position, chars);
+        }
+
+        return new EnumKeyTable<>(buckets);
+    }
+
+    /**
+     * Returns the first character position at which all keys (of the same {@code length}) differ, or {@code -1}.
+     */
+    private static int distinctPosition(@NotNull String[] keys, int length) {
+        for (int position = 0; position < length; position++) {
+            val seen = new HashSet<Character>();
+            var distinct = true;
+            for (String key : keys) {
+                if (!seen.add(key.charAt(position))) {
+                    distinct = false;
+                    break;
+                }
+            }
+            if (distinct) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private record Bucket<E>(String[] keys, E[] values, int position, char[] chars) {
+    }
+}
@@ -21,63 +21,126 @@
 package net.clydo.mongodb.loader.enums.values;
 
 import lombok.val;
+import net.clydo.mongodb.annotations.MongoEnum;
 import net.clydo.mongodb.annotations.MongoMapAs;
 import net.clydo.mongodb.loader.CacheValue;
 import net.clydo.mongodb.util.ReflectionUtil;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * The {@code @MongoMapAs} mapping of an enum.
+ * <p>
+ * Encoding indexes ordinal-sized arrays; decoding goes through an {@link EnumKeyTable} for string keys and a code-indexed
+ * array for {@link MongoEnum.Storage#INT32} codes.
+ */
 public record MongoEnumValue<E extends Enum<E>>(
-        Map<E, String> encryption,
-        Map<String, E> decryption
+        MongoEnum.Storage storage,
+        String[] keys,
+        int[] codes,
+        EnumKeyTable<E> keyTable,
+        E[] byCode
 ) implements CacheValue {
+    private static final int MAX_CODE = 0xFFFF;
+
+    public @Nullable E decode(@NotNull String key) {
+        return this.keyTable.get(key);
+    }
 
-    public E decode(String key) {
-        return this.decryption.get(key);
+    public @Nullable E decode(int code) {
+        return code >= 0 && code < this.byCode.length ? this.byCode[code] : null;
     }
 
     public String encode(@NotNull E value) {
-        return this.encryption.get(value);
+        return this.keys[value.ordinal()];
+    }
+
+    /**
+     * Returns the {@link MongoMapAs#code()} of {@code value}, or {@code -1} when the enum does not declare codes.
+     */
+    public int encodeCode(@NotNull E value) {
+        return this.codes[value.ordinal()];
     }
 
     @Deprecated(forRemoval = true)
     public Map<E, String> encryption() {
-        return this.encryption;
+        val encryption = new HashMap<E, String>();
+        for (int ordinal = 0; ordinal < this.keys.length; ordinal++) {
+            encryption.put(this.constant(ordinal), this.keys[ordinal]);
+        }
+        return encryption;
     }
 
     @Deprecated(forRemoval = true)
     public Map<String, E> decryption() {
-        return this.decryption;
+        val decryption = new HashMap<String, E>();
+        for (int ordinal = 0; ordinal < this.keys.length; ordinal++) {
+            decryption.put(this.keys[ordinal], this.constant(ordinal));
+        }
+        return decryption;
+    }
+
+    private E constant(int ordinal) {
+        return this.keyTable.get(this.keys[ordinal]);
     }
 
     @Contract("_ -> new")
     public static <E extends Enum<E>> @NotNull MongoEnumValue<E> of(@NotNull Class<E> enumClass) {
+        val constants = enumClass.getEnumConstants();
         val constantMap = new HashMap<String, E>();
-        for (E constant : enumClass.getEnumConstants()) {
+        for (E constant : constants) {
             if (constantMap.put(constant.name(), constant) != null) {
                 throw new IllegalStateException("Duplicate key");
             }
         }
 
-        val encryption = new HashMap<E, String>();
+        val mongoEnum = enumClass.getAnnotation(MongoEnum.class);
+        val storage = mongoEnum != null ? mongoEnum.storage() : MongoEnum.Storage.STRING;
+
+        val keys = new String[constants.length];
+        val codes = new int[constants.length];
         val decryption = new HashMap<String, E>();
+        var maxCode = -1;
 
         for (Field field : enumClass.getDeclaredFields()) {
             if (field.isEnumConstant()) {
                 val fieldName = field.getName();
-                val mapAs = ReflectionUtil.validateAnnotation(field, MongoMapAs.class).value();
+                val mapAs = ReflectionUtil.validateAnnotation(field, MongoMapAs.class);
                 val value = constantMap.get(fieldName);
 
-                encryption.put(value, mapAs);
-                decryption.put(mapAs, value);
+                if (decryption.put(mapAs.value(), value) != null) {
+                    throw new IllegalStateException(String.format("Duplicate @MongoMapAs key '%s' in %s", mapAs.value(), enumClass));
+                }
+                keys[value.ordinal()] = mapAs.value();
+                codes[value.ordinal()] = mapAs.code();
+
+                if (mapAs.code() > MAX_CODE || mapAs.code() < (storage == MongoEnum.Storage.INT32 ? 0 : -1)) {
+                    throw new IllegalStateException(String.format("%s.%s needs a @MongoMapAs code between 0 and %d", enumClass.getSimpleName(), fieldName, MAX_CODE));
+                }
+                maxCode = Math.max(maxCode, mapAs.code());
+            }
+        }
+
+        val byCode = Arrays.copyOf(constants, maxCode + 1);
+        Arrays.fill(byCode, null);
+        for (E constant : constants) {
+            val code = codes[constant.ordinal()];
+            if (code < 0) {
+                continue;
+            }
+            if (byCode[code] != null) {
+                throw new IllegalStateException(String.format("Duplicate @MongoMapAs code %d in %s", code, enumClass));
             }
+            byCode[code] = constant;
         }
 
-        return new MongoEnumValue<>(encryption, decryption);
+        return new MongoEnumValue<>(storage, keys, codes, EnumKeyTable.of(keys, constants), byCode);
     }
 
 }
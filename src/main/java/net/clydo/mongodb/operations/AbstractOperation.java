@@ -20,16 +20,40 @@
 
 package net.clydo.mongodb.operations;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.WriteModel;
 import lombok.val;
 import net.clydo.mongodb.error.NotFoundResult;
 import net.clydo.mongodb.loader.classes.values.MongoModelValue;
 import net.clydo.mongodb.loader.classes.values.MongoMutableField;
+import net.clydo.mongodb.operations.bulk.BulkItemError;
+import net.clydo.mongodb.operations.bulk.BulkOptions;
+import net.clydo.mongodb.operations.bulk.BulkResult;
+import net.clydo.mongodb.operations.bulk.ChunkOptions;
+import net.clydo.mongodb.operations.bulk.ChunkProgress;
+import net.clydo.mongodb.operations.bulk.ParallelChunks;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
 import org.bson.conversions.Bson;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 public class AbstractOperation<M> implements IOperations<M> {
     protected final MongoModelValue<M> model;
@@ -53,17 +77,7 @@ public class AbstractOperation<M> implements IOperations<M> {
 
     @Override
     public Object getFieldValue(@NotNull HashMap<String, MongoMutableField> fields, @NotNull M datum, @NotNull String fieldName) {
-        val field = fields.get(fieldName);
-        if (field == null) {
-            throw new NullPointerException("No such field: " + fieldName);
-        }
-
-        val value = field.get(datum);
-        if (value == null) {
-            throw new NullPointerException(fieldName + (field.unique() ? " unique" : "") + " value is null");
-        }
-
-        return value;
+        return ModelFields.fieldValue(fields, datum, fieldName);
     }
 
     @Override
@@ -81,20 +95,275 @@ public class AbstractOperation<M> implements IOperations<M> {
 
     @Override
     public @NotNull String firstUniqueFieldName() {
-        val uniques = this.uniques();
-        if (uniques.size() > 1) {
-            throw new IllegalStateException("More than one unique field found");
+        return ModelFields.firstUniqueFieldName(this.uniques());
+    }
+
+    protected @NotNull MongoCollection<M> collection() {
+        return this.model.collection();
+    }
+
+    /**
+     * Converts a value of the given field to its stored form, see {@link MongoMutableField#storedValue(Object)}.
+     * Names that are not model fields are passed through unchanged.
+     */
+    protected @Nullable Object storedValue(@NotNull String fieldName, @Nullable Object value) {
+        return ModelFields.storedValue(this.fields(), fieldName, value);
+    }
+
+    /**
+     * Converts a value of the given field to a key that equals the key of any value the server matches it with: the
+     * {@linkplain MongoMutableField#storedValue(Object) stored form} as BSON, with integral numbers of every width as
+     * {@link BsonInt64}. So {@code 5} finds a document whose {@code long} field holds {@code 5L}, and a {@link java.util.UUID}
+     * stored as a string matches the string it was queried with.
+     */
+    protected @NotNull BsonValue storedKey(@NotNull MongoMutableField field, @Nullable Object value) {
+        val stored = field.storedValue(value);
+        if (stored == null) {
+            return BsonNull.VALUE;
+        }
+        if (stored instanceof String string) {
+            return new BsonString(string);
+        }
+        if (stored instanceof Integer || stored instanceof Long || stored instanceof Short || stored instanceof Byte) {
+            return new BsonInt64(((Number) stored).longValue());
         }
 
-        val fieldName = uniques.get(0);
-        if (fieldName != null) {
-            return fieldName;
+        BsonValue bson;
+        if (stored instanceof BsonValue bsonValue) {
+            bson = bsonValue;
+        } else {
+            // The registry returns the codec of the value's own class.
+            @SuppressWarnings("unchecked") final Codec<Object> codec = (Codec<Object>) this.collection().getCodecRegistry().get(stored.getClass());
+            val document = new BsonDocument();
+            try (val writer = new BsonDocumentWriter(document)) {
+                writer.writeStartDocument();
+                writer.writeName("k");
+                codec.encode(writer, stored, EncoderContext.builder().build());
+                writer.writeEndDocument();
+            }
+            bson = document.get("k");
         }
-        throw new NullPointerException("No unique field found automatically");
+
+        if (bson.isInt32() || bson.isInt64()) {
+            return new BsonInt64(bson.asNumber().longValue());
+        }
+        if (bson.isDouble()) {
+            val number = bson.asDouble().getValue();
+            if (number == Math.rint(number) && Math.abs(number) < 0x1p63) {
+                return new BsonInt64((long) number);
+            }
+        }
+        return bson;
     }
 
-    protected @NotNull MongoCollection<M> collection() {
-        return this.model.collection();
+    /**
+     * Creates an equality filter on a field, encoding the value the way the field is stored.
+     */
+    protected @NotNull Bson eq(@NotNull String fieldName, @Nullable Object value) {
+        return ModelFields.eq(this.fields(), fieldName, value);
+    }
+
+    /**
+     * Creates an {@code $in} filter on a field, encoding the values the way the field is stored.
+     */
+    protected @NotNull Bson in(@NotNull String fieldName, @Nullable Object @NotNull ... values) {
+        return ModelFields.in(this.fields(), fieldName, values);
+    }
+
+    /**
+     * Creates the {@code $set} of a field to its value in {@code datum}. A {@code null} value of a field that
+     * {@linkplain MongoMutableField#omitNull() omits nulls} is {@code $unset} instead, so the document stays sparse.
+     */
+    protected @NotNull Bson set(@NotNull String fieldName, @NotNull MongoMutableField field, @NotNull M datum) {
+        return ModelFields.set(fieldName, field, datum);
+    }
+
+    /**
+     * Creates the {@code $setOnInsert} of a field to its value in {@code datum}, or {@code null} when the value is
+     * {@code null} and the field {@linkplain MongoMutableField#omitNull() omits nulls}.
+     */
+    protected @Nullable Bson setOnInsert(@NotNull String fieldName, @NotNull MongoMutableField field, @NotNull M datum) {
+        return ModelFields.setOnInsert(fieldName, field, datum);
+    }
+
+    /**
+     * Creates the {@code $set} of every field to its value in {@code datum}.
+     */
+    protected @NotNull Bson setAll(@NotNull M datum) {
+        return ModelFields.setAll(this.fields(), datum);
+    }
+
+    /**
+     * Drops the {@linkplain MongoModelValue#nearCache() near cache} entries of a write addressed by {@code value} of
+     * {@code fieldName}. Values of another field can not be mapped to cache keys and drop the whole cache.
+     */
+    protected void invalidate(@NotNull String fieldName, @Nullable Object value) {
+        val nearCache = this.model.nearCache();
+        if (nearCache != null) {
+            if (nearCache.fieldName().equals(fieldName)) {
+                nearCache.invalidate(value);
+            } else {
+                nearCache.invalidateAll();
+            }
+        }
+    }
+
+    /**
+     * Drops the near cache entries of a write addressed by any of {@code values}, see {@link #invalidate(String, Object)}.
+     */
+    protected void invalidate(@NotNull String fieldName, @NotNull Collection<?> values) {
+        val nearCache = this.model.nearCache();
+        if (nearCache != null) {
+            if (nearCache.fieldName().equals(fieldName)) {
+                values.forEach(nearCache::invalidate);
+            } else {
+                nearCache.invalidateAll();
+            }
+        }
+    }
+
+    /**
+     * Drops the near cache entry of the unique value of a written entity, which may differ from the value the write
+     * was addressed by and may have been cached as a miss.
+     */
+    protected void invalidateEntity(@NotNull M datum) {
+        val nearCache = this.model.nearCache();
+        if (nearCache != null) {
+            nearCache.invalidate(this.fields().get(nearCache.fieldName()).get(datum));
+        }
+    }
+
+    /**
+     * Drops the whole near cache after a write by an arbitrary filter.
+     */
+    protected void invalidateAll() {
+        val nearCache = this.model.nearCache();
+        if (nearCache != null) {
+            nearCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Sends {@code data} through {@link MongoCollection#bulkWrite} in batches of {@link BulkOptions#batchSize()}, mapping each
+     * item with {@code toWrite} right before its batch is sent.
+     * <p>
+     * Server write errors are collected per item instead of being thrown; an ordered write stops at the first item that
+     * reports one, which is the last item counted as {@link BulkResult#sent() sent}. Any other failure is thrown as is.
+     */
+    protected @NotNull BulkResult<M> bulkWrite(
+            @NotNull Collection<? extends M> data,
+            @NotNull BulkOptions options,
+            @NotNull Function<? super M, ? extends WriteModel<M>> toWrite
+    ) {
+        val writeOptions = new BulkWriteOptions().ordered(options.ordered());
+        val errors = new ArrayList<BulkItemError<M>>();
+        val capacity = Math.min(options.batchSize(), data.size());
+        val batch = new ArrayList<M>(capacity);
+        val requests = new ArrayList<WriteModel<M>>(capacity);
+
+        int sent = 0, inserted = 0, matched = 0, modified = 0, upserted = 0, deleted = 0;
+
+        val iterator = data.iterator();
+        while (iterator.hasNext()) {
+            batch.clear();
+            requests.clear();
+            while (iterator.hasNext() && batch.size() < options.batchSize()) {
+                final M datum = iterator.next();
+                batch.add(datum);
+                requests.add(toWrite.apply(datum));
+            }
+
+            BulkWriteResult result;
+            var processed = batch.size();
+            var failed = false;
+            try {
+                result = this.collection().bulkWrite(requests, writeOptions);
+            } catch (MongoBulkWriteException e) {
+                result = e.getWriteResult();
+                failed = true;
+                var firstError = batch.size();
+                for (val error : e.getWriteErrors()) {
+                    errors.add(new BulkItemError<>(sent + error.getIndex(), batch.get(error.getIndex()), error.getCode(), error.getMessage()));
+                    firstError = Math.min(firstError, error.getIndex());
+                }
+                if (options.ordered()) {
+                    // An ordered write stops at its first error; the items after it never reached the server
+                    processed = Math.min(batch.size(), firstError + 1);
+                }
+                if (e.getWriteConcernError() != null) {
+                    throw e;
+                }
+            }
+
+            sent += processed;
+            if (result.wasAcknowledged()) {
+                inserted += result.getInsertedCount();
+                matched += result.getMatchedCount();
+                modified += result.getModifiedCount();
+                upserted += result.getUpserts().size();
+                deleted += result.getDeletedCount();
+            }
+
+            if (failed && options.ordered()) {
+                break;
+            }
+        }
+
+        errors.sort(Comparator.comparingInt(BulkItemError::index));
+        return new BulkResult<>(sent, inserted, matched, modified, upserted, deleted, List.copyOf(errors));
+    }
+
+    /**
+     * Splits {@code values} into chunks of {@link ChunkOptions#batchSize()} keys and runs {@code query} with the
+     * {@link #in} filter of every chunk, on up to {@link ChunkOptions#parallelism()} workers. A single chunk runs on the
+     * calling thread.
+     *
+     * @param affected Counts the documents affected by a chunk, reported through {@code progress}.
+     * @return The result of every chunk, in the order of {@code values}.
+     */
+    protected <R> @NotNull List<R> inChunks(
+            @NotNull String fieldName,
+            @NotNull List<?> values,
+            @NotNull ChunkOptions options,
+            @NotNull Function<Bson, R> query,
+            @NotNull ToLongFunction<R> affected,
+            @Nullable ChunkProgress progress
+    ) {
+        val batchSize = options.batchSize();
+        val totalChunks = (values.size() + batchSize - 1) / batchSize;
+        var tracker = new Object() {
+            int completed;
+            long total;
+
+            synchronized void done(R result) {
+                this.completed++;
+                this.total += affected.applyAsLong(result);
+                if (progress != null) {
+                    progress.onChunk(this.completed, totalChunks, this.total);
+                }
+            }
+        };
+
+        if (totalChunks <= 1) {
+            val result = query.apply(this.in(fieldName, values.toArray()));
+            tracker.done(result);
+            return List.of(result);
+        }
+
+        try (val chunks = new ParallelChunks<R>(Math.min(options.parallelism(), totalChunks))) {
+            for (int from = 0; from < values.size(); from += batchSize) {
+                val chunk = values.subList(from, Math.min(from + batchSize, values.size())).toArray();
+                val submitted = chunks.submit(() -> {
+                    val result = query.apply(this.in(fieldName, chunk));
+                    tracker.done(result);
+                    return result;
+                });
+                if (!submitted) {
+                    break;
+                }
+            }
+            return chunks.results();
+        }
     }
 
     protected void validateFilterUniques(@NotNull Bson filter, List<String> uniques) throws NotFoundResult {
@@ -0,0 +1,153 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.operations;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Updates;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import net.clydo.mongodb.loader.classes.values.MongoMutableField;
+import org.bson.conversions.Bson;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The filters, updates and indexes built from the fields of a model, shared by the operations of every driver so that
+ * values are encoded the same way whichever one sends them.
+ */
+@UtilityClass
+public class ModelFields {
+    /**
+     * Returns the only unique field of a model.
+     *
+     * @throws IllegalStateException If the model has more than one unique field.
+     * @throws NullPointerException  If the model has no unique field.
+     */
+    public @NotNull String firstUniqueFieldName(@NotNull List<String> uniques) {
+        if (uniques.size() > 1) {
+            throw new IllegalStateException("More than one unique field found");
+        }
+        if (uniques.isEmpty()) {
+            throw new NullPointerException("No unique field found automatically");
+        }
+        return uniques.get(0);
+    }
+
+    /**
+     * Returns the value of {@code fieldName} in {@code datum}, which must be set.
+     *
+     * @throws NullPointerException If the field does not exist or its value is {@code null}.
+     */
+    public @NotNull Object fieldValue(@NotNull Map<String, MongoMutableField> fields, @NotNull Object datum, @NotNull String fieldName) {
+        val field = fields.get(fieldName);
+        if (field == null) {
+            throw new NullPointerException("No such field: " + fieldName);
+        }
+
+        val value = field.get(datum);
+        if (value == null) {
+            throw new NullPointerException(fieldName + (field.unique() ? " unique" : "") + " value is null");
+        }
+
+        return value;
+    }
+
+    /**
+     * Converts a value of the given field to its stored form, see {@link MongoMutableField#storedValue(Object)}.
+     * Names that are not model fields are passed through unchanged.
+     */
+    public @Nullable Object storedValue(@NotNull Map<String, MongoMutableField> fields, @NotNull String fieldName, @Nullable Object value) {
+        val field = fields.get(fieldName);
+        return field == null ? value : field.storedValue(value);
+    }
+
+    /**
+     * Creates an equality filter on a field, encoding the value the way the field is stored.
+     */
+    public @NotNull Bson eq(@NotNull Map<String, MongoMutableField> fields, @NotNull String fieldName, @Nullable Object value) {
+        return Filters.eq(fieldName, storedValue(fields, fieldName, value));
+    }
+
+    /**
+     * Creates an {@code $in} filter on a field, encoding the values the way the field is stored.
+     */
+    public @NotNull Bson in(@NotNull Map<String, MongoMutableField> fields, @NotNull String fieldName, @Nullable Object @NotNull [] values) {
+        val field = fields.get(fieldName);
+        if (field == null) {
+            return Filters.in(fieldName, values);
+        }
+
+        val storedValues = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            storedValues[i] = field.storedValue(values[i]);
+        }
+        return Filters.in(fieldName, storedValues);
+    }
+
+    /**
+     * Creates the {@code $set} of a field to its value in {@code datum}. A {@code null} value of a field that
+     * {@linkplain MongoMutableField#omitNull() omits nulls} is {@code $unset} instead, so the document stays sparse.
+     */
+    public @NotNull Bson set(@NotNull String fieldName, @NotNull MongoMutableField field, @NotNull Object datum) {
+        val value = field.get(datum);
+        if (value == null && field.omitNull()) {
+            return Updates.unset(fieldName);
+        }
+        return Updates.set(fieldName, field.storedValue(value));
+    }
+
+    /**
+     * Creates the {@code $setOnInsert} of a field to its value in {@code datum}, or {@code null} when the value is
+     * {@code null} and the field {@linkplain MongoMutableField#omitNull() omits nulls}.
+     */
+    public @Nullable Bson setOnInsert(@NotNull String fieldName, @NotNull MongoMutableField field, @NotNull Object datum) {
+        val value = field.get(datum);
+        if (value == null && field.omitNull()) {
+            return null;
+        }
+        return Updates.setOnInsert(fieldName, field.storedValue(value));
+    }
+
+    /**
+     * Creates the {@code $set} of every field to its value in {@code datum}.
+     */
+    public @NotNull Bson setAll(@NotNull Map<String, MongoMutableField> fields, @NotNull Object datum) {
+        val updates = new ArrayList<Bson>(fields.size());
+        fields.forEach((key, field) -> updates.add(set(key, field, datum)));
+        return Updates.combine(updates);
+    }
+
+    /**
+     * Returns the unique index of a {@code @MongoUnique} field, named {@code <model>_<field>_key}.
+     */
+    @Contract("_, _ -> new")
+    public @NotNull IndexModel uniqueIndex(@NotNull String modelName, @NotNull String fieldName) {
+        return new IndexModel(Indexes.ascending(fieldName), new IndexOptions().name(modelName + "_" + fieldName + "_key").unique(true));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.async;
+
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The default executor of {@link AsyncOperations}.
+ */
+@UtilityClass
+public class AsyncExecutors {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    /**
+     * A thread per task: virtual threads when the running JVM has them (Java 21+), daemon platform threads that are
+     * reused while idle otherwise. Every blocking call gets its own thread, so the connection pool of the driver is
+     * what bounds the concurrency.
+     */
+    public static @NotNull ExecutorService threadPerTask() {
+        return Holder.EXECUTOR;
+    }
+
+    private static @NotNull ExecutorService create() {
+        try {
+            val factory = MethodHandles.publicLookup().findStatic(
+                    Executors.class,
+                    "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class)
+            );
+            return (ExecutorService) factory.invokeExact();
+        } catch (Throwable e) {
+            // Older JVMs lack the factory; anything else it throws must not fail the initialization of the holder.
+            return Executors.newCachedThreadPool(runnable -> {
+                val thread = new Thread(runnable, "MongoHelper-async-" + THREADS.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static final class Holder {
+        private static final ExecutorService EXECUTOR = create();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.async;
+
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.operations.count.CountOperations;
+import net.clydo.mongodb.operations.create.CreateOperations;
+import net.clydo.mongodb.operations.delete.DeleteOperations;
+import net.clydo.mongodb.operations.find.FindOperations;
+import net.clydo.mongodb.operations.update.UpdateOperations;
+import net.clydo.mongodb.operations.upsert.UpsertOperations;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Runs the operations of a model on an executor and returns their results as {@link CompletableFuture}s, so that
+ * independent queries overlap instead of paying their round-trips one after another:
+ *
+ * <pre>{@code
+ * val user = model.async().find(find -> find.firstByUnique(id));
+ * val rank = model.async().count(count -> count.raw(Filters.gt("score", score)));
+ * CompletableFuture.allOf(user, rank).join();
+ * }</pre>
+ * <p>
+ * Each call runs the given operation of the blocking API as one task. Lazy results such as a {@code FindIterable} are
+ * not fetched by the task; materialize them inside it, for example with {@code many(filter).into(new ArrayList<>())}.
+ *
+ * @param <M> The type of the model.
+ */
+public final class AsyncOperations<M> {
+    private final MongoModelValue<M> model;
+    private final Executor executor;
+
+    /**
+     * @param model    The model whose operations to run.
+     * @param executor Runs every operation as one task.
+     */
+    public AsyncOperations(@NotNull MongoModelValue<M> model, @NotNull Executor executor) {
+        this.model = model;
+        this.executor = executor;
+    }
+
+    public <R> @NotNull CompletableFuture<R> count(@NotNull Function<? super CountOperations<M>, ? extends R> operation) {
+        return this.supply(operation, this.model.count());
+    }
+
+    public <R> @NotNull CompletableFuture<R> create(@NotNull Function<? super CreateOperations<M>, ? extends R> operation) {
+        return this.supply(operation, this.model.create());
+    }
+
+    public <R> @NotNull CompletableFuture<R> delete(@NotNull Function<? super DeleteOperations<M>, ? extends R> operation) {
+        return this.supply(operation, this.model.delete());
+    }
+
+    public <R> @NotNull CompletableFuture<R> find(@NotNull Function<? super FindOperations<M>, ? extends R> operation) {
+        return this.supply(operation, this.model.find());
+    }
+
+    public <R> @NotNull CompletableFuture<R> update(@NotNull Function<? super UpdateOperations<M>, ? extends R> operation) {
+        return this.supply(operation, this.model.update());
+    }
+
+    public <R> @NotNull CompletableFuture<R> upsert(@NotNull Function<? super UpsertOperations<M>, ? extends R> operation) {
+        return this.supply(operation, this.model.upsert());
+    }
+
+    /**
+     * Runs any combination of operations of the model as one task, for example a read followed by a write.
+     */
+    public <R> @NotNull CompletableFuture<R> run(@NotNull Function<? super MongoModelValue<M>, ? extends R> operation) {
+        return this.supply(operation, this.model);
+    }
+
+    public @NotNull Executor executor() {
+        return this.executor;
+    }
+
+    private <O, R> @NotNull CompletableFuture<R> supply(@NotNull Function<? super O, ? extends R> operation, @NotNull O operations) {
+        return CompletableFuture.supplyAsync(() -> operation.apply(operations), this.executor);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.operations.bulk;
+
+/**
+ * A write error reported by the server for one item of a bulk write.
+ *
+ * @param index   The position of the item in the collection passed to the bulk operation.
+ * @param item    The item itself.
+ * @param code    The server error code.
+ * @param message The server error message.
+ */
+public record BulkItemError<M>(int index, M item, int code, String message) {
+}
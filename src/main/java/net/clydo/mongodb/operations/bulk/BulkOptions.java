@@ -0,0 +1,61 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.operations.bulk;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Settings of a bulk write.
+ *
+ * @param ordered   Whether the server stops at the first failing item. Later batches are not sent after a failure.
+ * @param batchSize The maximum number of items sent in one {@code bulkWrite} call.
+ */
+public record BulkOptions(boolean ordered, int batchSize) {
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    public BulkOptions {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+    }
+
+    /**
+     * Ordered writes in batches of {@link #DEFAULT_BATCH_SIZE}.
+     */
+    @Contract(" -> new")
+    public static @NotNull BulkOptions defaults() {
+        return new BulkOptions(true, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Unordered writes in batches of {@link #DEFAULT_BATCH_SIZE}.
+     */
+    @Contract(" -> new")
+    public static @NotNull BulkOptions unordered() {
+        return new BulkOptions(false, DEFAULT_BATCH_SIZE);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull BulkOptions withBatchSize(int batchSize) {
+        return new BulkOptions(this.ordered, batchSize);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.operations.bulk;
+
+import java.util.List;
+
+/**
+ * The aggregated result of a bulk write over all of its batches.
+ *
+ * @param sent     The number of items the server processed, up to and including the failing item when an ordered write stopped early.
+ * @param inserted The number of inserted documents.
+ * @param matched  The number of documents matched by updates or replacements.
+ * @param modified The number of documents actually modified.
+ * @param upserted The number of documents inserted by upserts.
+ * @param deleted  The number of deleted documents.
+ * @param errors   The per-item write errors, in input order.
+ */
+public record BulkResult<M>(
+        int sent,
+        int inserted,
+        int matched,
+        int modified,
+        int upserted,
+        int deleted,
+        List<BulkItemError<M>> errors
+) {
+    public boolean successful() {
+        return this.errors.isEmpty();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.operations.bulk;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Settings of a chunked, parallel write.
+ *
+ * @param batchSize     The maximum number of items (documents or keys) in one chunk.
+ * @param maxBatchBytes The maximum encoded size of one chunk of documents; a single larger document still gets a chunk
+ *                      of its own. Key chunks are only bounded by {@code batchSize}.
+ * @param parallelism   The number of chunks in flight at once, each on its own connection.
+ */
+public record ChunkOptions(int batchSize, int maxBatchBytes, int parallelism) {
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    /**
+     * The maximum BSON document size of the server, well below its 48 MB message limit.
+     */
+    public static final int DEFAULT_MAX_BATCH_BYTES = 16 * 1024 * 1024;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    public ChunkOptions {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        if (maxBatchBytes <= 0) {
+            throw new IllegalArgumentException("maxBatchBytes must be positive");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+    }
+
+    @Contract(" -> new")
+    public static @NotNull ChunkOptions defaults() {
+        return new ChunkOptions(DEFAULT_BATCH_SIZE, DEFAULT_MAX_BATCH_BYTES, DEFAULT_PARALLELISM);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull ChunkOptions withBatchSize(int batchSize) {
+        return new ChunkOptions(batchSize, this.maxBatchBytes, this.parallelism);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull ChunkOptions withParallelism(int parallelism) {
+        return new ChunkOptions(this.batchSize, this.maxBatchBytes, parallelism);
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.operations.bulk;
+
+/**
+ * Receives progress of a chunked operation. Called from worker threads, once per finished chunk and never concurrently.
+ */
+@FunctionalInterface
+public interface ChunkProgress {
+    /**
+     * @param completedChunks The number of chunks finished so far.
+     * @param totalChunks     The number of chunks of the whole operation.
+     * @param affected        The number of documents affected (deleted, found, ...) so far.
+     */
+    void onChunk(int completedChunks, int totalChunks, long affected);
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.operations.bulk;
+
+import lombok.val;
+import net.clydo.mongodb.operations.async.AsyncExecutors;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs chunks of work on a shared executor, at most {@code parallelism} at a time, while the caller keeps producing them.
+ * <p>
+ * {@link #submit} blocks while {@code parallelism} chunks are in flight, so the producer never holds more than that many
+ * chunks in memory. After a chunk fails no further chunks are accepted and {@link #results()} throws the failure.
+ * {@link #close()} waits for the chunks in flight, so none of them outlives the call that started it.
+ *
+ * @param <R> The result of a chunk.
+ */
+public final class ParallelChunks<R> implements AutoCloseable {
+    private final Executor executor;
+    private final int parallelism;
+    private final Semaphore permits;
+    private final List<Future<R>> futures = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Runs the chunks on {@link AsyncExecutors#threadPerTask()}.
+     */
+    public ParallelChunks(int parallelism) {
+        this(AsyncExecutors.threadPerTask(), parallelism);
+    }
+
+    public ParallelChunks(@NotNull Executor executor, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.permits = new Semaphore(parallelism);
+    }
+
+    /**
+     * Submits a chunk, waiting for a free worker first.
+     *
+     * @return {@code false} when an earlier chunk failed and {@code chunk} was not submitted.
+     */
+    public boolean submit(@NotNull Callable<R> chunk) {
+        try {
+            this.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a free worker", e);
+        }
+
+        if (this.failure.get() != null) {
+            this.permits.release();
+            return false;
+        }
+
+        val task = new FutureTask<R>(() -> {
+            try {
+                return chunk.call();
+            } catch (Throwable e) {
+                this.failure.compareAndSet(null, e);
+                throw e;
+            } finally {
+                this.permits.release();
+            }
+        });
+        try {
+            this.executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            this.permits.release();
+            throw e;
+        }
+        this.futures.add(task);
+        return true;
+    }
+
+    /**
+     * Waits for every submitted chunk and returns their results in submission order.
+     */
+    public @NotNull List<R> results() {
+        val results = new ArrayList<R>(this.futures.size());
+        for (Future<R> future : this.futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for chunks", e);
+            } catch (ExecutionException ignored) {
+                // Rethrown below once every chunk has settled.
+            }
+        }
+
+        val thrown = this.failure.get();
+        if (thrown instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (thrown instanceof Error error) {
+            throw error;
+        }
+        if (thrown != null) {
+            throw new IllegalStateException(thrown);
+        }
+        return results;
+    }
+
+    /**
+     * Waits until no chunk is in flight; every chunk returns its permit when it settles.
+     */
+    @Override
+    public void close() {
+        this.permits.acquireUninterruptibly(this.parallelism);
+        this.permits.release(this.parallelism);
+    }
+}
@@ -20,7 +20,6 @@
 
 package net.clydo.mongodb.operations.count;
 
-import com.mongodb.client.model.Filters;
 import net.clydo.mongodb.loader.classes.values.MongoModelValue;
 import net.clydo.mongodb.operations.AbstractOperation;
 import org.bson.conversions.Bson;
@@ -63,7 +62,7 @@ public class CountOperations<M> extends AbstractOperation<M> implements ICountOp
      */
     @Override
     public long raw(@NotNull String fieldName, @NotNull Object value) {
-        return this.raw(Filters.eq(fieldName, value));
+        return this.raw(this.eq(fieldName, value));
     }
 
     @Override
@@ -22,8 +22,33 @@ package net.clydo.mongodb.operations.create;
 
 import com.mongodb.client.result.InsertManyResult;
 import net.clydo.mongodb.operations.IOperations;
+import net.clydo.mongodb.operations.bulk.BulkResult;
+import net.clydo.mongodb.operations.bulk.ChunkOptions;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 public interface CreateManyOperations<M> extends IOperations<M> {
     @NotNull InsertManyResult many(@NotNull M... data);
+
+    @NotNull List<BulkResult<M>> stream(@NotNull Iterable<? extends M> data, @NotNull ChunkOptions options);
+
+    default @NotNull List<BulkResult<M>> stream(@NotNull Iterable<? extends M> data) {
+        return this.stream(data, ChunkOptions.defaults());
+    }
+
+    /**
+     * Inserts the documents of {@code data} like {@link #stream(Iterable, ChunkOptions)} and closes it afterwards.
+     */
+    @SuppressWarnings("unchecked")
+    default @NotNull List<BulkResult<M>> stream(@NotNull Stream<? extends M> data, @NotNull ChunkOptions options) {
+        try (data) {
+            return this.stream(((Stream<M>) data)::iterator, options);
+        }
+    }
+
+    default @NotNull List<BulkResult<M>> stream(@NotNull Stream<? extends M> data) {
+        return this.stream(data, ChunkOptions.defaults());
+    }
 }
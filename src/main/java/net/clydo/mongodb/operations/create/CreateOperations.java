@@ -20,12 +20,23 @@
 
 package net.clydo.mongodb.operations.create;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
 import com.mongodb.client.result.InsertManyResult;
 import com.mongodb.client.result.InsertOneResult;
+import lombok.val;
 import net.clydo.mongodb.loader.classes.values.MongoModelValue;
 import net.clydo.mongodb.operations.AbstractOperation;
+import net.clydo.mongodb.operations.bulk.BulkItemError;
+import net.clydo.mongodb.operations.bulk.BulkResult;
+import net.clydo.mongodb.operations.bulk.ChunkOptions;
+import net.clydo.mongodb.operations.bulk.ParallelChunks;
+import org.bson.RawBsonDocument;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -53,7 +64,10 @@ public class CreateOperations<M> extends AbstractOperation<M> implements CreateO
      */
     @Override
     public @NotNull InsertOneResult one(@NotNull M datum) {
-        return this.collection().insertOne(datum);
+        val result = this.collection().insertOne(datum);
+        this.invalidateEntity(datum);
+        this.track(datum);
+        return result;
     }
 
     /**
@@ -65,6 +79,105 @@ public class CreateOperations<M> extends AbstractOperation<M> implements CreateO
     @SafeVarargs
     @Override
     public final @NotNull InsertManyResult many(@NotNull M... data) {
-        return this.collection().insertMany(List.of(data));
+        val result = this.collection().insertMany(List.of(data));
+        for (M datum : data) {
+            this.invalidateEntity(datum);
+            this.track(datum);
+        }
+        return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Snapshots an inserted entity when the model tracks changes, so {@code update().changed(datum)} can diff against it.
+     */
+    private void track(@NotNull M datum) {
+        val tracker = this.model.changeTracker();
+        if (tracker != null) {
+            tracker.capture(datum);
+        }
+    }
+
+    /**
+     * Inserts documents as they are produced by {@code data}, without holding all of them in memory.
+     * <p>
+     * Each datum is encoded once; documents are grouped into chunks of at most {@link ChunkOptions#batchSize()} items and
+     * {@link ChunkOptions#maxBatchBytes()} encoded bytes, and every chunk is sent as an unordered {@code insertMany} on one
+     * of {@link ChunkOptions#parallelism()} workers. Reading {@code data} pauses while all workers are busy.
+     * <p>
+     * Write errors such as duplicate keys are reported in the result of their chunk; any other failure stops reading
+     * {@code data} and is thrown once the chunks in flight have finished. Every inserted datum is snapshotted like in
+     * {@link #one(Object)} when the model tracks changes.
+     *
+     * @param data    The documents to insert.
+     * @param options The chunk limits and the number of parallel workers.
+     * @return The result of every chunk, in the order of {@code data}.
+     */
+    @Override
+    public @NotNull List<BulkResult<M>> stream(@NotNull Iterable<? extends M> data, @NotNull ChunkOptions options) {
+        val codec = this.collection().getCodecRegistry().get(this.type());
+        val collection = this.collection().withDocumentClass(RawBsonDocument.class);
+
+        try (val chunks = new ParallelChunks<BulkResult<M>>(options.parallelism())) {
+            var items = new ArrayList<M>();
+            var documents = new ArrayList<RawBsonDocument>();
+            var bytes = 0L;
+            var offset = 0;
+
+            for (M datum : data) {
+                val document = new RawBsonDocument(datum, codec);
+                val size = document.getByteBuffer().remaining();
+
+                if (!items.isEmpty() && (items.size() >= options.batchSize() || bytes + size > options.maxBatchBytes())) {
+                    if (!this.submitChunk(chunks, collection, offset, items, documents)) {
+                        break;
+                    }
+                    offset += items.size();
+                    items = new ArrayList<>();
+                    documents = new ArrayList<>();
+                    bytes = 0L;
+                }
+
+                items.add(datum);
+                documents.add(document);
+                bytes += size;
+            }
+
+            if (!items.isEmpty()) {
+                this.submitChunk(chunks, collection, offset, items, documents);
+            }
+
+            return chunks.results();
+        }
+    }
+
+    private boolean submitChunk(
+            @NotNull ParallelChunks<BulkResult<M>> chunks,
+            @NotNull MongoCollection<RawBsonDocument> collection,
+            int offset,
+            @NotNull List<M> items,
+            @NotNull List<RawBsonDocument> documents
+    ) {
+        return chunks.submit(() -> {
+            try {
+                collection.insertMany(documents, new InsertManyOptions().ordered(false));
+                items.forEach(this::track);
+                return new BulkResult<>(items.size(), items.size(), 0, 0, 0, 0, List.of());
+            } catch (MongoBulkWriteException e) {
+                val failed = new HashSet<Integer>();
+                val errors = new ArrayList<BulkItemError<M>>();
+                for (val error : e.getWriteErrors()) {
+                    failed.add(error.getIndex());
+                    errors.add(new BulkItemError<>(offset + error.getIndex(), items.get(error.getIndex()), error.getCode(), error.getMessage()));
+                }
+                for (int i = 0; i < items.size(); i++) {
+                    if (!failed.contains(i)) {
+                        this.track(items.get(i));
+                    }
+                }
+                return new BulkResult<>(items.size(), e.getWriteResult().getInsertedCount(), 0, 0, 0, 0, List.copyOf(errors));
+            } finally {
+                items.forEach(this::invalidateEntity);
+            }
+        });
+    }
+}
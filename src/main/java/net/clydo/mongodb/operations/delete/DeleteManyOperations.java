@@ -22,8 +22,13 @@ package net.clydo.mongodb.operations.delete;
 
 import com.mongodb.client.result.DeleteResult;
 import net.clydo.mongodb.operations.IOperations;
+import net.clydo.mongodb.operations.bulk.ChunkOptions;
+import net.clydo.mongodb.operations.bulk.ChunkProgress;
 import org.bson.conversions.Bson;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
 
 public interface DeleteManyOperations<M> extends IOperations<M> {
     @NotNull DeleteResult many(@NotNull Bson filter);
@@ -35,4 +40,8 @@ public interface DeleteManyOperations<M> extends IOperations<M> {
     @NotNull DeleteResult uniques(@NotNull Object... uniqueValues);
 
     @NotNull DeleteResult many(@NotNull M... values);
+
+    @NotNull DeleteResult many(@NotNull String fieldName, @NotNull Collection<?> values, @NotNull ChunkOptions options, @Nullable ChunkProgress progress);
+
+    @NotNull DeleteResult uniques(@NotNull Collection<?> uniqueValues, @NotNull ChunkOptions options, @Nullable ChunkProgress progress);
 }
@@ -20,16 +20,22 @@
 
 package net.clydo.mongodb.operations.delete;
 
-import com.mongodb.client.model.Filters;
 import com.mongodb.client.result.DeleteResult;
 import lombok.val;
 import net.clydo.mongodb.loader.classes.values.MongoModelValue;
 import net.clydo.mongodb.operations.AbstractOperation;
+import net.clydo.mongodb.operations.bulk.ChunkOptions;
+import net.clydo.mongodb.operations.bulk.ChunkProgress;
 import org.bson.BsonDocument;
 import org.bson.conversions.Bson;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Provides operations for deleting documents from a MongoDB collection.
  * This class extends {@link AbstractOperation} and implements {@link DeleteOneOperations} and {@link DeleteManyOperations}.
@@ -55,7 +61,11 @@ public class DeleteOperations<M> extends AbstractOperation<M> implements DeleteO
      */
     @Override
     public @NotNull DeleteResult one(@NotNull Bson filter) {
-        return this.collection().deleteOne(filter);
+        try {
+            return this.collection().deleteOne(filter);
+        } finally {
+            this.invalidateAll();
+        }
     }
 
     /**
@@ -67,7 +77,11 @@ public class DeleteOperations<M> extends AbstractOperation<M> implements DeleteO
      */
     @Override
     public @NotNull DeleteResult one(@NotNull String fieldName, @Nullable Object value) {
-        return this.one(Filters.eq(fieldName, value));
+        try {
+            return this.collection().deleteOne(this.eq(fieldName, value));
+        } finally {
+            this.invalidate(fieldName, value);
+        }
     }
 
     /**
@@ -103,7 +117,11 @@ public class DeleteOperations<M> extends AbstractOperation<M> implements DeleteO
      */
     @Override
     public @NotNull DeleteResult many(@NotNull Bson filter) {
-        return this.collection().deleteMany(filter);
+        try {
+            return this.collection().deleteMany(filter);
+        } finally {
+            this.invalidateAll();
+        }
     }
 
     /**
@@ -125,7 +143,49 @@ public class DeleteOperations<M> extends AbstractOperation<M> implements DeleteO
      */
     @Override
     public @NotNull DeleteResult many(@NotNull String fieldName, @NotNull Object... uniqueValues) {
-        return this.many(Filters.in(fieldName, uniqueValues));
+        try {
+            return this.collection().deleteMany(this.in(fieldName, uniqueValues));
+        } finally {
+            this.invalidate(fieldName, Arrays.asList(uniqueValues));
+        }
+    }
+
+    /**
+     * Deletes multiple documents from the collection where the specified field matches any of the given values.
+     * Unlike {@link #many(String, Object...)}, which sends one {@code deleteMany}, the values are split into {@code $in}
+     * filters of {@link ChunkOptions#batchSize()} keys that run concurrently, which keeps each filter small for huge key
+     * sets. The chunks are separate commands, so a failure can leave earlier chunks deleted.
+     *
+     * @param fieldName The name of the field to filter on.
+     * @param values    The values to match in the field.
+     * @param options   The number of keys per chunk and the number of chunks deleted at once.
+     * @param progress  Notified after every chunk, or {@code null}.
+     * @return The merged result of all chunks.
+     */
+    @Override
+    public @NotNull DeleteResult many(@NotNull String fieldName, @NotNull Collection<?> values, @NotNull ChunkOptions options, @Nullable ChunkProgress progress) {
+        final List<DeleteResult> results;
+        try {
+            results = this.inChunks(
+                    fieldName,
+                    new ArrayList<>(values),
+                    options,
+                    filter -> this.collection().deleteMany(filter),
+                    result -> result.wasAcknowledged() ? result.getDeletedCount() : 0L,
+                    progress
+            );
+        } finally {
+            this.invalidate(fieldName, values);
+        }
+
+        var deleted = 0L;
+        for (DeleteResult result : results) {
+            if (!result.wasAcknowledged()) {
+                return DeleteResult.unacknowledged();
+            }
+            deleted += result.getDeletedCount();
+        }
+        return DeleteResult.acknowledged(deleted);
     }
 
     /**
@@ -139,6 +199,20 @@ public class DeleteOperations<M> extends AbstractOperation<M> implements DeleteO
         return this.many(this.firstUniqueFieldName(), uniqueValues);
     }
 
+    /**
+     * Deletes multiple documents from the collection where the value of the unique field matches any of the given values,
+     * in concurrent chunks, see {@link #many(String, Collection, ChunkOptions, ChunkProgress)}.
+     *
+     * @param uniqueValues The values to match in the unique field.
+     * @param options      The number of keys per chunk and the number of chunks deleted at once.
+     * @param progress     Notified after every chunk, or {@code null}.
+     * @return The merged result of all chunks.
+     */
+    @Override
+    public @NotNull DeleteResult uniques(@NotNull Collection<?> uniqueValues, @NotNull ChunkOptions options, @Nullable ChunkProgress progress) {
+        return this.many(this.firstUniqueFieldName(), uniqueValues, options, progress);
+    }
+
     /**
      * Deletes multiple documents from the collection where the value of the unique field matches the values in the provided models.
      *
@@ -22,14 +22,47 @@ package net.clydo.mongodb.operations.find;
 
 import com.mongodb.client.FindIterable;
 import net.clydo.mongodb.operations.IOperations;
+import net.clydo.mongodb.operations.bulk.ChunkOptions;
+import net.clydo.mongodb.operations.bulk.ChunkProgress;
+import net.clydo.mongodb.operations.scan.ScanOptions;
+import net.clydo.mongodb.operations.scan.ScanResult;
 import org.bson.conversions.Bson;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 public interface FindManyOperations<M> extends IOperations<M> {
     @NotNull FindIterable<M> many(@NotNull Bson filter);
 
     @NotNull FindIterable<M> many();
 
     @NotNull FindIterable<M> many(@NotNull String fieldName, @Nullable Object value);
+
+    @NotNull FindIterable<M> many(@NotNull Bson filter, @NotNull String @NotNull ... fields);
+
+    @NotNull Stream<M> stream(@NotNull Bson filter, @NotNull StreamOptions options);
+
+    default @NotNull Stream<M> stream(@NotNull Bson filter) {
+        return this.stream(filter, StreamOptions.defaults());
+    }
+
+    @NotNull ScanResult parallelScan(@NotNull Bson filter, @NotNull ScanOptions options, @NotNull Consumer<? super M> consumer);
+
+    default @NotNull ScanResult parallelScan(@NotNull Bson filter, int partitions, @NotNull Consumer<? super M> consumer) {
+        return this.parallelScan(filter, ScanOptions.of(partitions), consumer);
+    }
+
+    @NotNull Page<M> page(@NotNull Bson filter, @Nullable String after, int pageSize);
+
+    @NotNull Page<M> page(@NotNull Bson filter, @Nullable String after, int pageSize, @NotNull String sortField);
+
+    @NotNull List<M> manyIn(@NotNull String fieldName, @NotNull Collection<?> values, @NotNull ChunkOptions options, @Nullable ChunkProgress progress);
+
+    default @NotNull List<M> manyIn(@NotNull String fieldName, @NotNull Collection<?> values) {
+        return this.manyIn(fieldName, values, ChunkOptions.defaults(), null);
+    }
 }
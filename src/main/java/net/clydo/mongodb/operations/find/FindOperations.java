@@ -22,15 +22,41 @@ package net.clydo.mongodb.operations.find;
 
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
 import lombok.val;
+import net.clydo.mongodb.annotations.MongoModel;
 import net.clydo.mongodb.error.NotFoundResult;
 import net.clydo.mongodb.loader.classes.values.MongoModelValue;
 import net.clydo.mongodb.operations.AbstractOperation;
+import net.clydo.mongodb.operations.bulk.ChunkOptions;
+import net.clydo.mongodb.operations.bulk.ChunkProgress;
+import net.clydo.mongodb.operations.scan.PartitionedScan;
+import net.clydo.mongodb.operations.scan.ScanOptions;
+import net.clydo.mongodb.operations.scan.ScanResult;
+import net.clydo.mongodb.util.ReflectionUtil;
+import org.bson.BSONException;
 import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
 import org.bson.conversions.Bson;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 /**
  * Provides operations for finding documents in a MongoDB collection.
  * This class extends {@link AbstractOperation} and implements {@link FindFirstOperations}, {@link FindUniqueOperations}, and {@link FindManyOperations}.
@@ -38,6 +64,8 @@ import org.jetbrains.annotations.Nullable;
  * @param <M> The type of the model for which find operations are performed.
  */
 public class FindOperations<M> extends AbstractOperation<M> implements FindFirstOperations<M>, FindUniqueOperations<M>, FindManyOperations<M> {
+    private final int batchSize;
+    private volatile @Nullable UniqueBatcher<M> batcher;
 
     /**
      * Constructs a new {@link FindOperations} instance.
@@ -46,6 +74,9 @@ public class FindOperations<M> extends AbstractOperation<M> implements FindFirst
      */
     public FindOperations(MongoModelValue<M> model) {
         super(model);
+
+        val mongoModel = ReflectionUtil.getAnnotation(model.type(), MongoModel.class);
+        this.batchSize = mongoModel == null ? 0 : mongoModel.batchSize();
     }
 
     /**
@@ -78,18 +109,90 @@ public class FindOperations<M> extends AbstractOperation<M> implements FindFirst
      */
     @Override
     public @Nullable M one(@NotNull String fieldName, @Nullable Object value) {
-        return this.one(Filters.eq(fieldName, value));
+        return this.one(this.eq(fieldName, value));
     }
 
     /**
      * Finds the first document in the collection where the value of the unique field matches the given value.
+     * While {@linkplain #batching batching} is enabled, concurrent calls are coalesced into shared queries; with a
+     * {@linkplain MongoModelValue#enableNearCache near cache}, cached documents and misses are answered without a query.
      *
      * @param uniqueValue The value to match in the unique field.
      * @return The first document that matches the unique value, or {@code null} if no document matches.
      */
     @Override
     public @Nullable M firstByUnique(@NotNull Object uniqueValue) {
-        return this.one(this.firstUniqueFieldName(), uniqueValue);
+        val nearCache = this.model.nearCache();
+        if (nearCache != null) {
+            return nearCache.get(uniqueValue, this::loadByUnique);
+        }
+        return this.loadByUnique(uniqueValue);
+    }
+
+    private @Nullable M loadByUnique(@NotNull Object uniqueValue) {
+        val batcher = this.batcher;
+        if (batcher == null) {
+            return this.one(this.firstUniqueFieldName(), uniqueValue);
+        }
+
+        try {
+            return batcher.load(uniqueValue).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the first document in the collection where the value of the unique field matches the given value, without
+     * blocking when {@linkplain #batching batching} is enabled.
+     *
+     * @param uniqueValue The value to match in the unique field.
+     * @return A future of the document, completing with {@code null} if no document matches.
+     */
+    public @NotNull CompletableFuture<M> firstByUniqueAsync(@NotNull Object uniqueValue) {
+        val nearCache = this.model.nearCache();
+        if (nearCache != null) {
+            return nearCache.getAsync(uniqueValue, this::loadByUniqueAsync);
+        }
+        return this.loadByUniqueAsync(uniqueValue);
+    }
+
+    private @NotNull CompletableFuture<M> loadByUniqueAsync(@NotNull Object uniqueValue) {
+        val batcher = this.batcher;
+        if (batcher == null) {
+            return CompletableFuture.completedFuture(this.one(this.firstUniqueFieldName(), uniqueValue));
+        }
+        return batcher.load(uniqueValue);
+    }
+
+    /**
+     * Routes {@link #firstByUnique} and {@link #firstByUniqueAsync} through a {@link UniqueBatcher}, replacing the current one.
+     *
+     * @param options The window, batch size and threads of the batcher.
+     * @return The batcher, for its {@link UniqueBatcher#metrics() metrics}.
+     */
+    public @NotNull UniqueBatcher<M> batching(@NotNull UniqueBatchOptions options) {
+        val batcher = new UniqueBatcher<>(this, options);
+        val previous = this.batcher;
+        this.batcher = batcher;
+        if (previous != null) {
+            previous.close();
+        }
+        return batcher;
+    }
+
+    /**
+     * Stops coalescing unique lookups; lookups already waiting in a batch still complete.
+     */
+    public void disableBatching() {
+        val previous = this.batcher;
+        this.batcher = null;
+        if (previous != null) {
+            previous.close();
+        }
     }
 
     /**
@@ -130,18 +233,24 @@ public class FindOperations<M> extends AbstractOperation<M> implements FindFirst
      */
     @Override
     public @Nullable M unique(@NotNull String fieldName, @Nullable Object value) {
-        return this.unique(Filters.eq(fieldName, value));
+        return this.unique(this.eq(fieldName, value));
     }
 
     /**
-     * Finds a unique document in the collection where the value of the unique field matches the given value.
+     * Finds a unique document in the collection where the value of the unique field matches the given value, through
+     * the {@linkplain MongoModelValue#enableNearCache near cache} when there is one.
      *
      * @param uniqueValue The value to match in the unique field.
      * @return The unique document that matches the unique value, or {@code null} if no document matches.
      */
     @Override
     public @Nullable M uniqueByUnique(@NotNull Object uniqueValue) {
-        return this.unique(this.firstUniqueFieldName(), uniqueValue);
+        val fieldName = this.firstUniqueFieldName();
+        val nearCache = this.model.nearCache();
+        if (nearCache != null) {
+            return nearCache.get(uniqueValue, value -> this.unique(fieldName, value));
+        }
+        return this.unique(fieldName, uniqueValue);
     }
 
     /**
@@ -161,14 +270,37 @@ public class FindOperations<M> extends AbstractOperation<M> implements FindFirst
     }
 
     /**
-     * Finds multiple documents in the collection that match the specified filter.
+     * Finds multiple documents in the collection that match the specified filter, in batches of the
+     * {@linkplain MongoModel#batchSize() model batch size}.
      *
      * @param filter The filter to apply when finding the documents.
      * @return An iterable of documents that match the filter.
      */
     @Override
     public @NotNull FindIterable<M> many(@NotNull Bson filter) {
-        return this.collection().find(filter);
+        val iterable = this.collection().find(filter);
+        return this.batchSize > 0 ? iterable.batchSize(this.batchSize) : iterable;
+    }
+
+    /**
+     * Streams the documents that match the specified filter while the next cursor batches are fetched in the background,
+     * so the round trip of each {@code getMore} overlaps with processing the current batch. At most
+     * {@link StreamOptions#bufferedBatches()} fetched batches wait in memory; fetching pauses while they are full.
+     * <p>
+     * The stream holds a server cursor and a fetching task until it is consumed or closed; close it, for example
+     * with try-with-resources, when it may be abandoned early.
+     *
+     * @param filter  The filter to apply when finding the documents.
+     * @param options The batch size and the number of batches fetched ahead.
+     * @return A sequential stream of the matching documents.
+     */
+    @Override
+    public @NotNull Stream<M> stream(@NotNull Bson filter, @NotNull StreamOptions options) {
+        val iterable = this.many(filter);
+        if (options.batchSize() > 0) {
+            iterable.batchSize(options.batchSize());
+        }
+        return PrefetchingCursor.stream(iterable, options.bufferedBatches());
     }
 
     /**
@@ -190,6 +322,226 @@ public class FindOperations<M> extends AbstractOperation<M> implements FindFirst
      */
     @Override
     public @NotNull FindIterable<M> many(@NotNull String fieldName, @Nullable Object value) {
-        return this.many(Filters.eq(fieldName, value));
+        return this.many(this.eq(fieldName, value));
+    }
+
+    /**
+     * Finds multiple documents in the collection that match the specified filter, fetching only the given fields.
+     * The projection is applied on the server, so unrequested fields are neither transferred nor decoded and keep
+     * their default values in the returned models. {@code _id} is only fetched when it is requested.
+     *
+     * @param filter The filter to apply when finding the documents.
+     * @param fields The names of the fields to fetch.
+     * @return An iterable of partially populated documents that match the filter.
+     * @throws IllegalArgumentException If a field is not part of the model.
+     */
+    @Override
+    public @NotNull FindIterable<M> many(@NotNull Bson filter, @NotNull String @NotNull ... fields) {
+        return this.many(filter).projection(this.projection(fields));
+    }
+
+    /**
+     * Hands every document that matches the specified filter to {@code consumer}, scanning {@code _id} ranges of the
+     * collection on several threads at once, see {@link PartitionedScan}.
+     *
+     * @param filter   The filter to apply when finding the documents.
+     * @param options  The partitioning, parallelism and checkpoints of the scan.
+     * @param consumer Called from the worker threads, concurrently and in no overall order.
+     * @return The statistics of the scan.
+     */
+    @Override
+    public @NotNull ScanResult parallelScan(@NotNull Bson filter, @NotNull ScanOptions options, @NotNull Consumer<? super M> consumer) {
+        return new PartitionedScan<>(this.collection(), options, this.batchSize).run(filter, consumer);
+    }
+
+    /**
+     * Returns a page of the documents that match the specified filter, ordered by {@code _id} when the model maps it and
+     * by its first unique field otherwise, see {@link #page(Bson, String, int, String)}.
+     */
+    @Override
+    public @NotNull Page<M> page(@NotNull Bson filter, @Nullable String after, int pageSize) {
+        val sortField = this.fields().containsKey("_id") ? "_id" : this.firstUniqueFieldName();
+        return this.page(filter, after, pageSize, sortField);
+    }
+
+    /**
+     * Returns a page of the documents that match the specified filter, in ascending order of {@code sortField}.
+     * <p>
+     * Pages are keyset-based: instead of skipping the previous pages, the query continues after the sort key of the
+     * last document of the previous page, carried in the {@code next} token. Through the index of the sort field every
+     * page costs the same however deep it is, and documents inserted or deleted meanwhile do not shift later pages.
+     * Only the sort key of the last document is read to build the token. The sort field must be set on every document.
+     *
+     * @param filter    The filter to apply when finding the documents.
+     * @param after     The {@link Page#next() next} token of the previous page, or {@code null} for the first page.
+     * @param pageSize  The maximum number of documents in the page.
+     * @param sortField {@code _id} or a unique field of the model, so that sort keys never repeat.
+     * @return The page and the token of the following one.
+     * @throws IllegalArgumentException If the sort field is not unique or the token belongs to another sort field.
+     */
+    @Override
+    public @NotNull Page<M> page(@NotNull Bson filter, @Nullable String after, int pageSize, @NotNull String sortField) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        if (!"_id".equals(sortField) && !this.uniques().contains(sortField)) {
+            throw new IllegalArgumentException("Field '" + sortField + "' is neither _id nor unique");
+        }
+
+        val pageFilter = after == null ? filter : Filters.and(filter, Filters.gt(sortField, this.decodeToken(after, sortField)));
+        var query = this.collection().withDocumentClass(RawBsonDocument.class)
+                .find(pageFilter)
+                .sort(Sorts.ascending(sortField))
+                .limit(pageSize + 1);
+        if (this.batchSize > 0) {
+            query = query.batchSize(this.batchSize);
+        }
+
+        val documents = query.into(new ArrayList<>(pageSize + 1));
+        val hasNext = documents.size() > pageSize;
+        if (hasNext) {
+            documents.remove(pageSize);
+        }
+
+        val codec = this.collection().getCodecRegistry().get(this.type());
+        val items = new ArrayList<M>(documents.size());
+        for (RawBsonDocument document : documents) {
+            items.add(document.decode(codec));
+        }
+
+        return new Page<>(items, hasNext ? this.encodeToken(documents.get(pageSize - 1), sortField) : null);
+    }
+
+    private @NotNull String encodeToken(@NotNull RawBsonDocument last, @NotNull String sortField) {
+        val key = last.get(sortField);
+        if (key == null || key.isNull()) {
+            throw new IllegalStateException("Document without a value for sort field '" + sortField + "'");
+        }
+
+        val token = new RawBsonDocument(new BsonDocument("f", new BsonString(sortField)).append("k", key), new BsonDocumentCodec());
+        val bytes = token.getByteBuffer().asNIO();
+        val array = new byte[bytes.remaining()];
+        bytes.get(array);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(array);
+    }
+
+    private @NotNull BsonValue decodeToken(@NotNull String token, @NotNull String sortField) {
+        final BsonValue field;
+        final BsonValue key;
+        try {
+            val document = new RawBsonDocument(Base64.getUrlDecoder().decode(token));
+            field = document.get("f");
+            key = document.get("k");
+        } catch (IllegalArgumentException | BSONException e) {
+            throw new IllegalArgumentException("Malformed page token", e);
+        }
+
+        if (field == null || !field.isString() || key == null) {
+            throw new IllegalArgumentException("Malformed page token");
+        }
+        if (!sortField.equals(field.asString().getValue())) {
+            throw new IllegalArgumentException("Page token was created for sort field '" + field.asString().getValue() + "'");
+        }
+        return key;
+    }
+
+    /**
+     * Finds the documents where the specified field matches any of the given values. The values are split into
+     * {@code $in} filters of {@link ChunkOptions#batchSize()} keys that are queried concurrently and drained into one list.
+     *
+     * @param fieldName The name of the field to filter on.
+     * @param values    The values to match in the field.
+     * @param options   The number of keys per chunk and the number of chunks queried at once.
+     * @param progress  Notified after every chunk, or {@code null}.
+     * @return The matching documents, grouped by chunk in the order of {@code values}.
+     */
+    @Override
+    public @NotNull List<M> manyIn(@NotNull String fieldName, @NotNull Collection<?> values, @NotNull ChunkOptions options, @Nullable ChunkProgress progress) {
+        val chunks = this.inChunks(
+                fieldName,
+                new ArrayList<>(values),
+                options,
+                filter -> this.many(filter).into(new ArrayList<>()),
+                List::size,
+                progress
+        );
+
+        val found = new ArrayList<M>();
+        for (List<M> chunk : chunks) {
+            found.addAll(chunk);
+        }
+        return found;
+    }
+
+    /**
+     * Finds the documents of the given unique values, keyed by them. The lookup runs in concurrent {@code $in} chunks
+     * like {@link #manyIn}. Requested values and the unique fields of the results are compared in their stored form (see
+     * {@link #storedKey}), so an {@code Integer} finds the document of a {@code long} field and a {@code UUID} finds the
+     * document of a UUID stored as a string.
+     *
+     * @param uniqueValues The values to match in the unique field.
+     * @param options      The number of keys per chunk and the number of chunks queried at once.
+     * @return The found documents by unique value, in the order of {@code uniqueValues}; values without a document are absent.
+     */
+    @Override
+    public @NotNull Map<Object, M> byUniques(@NotNull Collection<?> uniqueValues, @NotNull ChunkOptions options) {
+        val uniqueField = this.firstUniqueField();
+        val found = this.findByUniques(uniqueValues, options);
+
+        val ordered = new LinkedHashMap<Object, M>(Math.max(16, (int) (found.size() / 0.75f) + 1));
+        for (Object uniqueValue : uniqueValues) {
+            val datum = found.get(this.storedKey(uniqueField, uniqueValue));
+            if (datum != null) {
+                ordered.put(uniqueValue, datum);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Finds the documents of the given unique values, see {@link #byUniques(Collection, ChunkOptions)}.
+     *
+     * @param uniqueValues The values to match in the unique field.
+     * @param options      The number of keys per chunk and the number of chunks queried at once.
+     * @return One entry per unique value in the same order, {@code null} where no document was found.
+     */
+    @Override
+    public @NotNull List<@Nullable M> byUniquesOrdered(@NotNull Collection<?> uniqueValues, @NotNull ChunkOptions options) {
+        val uniqueField = this.firstUniqueField();
+        val found = this.findByUniques(uniqueValues, options);
+
+        val ordered = new ArrayList<M>(uniqueValues.size());
+        for (Object uniqueValue : uniqueValues) {
+            ordered.add(found.get(this.storedKey(uniqueField, uniqueValue)));
+        }
+        return ordered;
+    }
+
+    private @NotNull HashMap<BsonValue, M> findByUniques(@NotNull Collection<?> uniqueValues, @NotNull ChunkOptions options) {
+        val uniqueField = this.firstUniqueField();
+        val found = new HashMap<BsonValue, M>(Math.max(16, (int) (uniqueValues.size() / 0.75f) + 1));
+        if (uniqueValues.isEmpty()) {
+            return found;
+        }
+
+        for (M datum : this.manyIn(uniqueField.fieldName(), uniqueValues, options, null)) {
+            found.put(this.storedKey(uniqueField, uniqueField.get(datum)), datum);
+        }
+        return found;
+    }
+
+    protected @NotNull Bson projection(@NotNull String @NotNull ... fields) {
+        val modelFields = this.fields();
+
+        var includesId = false;
+        for (@NotNull String field : fields) {
+            if (!modelFields.containsKey(field)) {
+                throw new IllegalArgumentException("Field '" + field + "' not found");
+            }
+            includesId |= "_id".equals(field);
+        }
+
+        val include = Projections.include(fields);
+        return includesId ? include : Projections.fields(include, Projections.excludeId());
     }
 }
\ No newline at end of file
@@ -22,10 +22,15 @@ package net.clydo.mongodb.operations.find;
 
 import net.clydo.mongodb.error.NotFoundResult;
 import net.clydo.mongodb.operations.IOperations;
+import net.clydo.mongodb.operations.bulk.ChunkOptions;
 import org.bson.conversions.Bson;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 public interface FindUniqueOperations<M> extends IOperations<M> {
     @Nullable M unique(@NotNull Bson filter);
 
@@ -34,4 +39,16 @@ public interface FindUniqueOperations<M> extends IOperations<M> {
     @Nullable M uniqueByUnique(@NotNull Object uniqueValue);
 
     @NotNull M uniqueOrThrowRaw(@NotNull Bson filter) throws NotFoundResult;
+
+    @NotNull Map<Object, M> byUniques(@NotNull Collection<?> uniqueValues, @NotNull ChunkOptions options);
+
+    default @NotNull Map<Object, M> byUniques(@NotNull Collection<?> uniqueValues) {
+        return this.byUniques(uniqueValues, ChunkOptions.defaults());
+    }
+
+    @NotNull List<@Nullable M> byUniquesOrdered(@NotNull Collection<?> uniqueValues, @NotNull ChunkOptions options);
+
+    default @NotNull List<@Nullable M> byUniquesOrdered(@NotNull Collection<?> uniqueValues) {
+        return this.byUniquesOrdered(uniqueValues, ChunkOptions.defaults());
+    }
 }
@@ -0,0 +1,38 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.find;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * One page of a keyset pagination, see {@link FindOperations#page(org.bson.conversions.Bson, String, int, String)}.
+ *
+ * @param items The documents of the page, in ascending order of the sort field.
+ * @param next  The opaque token to pass as {@code after} for the following page, or {@code null} if this is the last one.
+ * @param <M>   The type of the documents.
+ */
+public record Page<M>(@NotNull List<M> items, @Nullable String next) {
+    public boolean hasNext() {
+        return this.next != null;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.find;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
+import lombok.val;
+import net.clydo.mongodb.operations.async.AsyncExecutors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates a cursor while a background task already fetches the following batches.
+ * <p>
+ * The task runs on {@link AsyncExecutors#threadPerTask()} and owns the cursor: it drains each batch the server returned
+ * (see {@link MongoCursor#available()}) into a list and hands it over through a queue of {@code bufferedBatches} slots,
+ * so the next {@code getMore} overlaps with the processing of the current batch and at most {@code bufferedBatches + 2}
+ * batches are held at once. A failure of the cursor is rethrown to the consumer after the batches fetched before it.
+ * Closing stops the task after its current fetch and closes the cursor.
+ *
+ * @param <M> The type of the documents.
+ */
+final class PrefetchingCursor<M> implements Iterator<M> {
+    private static final long OFFER_POLL_MILLIS = 50L;
+
+    private final ArrayBlockingQueue<Batch<M>> batches;
+    private volatile boolean closed;
+
+    private Iterator<M> current = List.<M>of().iterator();
+    private boolean ended;
+
+    private PrefetchingCursor(int bufferedBatches) {
+        this.batches = new ArrayBlockingQueue<>(bufferedBatches);
+    }
+
+    static <M> @NotNull Stream<M> stream(@NotNull FindIterable<M> iterable, int bufferedBatches) {
+        val cursor = new PrefetchingCursor<M>(bufferedBatches);
+        AsyncExecutors.threadPerTask().execute(() -> cursor.fetch(iterable));
+
+        val spliterator = Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!this.current.hasNext()) {
+            if (this.ended) {
+                return false;
+            }
+            this.current = this.take();
+        }
+        return true;
+    }
+
+    @Override
+    public M next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return this.current.next();
+    }
+
+    private @NotNull Iterator<M> take() {
+        final Batch<M> batch;
+        try {
+            batch = this.batches.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.close();
+            throw new IllegalStateException("Interrupted while waiting for the next batch", e);
+        }
+
+        val documents = batch.documents();
+        if (documents != null) {
+            return documents.iterator();
+        }
+
+        this.ended = true;
+        if (batch.failure() instanceof RuntimeException e) {
+            throw e;
+        }
+        if (batch.failure() instanceof Error e) {
+            throw e;
+        }
+        return List.<M>of().iterator();
+    }
+
+    private void close() {
+        this.closed = true;
+        this.ended = true;
+        // Frees a slot in case the fetcher is waiting to hand over a batch.
+        this.batches.clear();
+    }
+
+    private void fetch(@NotNull FindIterable<M> iterable) {
+        var last = new Batch<M>(null, null);
+        try (MongoCursor<M> cursor = iterable.cursor()) {
+            while (!this.closed && cursor.hasNext()) {
+                val batch = new ArrayList<M>(Math.max(1, cursor.available()));
+                do {
+                    batch.add(cursor.next());
+                } while (cursor.available() > 0);
+
+                if (!this.offer(new Batch<>(batch, null))) {
+                    return;
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            last = new Batch<>(null, e);
+        }
+        this.offer(last);
+    }
+
+    /**
+     * Waits for a free slot, giving up once the consumer closed the stream.
+     */
+    private boolean offer(@NotNull Batch<M> batch) {
+        try {
+            while (!this.closed) {
+                if (this.batches.offer(batch, OFFER_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * A fetched batch, or the end of the cursor with the failure that ended it, if any.
+     */
+    private record Batch<M>(@Nullable List<M> documents, @Nullable Throwable failure) {
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.find;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Settings of {@link FindOperations#stream(org.bson.conversions.Bson, StreamOptions)}.
+ *
+ * @param batchSize       The number of documents per cursor batch; {@code 0} uses the
+ *                        {@linkplain net.clydo.mongodb.annotations.MongoModel#batchSize() model default}.
+ * @param bufferedBatches The number of fetched batches waiting to be consumed before prefetching pauses.
+ */
+public record StreamOptions(int batchSize, int bufferedBatches) {
+    public StreamOptions {
+        if (batchSize < 0) {
+            throw new IllegalArgumentException("batchSize must not be negative");
+        }
+        if (bufferedBatches <= 0) {
+            throw new IllegalArgumentException("bufferedBatches must be positive");
+        }
+    }
+
+    /**
+     * The model batch size and 2 buffered batches.
+     */
+    @Contract(" -> new")
+    public static @NotNull StreamOptions defaults() {
+        return new StreamOptions(0, 2);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull StreamOptions withBatchSize(int batchSize) {
+        return new StreamOptions(batchSize, this.bufferedBatches);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull StreamOptions withBufferedBatches(int bufferedBatches) {
+        return new StreamOptions(this.batchSize, bufferedBatches);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.operations.find;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * Settings of {@link UniqueBatcher}.
+ *
+ * @param window       How long the first lookup of a batch waits for others to join it.
+ * @param maxBatchSize The number of distinct keys that sends a batch before its window ends.
+ * @param threads      The number of threads running batch queries.
+ */
+public record UniqueBatchOptions(@NotNull Duration window, int maxBatchSize, int threads) {
+    public UniqueBatchOptions {
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("window must not be negative");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+    }
+
+    /**
+     * A 2 ms window, batches of up to 500 keys and 2 query threads.
+     */
+    @Contract(" -> new")
+    public static @NotNull UniqueBatchOptions defaults() {
+        return new UniqueBatchOptions(Duration.ofMillis(2), 500, 2);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.operations.find;
+
+import lombok.val;
+import net.clydo.mongodb.operations.bulk.ChunkOptions;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces concurrent lookups by unique value into one {@code $in} query.
+ * <p>
+ * The first key of a batch opens a window of {@link UniqueBatchOptions#window()}; keys requested meanwhile join the batch,
+ * which is sent when the window ends or it reaches {@link UniqueBatchOptions#maxBatchSize()} keys. A key that is already
+ * waiting or being queried shares the pending result instead of being requested again.
+ *
+ * @param <M> The type of the model.
+ */
+public final class UniqueBatcher<M> implements AutoCloseable {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    private final FindOperations<M> find;
+    private final UniqueBatchOptions options;
+    private final ScheduledExecutorService executor;
+
+    private final Object lock = new Object();
+    private final HashMap<Object, CompletableFuture<M>> pending = new HashMap<>();
+    private HashMap<Object, CompletableFuture<M>> batch = new HashMap<>();
+    private long batchOpenedAt;
+    private long generation;
+
+    private long batches;
+    private long keys;
+    private long deduplicated;
+    private long largestBatch;
+    private long windowNanos;
+
+    public UniqueBatcher(@NotNull FindOperations<M> find, @NotNull UniqueBatchOptions options) {
+        this.find = find;
+        this.options = options;
+        this.executor = Executors.newScheduledThreadPool(options.threads(), runnable -> {
+            val thread = new Thread(runnable, "MongoHelper-batcher-" + THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Requests the document of {@code uniqueValue}, completing with {@code null} when there is none.
+     */
+    public @NotNull CompletableFuture<M> load(@NotNull Object uniqueValue) {
+        synchronized (this.lock) {
+            // Checked and submitted under the lock that close() shuts the executor down with, so nothing is rejected.
+            if (this.executor.isShutdown()) {
+                throw new IllegalStateException("The batcher is closed");
+            }
+
+            val shared = this.pending.get(uniqueValue);
+            if (shared != null) {
+                this.deduplicated++;
+                return shared;
+            }
+
+            val future = new CompletableFuture<M>();
+            this.pending.put(uniqueValue, future);
+            this.batch.put(uniqueValue, future);
+
+            if (this.batch.size() == 1) {
+                this.batchOpenedAt = System.nanoTime();
+                val opened = this.generation;
+                try {
+                    this.executor.schedule(() -> this.flush(opened), this.options.window().toNanos(), TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    val rejected = this.batch;
+                    this.batch = new HashMap<>();
+                    this.generation++;
+                    this.fail(rejected, e);
+                    return future;
+                }
+            }
+
+            if (this.batch.size() >= this.options.maxBatchSize()) {
+                val full = this.takeBatch();
+                try {
+                    this.executor.execute(() -> this.run(full));
+                } catch (RejectedExecutionException e) {
+                    this.fail(full, e);
+                }
+            }
+            return future;
+        }
+    }
+
+    /**
+     * Returns the counters of this batcher so far.
+     */
+    public @NotNull Metrics metrics() {
+        synchronized (this.lock) {
+            return new Metrics(this.batches, this.keys, this.deduplicated, this.largestBatch, this.windowNanos);
+        }
+    }
+
+    /**
+     * Stops the query threads. Batches already sent still complete; lookups requested afterwards fail.
+     */
+    @Override
+    public void close() {
+        synchronized (this.lock) {
+            this.executor.shutdown();
+        }
+    }
+
+    private void flush(long opened) {
+        final HashMap<Object, CompletableFuture<M>> batch;
+        synchronized (this.lock) {
+            if (opened != this.generation || this.batch.isEmpty()) {
+                return;
+            }
+            batch = this.takeBatch();
+        }
+        this.run(batch);
+    }
+
+    private @NotNull HashMap<Object, CompletableFuture<M>> takeBatch() {
+        val batch = this.batch;
+        this.batch = new HashMap<>();
+        this.generation++;
+
+        this.batches++;
+        this.keys += batch.size();
+        this.largestBatch = Math.max(this.largestBatch, batch.size());
+        this.windowNanos += System.nanoTime() - this.batchOpenedAt;
+        return batch;
+    }
+
+    /**
+     * Fails the lookups of a batch that could not be sent, holding {@link #lock}, so later lookups of its keys query again.
+     */
+    private void fail(@NotNull HashMap<Object, CompletableFuture<M>> batch, @NotNull Throwable failure) {
+        batch.forEach((uniqueValue, future) -> {
+            this.pending.remove(uniqueValue);
+            future.completeExceptionally(failure);
+        });
+    }
+
+    private void run(@NotNull HashMap<Object, CompletableFuture<M>> batch) {
+        Map<Object, M> found = null;
+        Throwable failure = null;
+        try {
+            found = this.find.byUniques(batch.keySet(), ChunkOptions.defaults().withParallelism(1));
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        // Released before completing, so a caller reacting to the result looks the key up again instead of sharing it.
+        synchronized (this.lock) {
+            batch.forEach(this.pending::remove);
+        }
+        for (val entry : batch.entrySet()) {
+            if (failure != null) {
+                entry.getValue().completeExceptionally(failure);
+            } else {
+                entry.getValue().complete(found.get(entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Counters of a {@link UniqueBatcher}.
+     *
+     * @param batches      The number of queries sent.
+     * @param keys         The number of distinct keys queried.
+     * @param deduplicated The number of lookups that shared a pending key instead of querying it.
+     * @param largestBatch The largest number of keys in one query.
+     * @param windowNanos  The total time batches spent open before being sent.
+     */
+    public record Metrics(long batches, long keys, long deduplicated, long largestBatch, long windowNanos) {
+        public double averageBatchSize() {
+            return this.batches == 0 ? 0 : (double) this.keys / this.batches;
+        }
+
+        /**
+         * The average latency the window added to the first lookup of a batch, in nanoseconds.
+         */
+        public double averageWindowNanos() {
+            return this.batches == 0 ? 0 : (double) this.windowNanos / this.batches;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.scan;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+final class MemoryScanCheckpoints implements ScanCheckpointStore {
+    private final ConcurrentSkipListMap<Integer, ScanCheckpoint> checkpoints = new ConcurrentSkipListMap<>();
+
+    @Override
+    public @Nullable List<ScanCheckpoint> load() {
+        return this.checkpoints.isEmpty() ? null : new ArrayList<>(this.checkpoints.values());
+    }
+
+    @Override
+    public void save(@NotNull ScanCheckpoint checkpoint) {
+        this.checkpoints.put(checkpoint.partition(), checkpoint);
+    }
+
+    @Override
+    public void clear() {
+        this.checkpoints.clear();
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.scan;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import lombok.val;
+import net.clydo.mongodb.operations.async.AsyncExecutors;
+import net.clydo.mongodb.operations.bulk.ParallelChunks;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonObjectId;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Scans the documents of a collection that match a filter on several threads at once.
+ * <p>
+ * The partitions are scanned by {@link ParallelChunks} on {@link AsyncExecutors#threadPerTask()}, the executor of the
+ * async operations, so they run on virtual threads when the JVM has them.
+ * <p>
+ * The {@code _id} range is split into partitions (see {@link ScanOptions.Split}); each partition is read by its own
+ * cursor in {@code _id} order, so it walks the {@code _id} index and can resume after the last {@code _id} it handed
+ * out. The first and last partitions are open-ended, so documents outside the sampled range are not missed.
+ * <p>
+ * Comparisons on {@code _id} only match values of the same BSON type, so where a bound leaves other types out, the
+ * partition also matches the {@code _id} types that sort between its bounds. A collection whose
+ * {@code _id}s mix types is therefore scanned completely, in the order the server sorts them.
+ * <p>
+ * When a partition fails, the other partitions stop at their next document and the failure is thrown; with
+ * {@linkplain ScanOptions#checkpoints() checkpoints}, running the scan again continues every partition where it stopped.
+ *
+ * @param <M> The type of the documents.
+ */
+public final class PartitionedScan<M> {
+    private static final int SAMPLES_PER_PARTITION = 32;
+
+    private final MongoCollection<M> collection;
+    private final ScanOptions options;
+    private final int batchSize;
+
+    /**
+     * @param collection The collection to scan.
+     * @param options    The partitioning, parallelism and checkpoints of the scan.
+     * @param batchSize  The number of documents per cursor batch, or {@code 0} to leave it to the server.
+     */
+    public PartitionedScan(@NotNull MongoCollection<M> collection, @NotNull ScanOptions options, int batchSize) {
+        this.collection = collection;
+        this.options = options;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Hands every document that matches {@code filter} to {@code consumer}.
+     *
+     * @param filter   The filter to apply when finding the documents.
+     * @param consumer Called from the worker threads, concurrently and in no overall order.
+     * @return The statistics of this run.
+     */
+    public @NotNull ScanResult run(@NotNull Bson filter, @NotNull Consumer<? super M> consumer) {
+        val started = System.nanoTime();
+        val store = this.options.checkpoints();
+
+        var plan = store == null ? null : store.load();
+        if (plan == null) {
+            plan = this.plan();
+            if (store != null) {
+                plan.forEach(store::save);
+            }
+        }
+
+        val codec = this.collection.getCodecRegistry().get(this.collection.getDocumentClass());
+        val raw = this.collection.withDocumentClass(RawBsonDocument.class);
+        val failed = new AtomicBoolean();
+        val partitionDocuments = new Long[plan.size()];
+        Arrays.fill(partitionDocuments, 0L);
+
+        var skipped = 0;
+        val scanned = new ArrayList<ScanCheckpoint>();
+        try (val chunks = new ParallelChunks<Long>(this.options.parallelism())) {
+            for (ScanCheckpoint checkpoint : plan) {
+                if (checkpoint.done()) {
+                    skipped++;
+                    continue;
+                }
+
+                if (!chunks.submit(() -> this.scan(raw, codec, filter, checkpoint, consumer, failed))) {
+                    break;
+                }
+                scanned.add(checkpoint);
+            }
+
+            val counts = chunks.results();
+            for (int i = 0; i < counts.size(); i++) {
+                partitionDocuments[scanned.get(i).partition()] = counts.get(i);
+            }
+        }
+
+        if (store != null) {
+            store.clear();
+        }
+
+        var documents = 0L;
+        for (Long count : partitionDocuments) {
+            documents += count;
+        }
+        return new ScanResult(documents, List.of(partitionDocuments), skipped, Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    private long scan(
+            @NotNull MongoCollection<RawBsonDocument> raw,
+            @NotNull Codec<M> codec,
+            @NotNull Bson filter,
+            @NotNull ScanCheckpoint start,
+            @NotNull Consumer<? super M> consumer,
+            @NotNull AtomicBoolean failed
+    ) {
+        val store = this.options.checkpoints();
+        val interval = this.options.checkpointInterval();
+
+        val lastId = start.lastId();
+        val range = lastId != null ? range(lastId, false, start.upper()) : range(start.lower(), true, start.upper());
+
+        var query = raw.find(range == null ? filter : Filters.and(filter, range)).sort(Sorts.ascending("_id"));
+        if (this.batchSize > 0) {
+            query = query.batchSize(this.batchSize);
+        }
+
+        var scannedId = lastId;
+        var count = 0L;
+        var complete = false;
+        try (val cursor = query.cursor()) {
+            while (!failed.get()) {
+                if (!cursor.hasNext()) {
+                    complete = true;
+                    break;
+                }
+
+                val document = cursor.next();
+                consumer.accept(document.decode(codec));
+                count++;
+
+                if (store != null) {
+                    scannedId = document.get("_id");
+                    if (count % interval == 0) {
+                        store.save(start.progress(scannedId, start.documents() + count));
+                    }
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            failed.set(true);
+            throw e;
+        } finally {
+            if (store != null) {
+                val checkpoint = start.progress(scannedId, start.documents() + count);
+                store.save(complete ? checkpoint.complete() : checkpoint);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the filter for the {@code _id}s from {@code lower} up to, excluding, {@code upper} in the order the server
+     * sorts them, or {@code null} when both are open.
+     * <p>
+     * {@code $gt}, {@code $gte} and {@code $lt} only match the type of their operand, so when the bounds are of different
+     * types the range is the part of the lower type above {@code lower}, every type sorted in between, and the part of
+     * the upper type below {@code upper}. An open bound counts as the first or last type.
+     */
+    private static @Nullable Bson range(@Nullable BsonValue lower, boolean inclusive, @Nullable BsonValue upper) {
+        if (lower == null && upper == null) {
+            return null;
+        }
+
+        val above = lower == null ? null : inclusive ? Filters.gte("_id", lower) : Filters.gt("_id", lower);
+        val below = upper == null ? null : Filters.lt("_id", upper);
+
+        val from = lower == null ? -1 : typeOrder(lower.getBsonType());
+        val to = upper == null ? Integer.MAX_VALUE : typeOrder(upper.getBsonType());
+        if (from == to) {
+            return Filters.and(above, below);
+        }
+
+        val between = new BsonArray();
+        for (BsonType type : BsonType.values()) {
+            val order = typeOrder(type);
+            if (order > from && order < to) {
+                between.add(new BsonInt32(type.getValue()));
+            }
+        }
+
+        val parts = new ArrayList<Bson>(3);
+        if (above != null) {
+            parts.add(above);
+        }
+        if (!between.isEmpty()) {
+            parts.add(new BsonDocument("_id", new BsonDocument("$type", between)));
+        }
+        if (below != null) {
+            parts.add(below);
+        }
+        return parts.size() == 1 ? parts.get(0) : Filters.or(parts);
+    }
+
+    /**
+     * Returns the position of {@code type} in the order the server compares BSON values in; numbers compare with each
+     * other across their types, as do strings and symbols.
+     */
+    private static int typeOrder(@NotNull BsonType type) {
+        return switch (type) {
+            case END_OF_DOCUMENT -> -1;
+            case MIN_KEY -> 0;
+            case UNDEFINED -> 1;
+            case NULL -> 2;
+            case DOUBLE, INT32, INT64, DECIMAL128 -> 3;
+            case STRING, SYMBOL -> 4;
+            case DOCUMENT -> 5;
+            case ARRAY -> 6;
+            case BINARY -> 7;
+            case OBJECT_ID -> 8;
+            case BOOLEAN -> 9;
+            case DATE_TIME -> 10;
+            case TIMESTAMP -> 11;
+            case REGULAR_EXPRESSION -> 12;
+            case DB_POINTER -> 13;
+            case JAVASCRIPT -> 14;
+            case JAVASCRIPT_WITH_SCOPE -> 15;
+            case MAX_KEY -> 16;
+        };
+    }
+
+    private @NotNull List<ScanCheckpoint> plan() {
+        val boundaries = this.options.split() == ScanOptions.Split.INTERPOLATE ? this.interpolated() : this.sampled();
+
+        val plan = new ArrayList<ScanCheckpoint>(boundaries.size() + 1);
+        for (int i = 0; i <= boundaries.size(); i++) {
+            plan.add(ScanCheckpoint.start(
+                    i,
+                    i == 0 ? null : boundaries.get(i - 1),
+                    i == boundaries.size() ? null : boundaries.get(i)
+            ));
+        }
+        return plan;
+    }
+
+    /**
+     * Returns the quantiles of a random sample of {@code _id}s as the inner boundaries.
+     */
+    private @NotNull List<BsonValue> sampled() {
+        val partitions = this.options.partitions();
+        if (partitions == 1) {
+            return List.of();
+        }
+
+        val ids = new ArrayList<BsonValue>();
+        this.collection.withDocumentClass(BsonDocument.class)
+                .aggregate(List.of(
+                        Aggregates.sample(partitions * SAMPLES_PER_PARTITION),
+                        Aggregates.project(Projections.include("_id")),
+                        Aggregates.sort(Sorts.ascending("_id"))
+                ))
+                .forEach(document -> ids.add(document.get("_id")));
+
+        val boundaries = new ArrayList<BsonValue>(partitions - 1);
+        if (ids.isEmpty()) {
+            return boundaries;
+        }
+        for (int i = 1; i < partitions; i++) {
+            addDistinct(boundaries, ids.get(i * ids.size() / partitions));
+        }
+        return boundaries;
+    }
+
+    /**
+     * Returns even steps between the smallest and largest {@code ObjectId} as the inner boundaries.
+     */
+    private @NotNull List<BsonValue> interpolated() {
+        val partitions = this.options.partitions();
+        if (partitions == 1) {
+            return List.of();
+        }
+
+        val min = this.edgeId(Sorts.ascending("_id"));
+        val max = this.edgeId(Sorts.descending("_id"));
+        if (min == null || max == null) {
+            return List.of();
+        }
+        if (!min.isObjectId() || !max.isObjectId()) {
+            return this.sampled();
+        }
+
+        val low = new BigInteger(1, min.asObjectId().getValue().toByteArray());
+        val span = new BigInteger(1, max.asObjectId().getValue().toByteArray()).subtract(low);
+
+        val boundaries = new ArrayList<BsonValue>(partitions - 1);
+        for (int i = 1; i < partitions; i++) {
+            val step = span.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(partitions));
+            addDistinct(boundaries, new BsonObjectId(new ObjectId(toObjectIdBytes(low.add(step)))));
+        }
+        return boundaries;
+    }
+
+    private @Nullable BsonValue edgeId(@NotNull Bson sort) {
+        val document = this.collection.withDocumentClass(BsonDocument.class)
+                .find()
+                .projection(Projections.include("_id"))
+                .sort(sort)
+                .first();
+        return document == null ? null : document.get("_id");
+    }
+
+    private static void addDistinct(@NotNull List<BsonValue> boundaries, @NotNull BsonValue boundary) {
+        if (boundaries.isEmpty() || !boundaries.get(boundaries.size() - 1).equals(boundary)) {
+            boundaries.add(boundary);
+        }
+    }
+
+    private static byte @NotNull [] toObjectIdBytes(@NotNull BigInteger value) {
+        val raw = value.toByteArray();
+        val bytes = new byte[12];
+        val length = Math.min(raw.length, bytes.length);
+        System.arraycopy(raw, raw.length - length, bytes, bytes.length - length, length);
+        return bytes;
+    }
+}
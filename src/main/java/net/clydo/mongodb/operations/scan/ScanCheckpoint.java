@@ -0,0 +1,52 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.scan;
+
+import org.bson.BsonValue;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The range and progress of one partition of a {@link PartitionedScan}.
+ *
+ * @param partition The index of the partition.
+ * @param lower     The inclusive lower {@code _id} bound, or {@code null} for the first partition.
+ * @param upper     The exclusive upper {@code _id} bound, or {@code null} for the last partition.
+ * @param lastId    The {@code _id} of the last document handed to the consumer, or {@code null} if none was yet.
+ * @param documents The number of documents handed to the consumer so far, over all runs.
+ * @param done      Whether the whole range was scanned.
+ */
+public record ScanCheckpoint(int partition, @Nullable BsonValue lower, @Nullable BsonValue upper, @Nullable BsonValue lastId, long documents, boolean done) {
+    @Contract("_, _, _ -> new")
+    public static @NotNull ScanCheckpoint start(int partition, @Nullable BsonValue lower, @Nullable BsonValue upper) {
+        return new ScanCheckpoint(partition, lower, upper, null, 0L, false);
+    }
+
+    @Contract("_, _ -> new")
+    public @NotNull ScanCheckpoint progress(@Nullable BsonValue lastId, long documents) {
+        return new ScanCheckpoint(this.partition, this.lower, this.upper, lastId, documents, false);
+    }
+
+    @Contract(" -> new")
+    public @NotNull ScanCheckpoint complete() {
+        return new ScanCheckpoint(this.partition, this.lower, this.upper, this.lastId, this.documents, true);
+    }
+}
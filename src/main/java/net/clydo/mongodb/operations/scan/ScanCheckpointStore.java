@@ -0,0 +1,57 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.scan;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Keeps the partitions of a {@link PartitionedScan} so that a failed scan resumes where each partition stopped. The
+ * scan resumes with the stored plan as is; it must be run again with the same filter.
+ * <p>
+ * {@link #save} is called concurrently by the workers of the scan.
+ */
+public interface ScanCheckpointStore {
+    /**
+     * Returns the checkpoints of an unfinished scan, or {@code null} to plan a new one.
+     */
+    @Nullable List<ScanCheckpoint> load();
+
+    /**
+     * Stores the latest checkpoint of a partition, replacing its previous one.
+     */
+    void save(@NotNull ScanCheckpoint checkpoint);
+
+    /**
+     * Forgets all checkpoints once every partition was scanned.
+     */
+    void clear();
+
+    /**
+     * Returns a store that lives as long as the returned instance, for retrying a scan within the same process.
+     */
+    @Contract(" -> new")
+    static @NotNull ScanCheckpointStore inMemory() {
+        return new MemoryScanCheckpoints();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.scan;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Settings of a {@link PartitionedScan}.
+ *
+ * @param partitions         The number of {@code _id} ranges the collection is split into.
+ * @param parallelism        The number of partitions scanned at once, each by its own task and cursor.
+ * @param split              How the range boundaries are chosen.
+ * @param checkpointInterval The number of documents after which a partition saves its progress.
+ * @param checkpoints        Where the plan and progress of the scan are kept to resume it after a failure, or {@code null}.
+ */
+public record ScanOptions(int partitions, int parallelism, @NotNull Split split, int checkpointInterval, @Nullable ScanCheckpointStore checkpoints) {
+    public ScanOptions {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("partitions must be positive");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("checkpointInterval must be positive");
+        }
+    }
+
+    /**
+     * 16 sampled partitions, 4 at once, without checkpoints.
+     */
+    @Contract(" -> new")
+    public static @NotNull ScanOptions defaults() {
+        return new ScanOptions(16, 4, Split.SAMPLE, 1000, null);
+    }
+
+    /**
+     * {@code partitions} sampled partitions, all scanned at once, without checkpoints.
+     */
+    @Contract("_ -> new")
+    public static @NotNull ScanOptions of(int partitions) {
+        return new ScanOptions(partitions, partitions, Split.SAMPLE, 1000, null);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull ScanOptions withParallelism(int parallelism) {
+        return new ScanOptions(this.partitions, parallelism, this.split, this.checkpointInterval, this.checkpoints);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull ScanOptions withSplit(@NotNull Split split) {
+        return new ScanOptions(this.partitions, this.parallelism, split, this.checkpointInterval, this.checkpoints);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull ScanOptions withCheckpoints(@Nullable ScanCheckpointStore checkpoints) {
+        return new ScanOptions(this.partitions, this.parallelism, this.split, this.checkpointInterval, checkpoints);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull ScanOptions withCheckpointInterval(int checkpointInterval) {
+        return new ScanOptions(this.partitions, this.parallelism, this.split, checkpointInterval, this.checkpoints);
+    }
+
+    /**
+     * How a {@link PartitionedScan} chooses the {@code _id} boundaries of its partitions.
+     */
+    public enum Split {
+        /**
+         * Quantiles of a {@code $sample} of {@code _id}s, which follow the actual distribution of the keys.
+         */
+        SAMPLE,
+        /**
+         * Even steps between the smallest and largest {@code ObjectId}, which needs only two indexed lookups and suits
+         * collections filled at a steady rate. Falls back to {@link #SAMPLE} when the {@code _id}s are not ObjectIds.
+         */
+        INTERPOLATE
+    }
+}
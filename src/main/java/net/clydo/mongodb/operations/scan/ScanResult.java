@@ -0,0 +1,41 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.scan;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The statistics of one run of a {@link PartitionedScan}.
+ *
+ * @param documents          The number of documents handed to the consumer in this run.
+ * @param partitionDocuments The number of documents of each partition in this run, by partition index.
+ * @param skippedPartitions  The number of partitions a previous run had already finished.
+ * @param elapsed            The time from planning to the end of the last partition.
+ */
+public record ScanResult(long documents, @NotNull List<Long> partitionDocuments, int skippedPartitions, @NotNull Duration elapsed) {
+    public double documentsPerSecond() {
+        val nanos = this.elapsed.toNanos();
+        return nanos == 0 ? 0.0 : this.documents * 1e9 / nanos;
+    }
+}
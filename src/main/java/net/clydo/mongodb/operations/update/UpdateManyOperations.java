@@ -22,9 +22,19 @@ package net.clydo.mongodb.operations.update;
 
 import com.mongodb.client.result.UpdateResult;
 import net.clydo.mongodb.operations.IOperations;
+import net.clydo.mongodb.operations.bulk.BulkOptions;
+import net.clydo.mongodb.operations.bulk.BulkResult;
 import org.bson.conversions.Bson;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+
 public interface UpdateManyOperations<M> extends IOperations<M> {
     @NotNull UpdateResult many(@NotNull Bson filter, @NotNull Bson update);
+
+    @NotNull BulkResult<M> many(@NotNull Collection<? extends M> data, @NotNull BulkOptions options);
+
+    default @NotNull BulkResult<M> many(@NotNull Collection<? extends M> data) {
+        return this.many(data, BulkOptions.defaults());
+    }
 }
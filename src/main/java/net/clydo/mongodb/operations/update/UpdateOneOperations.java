@@ -44,4 +44,6 @@ public interface UpdateOneOperations<M> extends IOperations<M> {
     @NotNull UpdateResult one(@NotNull M datum);
 
     @NotNull UpdateResult one(@NotNull M datum, @NotNull String @NotNull ... justFields);
+
+    @Nullable UpdateResult changed(@NotNull M datum);
 }
@@ -20,17 +20,20 @@
 
 package net.clydo.mongodb.operations.update;
 
-import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.UpdateResult;
 import lombok.val;
 import net.clydo.mongodb.loader.classes.values.MongoModelValue;
 import net.clydo.mongodb.operations.AbstractOperation;
+import net.clydo.mongodb.operations.bulk.BulkOptions;
+import net.clydo.mongodb.operations.bulk.BulkResult;
 import org.bson.conversions.Bson;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collection;
 
 /**
  * Provides operations for updating documents in a MongoDB collection.
@@ -58,7 +61,11 @@ public class UpdateOperations<M> extends AbstractOperation<M> implements UpdateO
      */
     @Override
     public @NotNull UpdateResult one(@NotNull Bson filter, @NotNull Bson update) {
-        return this.collection().updateOne(filter, update);
+        try {
+            return this.collection().updateOne(filter, update);
+        } finally {
+            this.invalidateAll();
+        }
     }
 
     /**
@@ -70,7 +77,33 @@ public class UpdateOperations<M> extends AbstractOperation<M> implements UpdateO
      */
     @Override
     public @NotNull UpdateResult many(@NotNull Bson filter, @NotNull Bson update) {
-        return this.collection().updateMany(filter, update);
+        try {
+            return this.collection().updateMany(filter, update);
+        } finally {
+            this.invalidateAll();
+        }
+    }
+
+    /**
+     * Updates the document of every datum, matched by its first unique field, with all of its values.
+     * The updates are sent through bulk writes; items without a matching document are not inserted.
+     *
+     * @param data    The objects whose documents to update.
+     * @param options The ordering and batch size of the bulk writes.
+     * @return The aggregated counts and per-item errors of all batches.
+     */
+    @Override
+    public @NotNull BulkResult<M> many(@NotNull Collection<? extends M> data, @NotNull BulkOptions options) {
+        val fieldName = this.firstUniqueFieldName();
+
+        try {
+            return this.bulkWrite(data, options, datum -> new UpdateOneModel<>(
+                    this.eq(fieldName, this.getFieldValue(datum, fieldName)),
+                    this.setAll(datum)
+            ));
+        } finally {
+            data.forEach(this::invalidateEntity);
+        }
     }
 
     /**
@@ -82,11 +115,7 @@ public class UpdateOperations<M> extends AbstractOperation<M> implements UpdateO
      */
     @Override
     public @NotNull UpdateResult one(@NotNull Bson filter, @NotNull M datum) {
-        val updates = new ArrayList<Bson>();
-
-        this.fields().forEach((key, field) -> updates.add(Updates.set(key, field.get(datum))));
-
-        return this.one(filter, Updates.combine(updates));
+        return this.one(filter, this.setAll(datum));
     }
 
     /**
@@ -100,16 +129,7 @@ public class UpdateOperations<M> extends AbstractOperation<M> implements UpdateO
      */
     @Override
     public @NotNull UpdateResult one(@NotNull Bson filter, @NotNull M datum, @NotNull String @NotNull ... justFields) {
-        val updates = new ArrayList<Bson>();
-
-        val fields = this.fields();
-
-        for (@NotNull String justField : justFields) {
-            val field = fields.get(justField);
-            updates.add(Updates.set(justField, field.get(datum)));
-        }
-
-        return this.one(filter, Updates.combine(updates));
+        return this.one(filter, this.setFields(datum, justFields));
     }
 
     /**
@@ -122,11 +142,7 @@ public class UpdateOperations<M> extends AbstractOperation<M> implements UpdateO
      */
     @Override
     public @NotNull UpdateResult one(@NotNull String fieldName, @Nullable Object value, @NotNull M datum) {
-        val updates = new ArrayList<Bson>();
-
-        this.fields().forEach((key, field) -> updates.add(Updates.set(key, field.get(datum))));
-
-        return this.one(Filters.eq(fieldName, value), Updates.combine(updates));
+        return this.oneBy(fieldName, value, datum, this.setAll(datum));
     }
 
     /**
@@ -141,7 +157,7 @@ public class UpdateOperations<M> extends AbstractOperation<M> implements UpdateO
      */
     @Override
     public @NotNull UpdateResult one(@NotNull String fieldName, @Nullable Object value, @NotNull M datum, @NotNull String @NotNull ... justFields) {
-        return this.one(Filters.eq(fieldName, value), datum, justFields);
+        return this.oneBy(fieldName, value, datum, this.setFields(datum, justFields));
     }
 
     /**
@@ -203,4 +219,97 @@ public class UpdateOperations<M> extends AbstractOperation<M> implements UpdateO
 
         return this.one(fieldName, uniqueValue, datum, justFields);
     }
+
+    /**
+     * Updates the document of an entity with only the fields that changed since it was read, inserted or last updated
+     * through this method. Changed fields are {@code $set} ({@code $unset} when they became {@code null} and omit nulls);
+     * when nothing changed no request is sent at all. The document is matched by {@code _id} when the model has one, by
+     * the first unique field otherwise.
+     * <p>
+     * Entities the model has no snapshot of are updated in full, like {@link #one(Object)}, and tracked from then on.
+     *
+     * @param datum The entity to write back.
+     * @return The result of the update operation, or {@code null} when nothing changed.
+     * @throws IllegalStateException If the model is not annotated with {@code @MongoModel(trackChanges = true)}.
+     */
+    @Override
+    public @Nullable UpdateResult changed(@NotNull M datum) {
+        val tracker = this.model.changeTracker();
+        if (tracker == null) {
+            throw new IllegalStateException("Change tracking is not enabled for '" + this.model.modelName() + "'");
+        }
+
+        val changes = tracker.diff(datum);
+        if (changes == null) {
+            val result = this.one(datum);
+            tracker.capture(datum);
+            return result;
+        }
+        if (changes.isEmpty()) {
+            return null;
+        }
+
+        val fields = this.fields();
+        val updates = new ArrayList<Bson>(changes.fields().size());
+        for (String fieldName : changes.fields()) {
+            updates.add(this.set(fieldName, fields.get(fieldName), datum));
+        }
+
+        final UpdateResult result;
+        try {
+            result = this.collection().updateOne(this.identityFilter(datum), Updates.combine(updates));
+        } finally {
+            // A changed unique value may still be cached under the old one, which is not known here.
+            val nearCache = this.model.nearCache();
+            if (nearCache != null && changes.fields().contains(nearCache.fieldName())) {
+                nearCache.invalidateAll();
+            } else {
+                this.invalidateEntity(datum);
+            }
+        }
+
+        if (!result.wasAcknowledged() || result.getMatchedCount() > 0) {
+            tracker.commit(datum, changes.fingerprints());
+        }
+        return result;
+    }
+
+    /**
+     * Updates the document addressed by {@code value} of {@code fieldName}, invalidating only the near cache entries of
+     * that value and of {@code datum}.
+     */
+    private @NotNull UpdateResult oneBy(@NotNull String fieldName, @Nullable Object value, @NotNull M datum, @NotNull Bson update) {
+        try {
+            return this.collection().updateOne(this.eq(fieldName, value), update);
+        } finally {
+            this.invalidate(fieldName, value);
+            this.invalidateEntity(datum);
+        }
+    }
+
+    private @NotNull Bson setFields(@NotNull M datum, @NotNull String @NotNull ... justFields) {
+        val updates = new ArrayList<Bson>();
+
+        val fields = this.fields();
+
+        for (@NotNull String justField : justFields) {
+            val field = fields.get(justField);
+            updates.add(this.set(justField, field, datum));
+        }
+
+        return Updates.combine(updates);
+    }
+
+    private @NotNull Bson identityFilter(@NotNull M datum) {
+        val idField = this.fields().get("_id");
+        if (idField != null) {
+            val id = idField.get(datum);
+            if (id != null) {
+                return this.eq("_id", id);
+            }
+        }
+
+        val fieldName = this.firstUniqueFieldName();
+        return this.eq(fieldName, this.getFieldValue(datum, fieldName));
+    }
 }
@@ -23,9 +23,13 @@ package net.clydo.mongodb.operations.upsert;
 import com.mongodb.client.model.ReplaceOptions;
 import com.mongodb.client.result.UpdateResult;
 import net.clydo.mongodb.operations.IOperations;
+import net.clydo.mongodb.operations.bulk.BulkOptions;
+import net.clydo.mongodb.operations.bulk.BulkResult;
 import org.bson.conversions.Bson;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+
 public interface IUpsertOperations<M> extends IOperations<M> {
     @NotNull UpdateResult one(@NotNull Bson filter, @NotNull Bson update, @NotNull Bson create);
 
@@ -40,4 +44,10 @@ public interface IUpsertOperations<M> extends IOperations<M> {
     @NotNull UpdateResult one(@NotNull M datum, @NotNull String @NotNull ... justFields);
 
     @NotNull UpdateResult one(@NotNull M datum);
+
+    @NotNull BulkResult<M> many(@NotNull Collection<? extends M> data, @NotNull BulkOptions options);
+
+    default @NotNull BulkResult<M> many(@NotNull Collection<? extends M> data) {
+        return this.many(data, BulkOptions.defaults());
+    }
 }
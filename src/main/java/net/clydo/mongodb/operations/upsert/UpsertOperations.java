@@ -20,7 +20,7 @@
 
 package net.clydo.mongodb.operations.upsert;
 
-import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
 import com.mongodb.client.model.ReplaceOptions;
 import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
@@ -28,10 +28,13 @@ import com.mongodb.client.result.UpdateResult;
 import lombok.val;
 import net.clydo.mongodb.loader.classes.values.MongoModelValue;
 import net.clydo.mongodb.operations.AbstractOperation;
+import net.clydo.mongodb.operations.bulk.BulkOptions;
+import net.clydo.mongodb.operations.bulk.BulkResult;
 import org.bson.conversions.Bson;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -62,16 +65,11 @@ public class UpsertOperations<M> extends AbstractOperation<M> implements IUpsert
      */
     @Override
     public @NotNull UpdateResult one(@NotNull Bson filter, @NotNull Bson update, @NotNull Bson create) {
-        val combined = Updates.combine(
-                update,
-                create
-        );
-
-        return this.collection().updateOne(
-                filter,
-                combined,
-                new UpdateOptions().upsert(true)
-        );
+        try {
+            return this.upsert(filter, update, create);
+        } finally {
+            this.invalidateAll();
+        }
     }
 
     /**
@@ -85,7 +83,11 @@ public class UpsertOperations<M> extends AbstractOperation<M> implements IUpsert
      */
     @Override
     public @NotNull UpdateResult one(@NotNull Bson filter, @NotNull M datum, ReplaceOptions replaceOptions) {
-        return this.collection().replaceOne(filter, datum, replaceOptions);
+        try {
+            return this.collection().replaceOne(filter, datum, replaceOptions);
+        } finally {
+            this.invalidateAll();
+        }
     }
 
     /**
@@ -113,7 +115,12 @@ public class UpsertOperations<M> extends AbstractOperation<M> implements IUpsert
     @Override
     public @NotNull UpdateResult one(@NotNull Bson filter, @NotNull Bson update, @NotNull M create) {
         val creates = new ArrayList<Bson>();
-        this.fields().forEach((key, field) -> creates.add(Updates.setOnInsert(key, field.get(create))));
+        this.fields().forEach((key, field) -> {
+            val setOnInsert = this.setOnInsert(key, field, create);
+            if (setOnInsert != null) {
+                creates.add(setOnInsert);
+            }
+        });
 
         return this.one(filter, update, Updates.combine(creates));
     }
@@ -139,7 +146,10 @@ public class UpsertOperations<M> extends AbstractOperation<M> implements IUpsert
             if (field == null) {
                 throw new IllegalArgumentException("Field '" + justField + "' not found");
             }
-            creates.add(Updates.setOnInsert(justField, field.get(create)));
+            val setOnInsert = this.setOnInsert(justField, field, create);
+            if (setOnInsert != null) {
+                creates.add(setOnInsert);
+            }
         }
 
         return this.one(filter, update, Updates.combine(creates));
@@ -163,7 +173,10 @@ public class UpsertOperations<M> extends AbstractOperation<M> implements IUpsert
         {
             fields.forEach((key, field) -> {
                 if (!justFieldsList.contains(key)) {
-                    creates.add(Updates.setOnInsert(key, field.get(datum)));
+                    val setOnInsert = this.setOnInsert(key, field, datum);
+                    if (setOnInsert != null) {
+                        creates.add(setOnInsert);
+                    }
                 }
             });
         }
@@ -175,14 +188,18 @@ public class UpsertOperations<M> extends AbstractOperation<M> implements IUpsert
                 if (field == null) {
                     throw new IllegalArgumentException("Field '" + justField + "' not found");
                 }
-                updates.add(Updates.set(justField, field.get(datum)));
+                updates.add(this.set(justField, field, datum));
             }
         }
 
         val fieldName = this.firstUniqueFieldName();
         val uniqueValue = this.getFieldValue(datum, fieldName);
 
-        return this.one(Filters.eq(fieldName, uniqueValue), Updates.combine(updates), Updates.combine(creates));
+        try {
+            return this.upsert(this.eq(fieldName, uniqueValue), Updates.combine(updates), Updates.combine(creates));
+        } finally {
+            this.invalidate(fieldName, uniqueValue);
+        }
     }
 
     /**
@@ -197,6 +214,47 @@ public class UpsertOperations<M> extends AbstractOperation<M> implements IUpsert
         val fieldName = this.firstUniqueFieldName();
         val uniqueValue = this.getFieldValue(datum, fieldName);
 
-        return this.one(Filters.eq(fieldName, uniqueValue), datum, new ReplaceOptions().upsert(true));
+        try {
+            return this.collection().replaceOne(this.eq(fieldName, uniqueValue), datum, new ReplaceOptions().upsert(true));
+        } finally {
+            this.invalidate(fieldName, uniqueValue);
+        }
+    }
+
+    /**
+     * Upserts the document of every datum, matched by its first unique field: existing documents are replaced and missing
+     * ones inserted, like {@link #one(Object)}. The replacements are sent through bulk writes.
+     *
+     * @param data    The documents to upsert.
+     * @param options The ordering and batch size of the bulk writes.
+     * @return The aggregated counts and per-item errors of all batches.
+     */
+    @Override
+    public @NotNull BulkResult<M> many(@NotNull Collection<? extends M> data, @NotNull BulkOptions options) {
+        val fieldName = this.firstUniqueFieldName();
+        val replaceOptions = new ReplaceOptions().upsert(true);
+
+        try {
+            return this.bulkWrite(data, options, datum -> new ReplaceOneModel<>(
+                    this.eq(fieldName, this.getFieldValue(datum, fieldName)),
+                    datum,
+                    replaceOptions
+            ));
+        } finally {
+            data.forEach(this::invalidateEntity);
+        }
+    }
+
+    private @NotNull UpdateResult upsert(@NotNull Bson filter, @NotNull Bson update, @NotNull Bson create) {
+        val combined = Updates.combine(
+                update,
+                create
+        );
+
+        return this.collection().updateOne(
+                filter,
+                combined,
+                new UpdateOptions().upsert(true)
+        );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.writebehind;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * Settings of a {@link WriteBehindQueue}.
+ *
+ * @param capacity      The maximum number of unique values with pending updates. Updates of an already pending value
+ *                      are merged into it and never wait; updates of a new value wait for a flush while it is full.
+ * @param flushSize     The number of pending unique values that triggers a flush, also the size of every
+ *                      {@code bulkWrite} batch.
+ * @param flushInterval How often pending updates are flushed regardless of their number.
+ * @param offerTimeout  How long an update waits for room in a full queue before it fails; {@link Duration#ZERO} fails
+ *                      right away.
+ */
+public record WriteBehindOptions(int capacity, int flushSize, @NotNull Duration flushInterval, @NotNull Duration offerTimeout) {
+
+    public WriteBehindOptions {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (flushSize <= 0 || flushSize > capacity) {
+            throw new IllegalArgumentException("flushSize must be positive and at most capacity");
+        }
+        if (flushInterval.isZero() || flushInterval.isNegative()) {
+            throw new IllegalArgumentException("flushInterval must be positive");
+        }
+        if (offerTimeout.isNegative()) {
+            throw new IllegalArgumentException("offerTimeout must not be negative");
+        }
+    }
+
+    /**
+     * Up to 10 000 pending unique values, flushed in batches of 500 or every second, waiting up to 5 seconds for room.
+     */
+    @Contract(" -> new")
+    public static @NotNull WriteBehindOptions defaults() {
+        return new WriteBehindOptions(10_000, 500, Duration.ofSeconds(1), Duration.ofSeconds(5));
+    }
+
+    @Contract("_ -> new")
+    public @NotNull WriteBehindOptions withCapacity(int capacity) {
+        return new WriteBehindOptions(capacity, Math.min(this.flushSize, capacity), this.flushInterval, this.offerTimeout);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull WriteBehindOptions withFlushSize(int flushSize) {
+        return new WriteBehindOptions(this.capacity, flushSize, this.flushInterval, this.offerTimeout);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull WriteBehindOptions withFlushInterval(@NotNull Duration flushInterval) {
+        return new WriteBehindOptions(this.capacity, this.flushSize, flushInterval, this.offerTimeout);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull WriteBehindOptions withOfferTimeout(@NotNull Duration offerTimeout) {
+        return new WriteBehindOptions(this.capacity, this.flushSize, this.flushInterval, offerTimeout);
+    }
+}
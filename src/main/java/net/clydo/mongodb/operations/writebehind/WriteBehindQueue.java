@@ -0,0 +1,543 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.writebehind;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.val;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.loader.classes.values.MongoMutableField;
+import net.clydo.mongodb.operations.AbstractOperation;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Buffers field updates of a model by unique value and writes them behind the caller with {@code bulkWrite}.
+ * <p>
+ * Pending updates of the same unique value are merged into one {@code updateOne}, comparing unique values in their stored
+ * form (see {@link #storedKey}) so that {@code 1} and {@code 1L}, or a UUID and the string it is stored as, share one
+ * entry. The last {@link #set} of a field wins,
+ * {@link #inc}s of a field are summed, and an {@code inc} after a {@code set} adds to the set value. Pending values are
+ * flushed once {@link WriteBehindOptions#flushSize()} of them are queued, every {@link WriteBehindOptions#flushInterval()},
+ * on {@link #flush()} and on {@link #close()}. Documents without a match are not inserted.
+ * <p>
+ * Updates are only durable once flushed: they are lost if the JVM stops first, and reads in between (including the
+ * {@linkplain MongoModelValue#nearCache() near cache}) still see the stored values. The updates of a failed flush are
+ * dropped, not retried, since the server may have applied them before the failure and an {@code inc} must not be
+ * applied twice: they are counted in {@link Stats#failures()} and their unique values are kept in
+ * {@link #lastFailedKeys()}.
+ */
+public class WriteBehindQueue<M> extends AbstractOperation<M> implements Closeable {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final Object UNSET = new Object();
+
+    private final String fieldName;
+    private final MongoMutableField field;
+    private final WriteBehindOptions options;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushRequested;
+
+    private final ReentrantLock lock;
+    private final Condition notFull;
+    private final LinkedHashMap<BsonValue, Pending> pending;
+    private int inFlight;
+    private boolean closed;
+
+    private final ReentrantLock flushLock;
+
+    private final LongAdder updates;
+    private final AtomicLong flushedUpdates;
+    private final AtomicLong writes;
+    private final AtomicLong failures;
+    private final AtomicLong flushes;
+    private final AtomicLong flushNanos;
+    private volatile long lastFlushNanos;
+    private volatile @Nullable RuntimeException lastFailure;
+    private volatile @NotNull List<Object> lastFailedKeys = List.of();
+
+    public WriteBehindQueue(@NotNull MongoModelValue<M> model, @NotNull String fieldName, @NotNull WriteBehindOptions options) {
+        super(model);
+        this.fieldName = fieldName;
+        this.field = Objects.requireNonNull(this.fields().get(fieldName), "No such field: " + fieldName);
+        this.options = options;
+        this.flushRequested = new AtomicBoolean();
+
+        this.lock = new ReentrantLock();
+        this.notFull = this.lock.newCondition();
+        this.pending = new LinkedHashMap<>();
+        this.flushLock = new ReentrantLock();
+
+        this.updates = new LongAdder();
+        this.flushedUpdates = new AtomicLong();
+        this.writes = new AtomicLong();
+        this.failures = new AtomicLong();
+        this.flushes = new AtomicLong();
+        this.flushNanos = new AtomicLong();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            val thread = new Thread(runnable, "MongoHelper-write-behind-" + THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        val interval = options.flushInterval().toNanos();
+        this.scheduler.scheduleWithFixedDelay(this::flushInBackground, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Queues the {@code $set} of {@code fieldName} to {@code value} for the document with {@code uniqueValue}, replacing
+     * a pending {@code set} or {@code inc} of the same field.
+     *
+     * @throws IllegalStateException If the queue stays full for {@link WriteBehindOptions#offerTimeout()}, or is closed.
+     */
+    public void set(@NotNull Object uniqueValue, @NotNull String fieldName, @Nullable Object value) {
+        val stored = this.storedSetValue(fieldName, value);
+        this.offer(uniqueValue, entry -> entry.set(fieldName, stored));
+    }
+
+    /**
+     * Queues the {@code $set} of {@code fieldNames} to their values in {@code datum}, like
+     * {@code update().one(datum, fieldNames)}.
+     *
+     * @throws IllegalStateException If the queue stays full for {@link WriteBehindOptions#offerTimeout()}, or is closed.
+     */
+    public void setFields(@NotNull M datum, @NotNull String @NotNull ... fieldNames) {
+        if (fieldNames.length == 0) {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+
+        val uniqueValue = this.getFieldValue(this.fields(), datum, this.fieldName);
+        val values = new Object[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            val field = this.fields().get(fieldNames[i]);
+            if (field == null) {
+                throw new NullPointerException("No such field: " + fieldNames[i]);
+            }
+            values[i] = this.storedSetValue(fieldNames[i], field.get(datum));
+        }
+
+        this.offer(uniqueValue, entry -> {
+            for (int i = 0; i < fieldNames.length; i++) {
+                entry.set(fieldNames[i], values[i]);
+            }
+        });
+    }
+
+    /**
+     * Queues the {@code $inc} of {@code fieldName} by {@code amount} for the document with {@code uniqueValue}.
+     *
+     * @throws IllegalArgumentException If a pending {@code set} of the field is not a number.
+     * @throws IllegalStateException    If the queue stays full for {@link WriteBehindOptions#offerTimeout()}, or is closed.
+     */
+    public void inc(@NotNull Object uniqueValue, @NotNull String fieldName, @NotNull Number amount) {
+        Objects.requireNonNull(amount, "amount");
+        this.offer(uniqueValue, entry -> entry.inc(fieldName, amount));
+    }
+
+    /**
+     * Writes every update pending at the time of the call on the calling thread, waiting for a running background
+     * flush first.
+     *
+     * @return The number of documents the updates were sent for.
+     * @throws com.mongodb.MongoException If a batch fails; its failed updates are dropped (see {@link #lastFailedKeys()}),
+     *                                    later ones stay pending.
+     */
+    public int flush() {
+        this.flushLock.lock();
+        try {
+            int remaining;
+            this.lock.lock();
+            try {
+                remaining = this.pending.size();
+            } finally {
+                this.lock.unlock();
+            }
+
+            int sent = 0;
+            while (remaining > 0) {
+                val batch = this.take(Math.min(remaining, this.options.flushSize()));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                remaining -= batch.size();
+                try {
+                    this.write(batch);
+                } finally {
+                    this.release();
+                }
+                sent += batch.size();
+            }
+            return sent;
+        } finally {
+            this.flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of unique values with pending updates, including those of a running flush.
+     */
+    public int depth() {
+        this.lock.lock();
+        try {
+            return this.pending.size() + this.inFlight;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public @NotNull WriteBehindOptions options() {
+        return this.options;
+    }
+
+    /**
+     * @return The failure of the last flush that failed, background ones included, or {@code null}.
+     */
+    public @Nullable RuntimeException lastFailure() {
+        return this.lastFailure;
+    }
+
+    /**
+     * @return The unique values whose updates the last failed flush dropped, in batch order: those the server rejected,
+     * or the whole batch when its outcome is unknown. Empty when no flush failed.
+     */
+    public @NotNull List<Object> lastFailedKeys() {
+        return this.lastFailedKeys;
+    }
+
+    public @NotNull Stats stats() {
+        val flushes = this.flushes.get();
+        return new Stats(
+                this.depth(),
+                this.updates.sum(),
+                this.flushedUpdates.get(),
+                this.writes.get(),
+                this.failures.get(),
+                flushes,
+                Duration.ofNanos(this.lastFlushNanos),
+                Duration.ofNanos(flushes == 0 ? 0 : this.flushNanos.get() / flushes)
+        );
+    }
+
+    /**
+     * Stops the background flushes and writes the remaining updates. Further updates are rejected.
+     */
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+
+        this.scheduler.shutdown();
+        this.flush();
+    }
+
+    private @Nullable Object storedSetValue(@NotNull String fieldName, @Nullable Object value) {
+        val field = this.fields().get(fieldName);
+        if (field == null) {
+            return value;
+        }
+        if (value == null && field.omitNull()) {
+            return UNSET;
+        }
+        return field.storedValue(value);
+    }
+
+    private void offer(@NotNull Object uniqueValue, @NotNull Consumer<Pending> update) {
+        Objects.requireNonNull(uniqueValue, this.fieldName + " unique value is null");
+        val key = this.storedKey(this.field, uniqueValue);
+
+        int size;
+        this.lock.lock();
+        try {
+            this.ensureOpen();
+            var entry = this.pending.get(key);
+            if (entry == null) {
+                this.awaitRoom();
+                entry = this.pending.computeIfAbsent(key, k -> new Pending());
+            }
+            entry.alias(uniqueValue);
+            update.accept(entry);
+            entry.updates++;
+            size = this.pending.size();
+        } finally {
+            this.lock.unlock();
+        }
+
+        this.updates.increment();
+        if (size >= this.options.flushSize()) {
+            this.requestFlush();
+        }
+    }
+
+    /**
+     * Waits, holding {@link #lock}, until a new unique value fits into the queue.
+     */
+    private void awaitRoom() {
+        var nanos = this.options.offerTimeout().toNanos();
+        while (this.pending.size() + this.inFlight >= this.options.capacity()) {
+            this.requestFlush();
+            if (nanos <= 0) {
+                throw new IllegalStateException("Write-behind queue of '" + this.model.modelName() + "' is full");
+            }
+            try {
+                nanos = this.notFull.awaitNanos(nanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for room in the write-behind queue", e);
+            }
+            this.ensureOpen();
+        }
+    }
+
+    private void ensureOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("Write-behind queue of '" + this.model.modelName() + "' is closed");
+        }
+    }
+
+    private void requestFlush() {
+        if (this.flushRequested.compareAndSet(false, true)) {
+            try {
+                this.scheduler.execute(this::flushInBackground);
+            } catch (RejectedExecutionException e) {
+                this.flushRequested.set(false);
+            }
+        }
+    }
+
+    private void flushInBackground() {
+        this.flushRequested.set(false);
+        try {
+            this.flush();
+        } catch (RuntimeException ignored) {
+            // Kept in lastFailure and counted in the stats.
+        }
+    }
+
+    /**
+     * Removes up to {@code count} of the oldest pending values, which count against the capacity until they are
+     * {@linkplain #release() released}.
+     */
+    private @NotNull List<Pending> take(int count) {
+        this.lock.lock();
+        try {
+            val batch = new ArrayList<Pending>(Math.min(count, this.pending.size()));
+            val iterator = this.pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < count) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            this.inFlight = batch.size();
+            return batch;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void release() {
+        this.lock.lock();
+        try {
+            this.inFlight = 0;
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void write(@NotNull List<Pending> batch) {
+        val requests = new ArrayList<WriteModel<M>>(batch.size());
+        for (val entry : batch) {
+            requests.add(new UpdateOneModel<>(this.eq(this.fieldName, entry.uniqueValue()), entry.update()));
+        }
+
+        val start = System.nanoTime();
+        try {
+            this.collection().bulkWrite(requests, new BulkWriteOptions().ordered(false));
+            this.written(batch);
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() != null) {
+                // The requests may have been applied or not.
+                this.failed(batch, e);
+            } else {
+                // The batch is unordered, so every request without a write error was applied.
+                val rejected = new HashSet<Integer>();
+                for (val error : e.getWriteErrors()) {
+                    rejected.add(error.getIndex());
+                }
+                val applied = new ArrayList<Pending>(batch.size() - rejected.size());
+                val dropped = new ArrayList<Pending>(rejected.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    (rejected.contains(i) ? dropped : applied).add(batch.get(i));
+                }
+                this.written(applied);
+                this.failed(dropped, e);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            this.failed(batch, e);
+            throw e;
+        } finally {
+            val elapsed = System.nanoTime() - start;
+            this.lastFlushNanos = elapsed;
+            this.flushNanos.addAndGet(elapsed);
+            this.flushes.incrementAndGet();
+
+            // The near cache is keyed by the values as given, so every alias of a written document is dropped.
+            val uniqueValues = new ArrayList<Object>(batch.size());
+            for (val entry : batch) {
+                uniqueValues.addAll(entry.uniqueValues);
+            }
+            this.invalidate(this.fieldName, uniqueValues);
+        }
+    }
+
+    private void written(@NotNull List<Pending> entries) {
+        long updates = 0;
+        for (val entry : entries) {
+            updates += entry.updates;
+        }
+        this.flushedUpdates.addAndGet(updates);
+        this.writes.addAndGet(entries.size());
+    }
+
+    private void failed(@NotNull List<Pending> entries, @NotNull RuntimeException failure) {
+        this.failures.addAndGet(entries.size());
+        this.lastFailedKeys = entries.stream().map(Pending::uniqueValue).toList();
+        this.lastFailure = failure;
+    }
+
+    private static @NotNull Number add(@NotNull Number a, @NotNull Number b) {
+        if (a instanceof Integer x && b instanceof Integer y) {
+            val sum = (long) x + y;
+            return sum == (int) sum ? (Number) (int) sum : (Number) sum;
+        }
+        if (integral(a) && integral(b)) {
+            return a.longValue() + b.longValue();
+        }
+        return a.doubleValue() + b.doubleValue();
+    }
+
+    private static boolean integral(@NotNull Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+    }
+
+    /**
+     * The counters of a {@link WriteBehindQueue}.
+     *
+     * @param depth               The number of unique values with pending updates.
+     * @param updates             The {@code set} and {@code inc} calls accepted so far.
+     * @param flushedUpdates      The accepted calls that a flush wrote.
+     * @param writes              The documents a flush wrote, one per unique value and flush.
+     * @param failures            The documents whose updates were dropped by a failed flush.
+     * @param flushes             The {@code bulkWrite} batches sent.
+     * @param lastFlushLatency    How long the last batch took.
+     * @param averageFlushLatency How long a batch took on average.
+     */
+    public record Stats(
+            int depth,
+            long updates,
+            long flushedUpdates,
+            long writes,
+            long failures,
+            long flushes,
+            @NotNull Duration lastFlushLatency,
+            @NotNull Duration averageFlushLatency
+    ) {
+        /**
+         * @return The updates merged into every written document on average; {@code 1.0} means nothing was coalesced.
+         */
+        public double coalescingRatio() {
+            return this.writes == 0 ? 0.0 : (double) this.flushedUpdates / this.writes;
+        }
+    }
+
+    private static final class Pending {
+        private final ArrayList<Object> uniqueValues = new ArrayList<>(1);
+        private final LinkedHashMap<String, Object> sets = new LinkedHashMap<>();
+        private final LinkedHashMap<String, Number> incs = new LinkedHashMap<>();
+        private int updates;
+
+        /**
+         * Returns the unique value the first update was queued with, which addresses the document.
+         */
+        private @NotNull Object uniqueValue() {
+            return this.uniqueValues.get(0);
+        }
+
+        private void alias(@NotNull Object uniqueValue) {
+            if (!this.uniqueValues.contains(uniqueValue)) {
+                this.uniqueValues.add(uniqueValue);
+            }
+        }
+
+        private void set(@NotNull String fieldName, @Nullable Object value) {
+            this.incs.remove(fieldName);
+            this.sets.put(fieldName, value);
+        }
+
+        private void inc(@NotNull String fieldName, @NotNull Number amount) {
+            if (this.sets.containsKey(fieldName)) {
+                if (!(this.sets.get(fieldName) instanceof Number value)) {
+                    throw new IllegalArgumentException("Cannot inc " + fieldName + ", its pending value is not a number");
+                }
+                this.sets.put(fieldName, add(value, amount));
+            } else {
+                this.incs.merge(fieldName, amount, WriteBehindQueue::add);
+            }
+        }
+
+        private @NotNull Bson update() {
+            val updates = new ArrayList<Bson>(this.sets.size() + this.incs.size());
+            this.sets.forEach((fieldName, value) -> updates.add(value == UNSET ? Updates.unset(fieldName) : Updates.set(fieldName, value)));
+            this.incs.forEach((fieldName, amount) -> updates.add(Updates.inc(fieldName, amount)));
+            return Updates.combine(updates);
+        }
+    }
+}
@@ -20,32 +20,33 @@
 
 package net.clydo.mongodb.schematic;
 
-import com.mongodb.MongoClientSettings;
-import com.mongodb.client.model.IndexOptions;
-import com.mongodb.client.model.Indexes;
 import lombok.val;
 import net.clydo.mongodb.MongoHelper;
 import net.clydo.mongodb.codec.CodecsHelper;
-import net.clydo.mongodb.codec.type.ClassCodecProvider;
+import net.clydo.mongodb.codec.uuid.UUIDStorage;
 import net.clydo.mongodb.loader.LoaderRegistry;
 import net.clydo.mongodb.loader.classes.values.MongoModelValue;
-import org.bson.codecs.configuration.CodecRegistries;
+import net.clydo.mongodb.operations.ModelFields;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MongoSchemaHelper {
     private final Set<String> schemas;
+    private final List<MongoModelValue<?>> models;
     private final MongoHelper mongoHelper;
     private final LoaderRegistry registry;
 
     public MongoSchemaHelper(MongoHelper mongoHelper) {
         this.schemas = new HashSet<>();
+        this.models = new CopyOnWriteArrayList<>();
 
         this.mongoHelper = mongoHelper;
         this.registry = new LoaderRegistry();
@@ -73,44 +74,76 @@ public class MongoSchemaHelper {
             final String schemaName,
             final CodecRegistry codecRegistry,
             final Class<?> @NotNull ... models
+    ) {
+        this.newSchema(schemaName, codecRegistry, UUIDStorage.DEFAULT, models);
+    }
+
+    public void newSchema(
+            final String schemaName,
+            final CodecRegistry codecRegistry,
+            final @NotNull UUIDStorage uuidStorage,
+            final Class<?> @NotNull ... models
+    ) {
+        this.newSchema(schemaName, codecRegistry, uuidStorage, 0, models);
+    }
+
+    /**
+     * Registers a schema and, when {@code warmUpRounds} is positive, builds all of its codecs eagerly and runs exactly that
+     * many encode/decode round-trips per model and nested type.
+     *
+     * @return How long the warm-up took, {@link Duration#ZERO} when it was skipped.
+     */
+    public @NotNull Duration newSchema(
+            final String schemaName,
+            final CodecRegistry codecRegistry,
+            final @NotNull UUIDStorage uuidStorage,
+            final int warmUpRounds,
+            final Class<?> @NotNull ... models
+    ) {
+        return this.newSchema(schemaName, codecRegistry, uuidStorage, new WarmUpOptions(Math.max(warmUpRounds, 0), null), models);
+    }
+
+    /**
+     * Registers a schema and, unless {@link WarmUpOptions#rounds()} is {@code 0}, builds all of its codecs eagerly and
+     * runs encode/decode round-trips of a representative document per model and nested type.
+     *
+     * @return How long the warm-up took, {@link Duration#ZERO} when it was skipped.
+     */
+    public @NotNull Duration newSchema(
+            final String schemaName,
+            final CodecRegistry codecRegistry,
+            final @NotNull UUIDStorage uuidStorage,
+            final @NotNull WarmUpOptions warmUp,
+            final Class<?> @NotNull ... models
     ) {
         val schemaHolder = this.addSchema(new MongoSchemaHolder(
                 this.mongoHelper.getMongoClient().getDatabase(schemaName)
-                        .withCodecRegistry(
-                                CodecRegistries.fromRegistries(
-                                        this.createCodecRegistry(codecRegistry)
-                                )
-                        ),
+                        .withCodecRegistry(CodecsHelper.createCodecRegistry(this, this.registry, codecRegistry, uuidStorage)),
                 this.registry
         ));
 
+        val holders = new ArrayList<MongoModelValue<?>>();
         for (Class<?> clazz : models) {
             val holder = this.registry.buildModel(clazz, schemaHolder);
             this.createIndexes(holder);
+            holders.add(holder);
+        }
+        this.models.addAll(holders);
+
+        if (warmUp.rounds() == 0) {
+            return Duration.ZERO;
         }
+        return new SchemaWarmUp(this.registry, schemaHolder.database().getCodecRegistry()).run(holders, warmUp);
     }
 
     private void createIndexes(@NotNull MongoModelValue<?> modelHolder) {
         val collection = modelHolder.collection();
         for (String unique : modelHolder.uniques()) {
-            collection.createIndex(Indexes.ascending(unique), new IndexOptions().name(modelHolder.modelName() + "_" + unique + "_key").unique(true));
+            val index = ModelFields.uniqueIndex(modelHolder.modelName(), unique);
+            collection.createIndex(index.getKeys(), index.getOptions());
         }
     }
 
-    private @NotNull ArrayList<CodecRegistry> createCodecRegistry(CodecRegistry codecRegistry) {
-        val codecRegistries = new ArrayList<>(Arrays.asList(
-                CodecRegistries.fromProviders(
-                        new ClassCodecProvider(this, this.registry)
-                ),
-                CodecsHelper.getDefaultCodecRegistry(),
-                MongoClientSettings.getDefaultCodecRegistry()
-        ));
-        if (codecRegistry != null) {
-            codecRegistries.add(codecRegistry);
-        }
-        return codecRegistries;
-    }
-
     public @NotNull <M> MongoModelValue<M> getModel(Class<M> clazz) {
         return this.registry.getModel(clazz);
     }
@@ -123,4 +156,25 @@ public class MongoSchemaHelper {
         }
     }
 
+    /**
+     * Flushes and closes the {@linkplain MongoModelValue#writeBehind() write-behind queues} of every registered model.
+     * Every queue is closed even if another one fails to flush; the first failure is thrown afterwards.
+     */
+    public void close() {
+        RuntimeException failure = null;
+        for (val model : this.models) {
+            try {
+                model.disableWriteBehind();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
 }
@@ -0,0 +1,273 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.schematic;
+
+import lombok.val;
+import net.clydo.mongodb.codec.type.TypeCodec;
+import net.clydo.mongodb.loader.LoaderRegistry;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.util.MongoUtil;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Builds the codecs of a schema ahead of the first request and runs representative round-trips through them.
+ * <p>
+ * Every model and every {@code @MongoType}/{@code @MongoEnum} reachable from its fields gets its codec created and its
+ * field codecs resolved. Each class with a codec then gets a representative instance: the one its codec decodes from an
+ * empty document, with every non-final field it can fill set to a sample value (strings, numbers, booleans, UUIDs,
+ * dates, the first enum constant, a nested representative, or a one-element collection or string-keyed map of those).
+ * That instance is encoded through {@link MongoUtil#toBsonDocument} and decoded back until
+ * {@link WarmUpOptions#rounds()} are done or {@link WarmUpOptions#maxDuration()} has passed for the whole schema.
+ */
+final class SchemaWarmUp {
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+    /**
+     * How deep nested types are filled with representatives of their own; deeper ones stay {@code null}, which also ends
+     * self-referencing types.
+     */
+    private static final int MAX_DEPTH = 3;
+
+    private final LoaderRegistry registry;
+    private final CodecRegistry codecRegistry;
+    private final Set<Class<?>> seen = new HashSet<>();
+    private final List<Class<?>> roundTrips = new ArrayList<>();
+
+    SchemaWarmUp(@NotNull LoaderRegistry registry, @NotNull CodecRegistry codecRegistry) {
+        this.registry = registry;
+        this.codecRegistry = codecRegistry;
+    }
+
+    /**
+     * Warms up the codecs reachable from {@code models} and returns how long it took.
+     */
+    @NotNull Duration run(@NotNull List<MongoModelValue<?>> models, @NotNull WarmUpOptions options) {
+        val start = System.nanoTime();
+        val maxDuration = options.maxDuration();
+        val budget = maxDuration != null ? maxDuration.toNanos() : Long.MAX_VALUE;
+
+        for (MongoModelValue<?> model : models) {
+            this.collect(model.type());
+        }
+        for (Class<?> clazz : this.roundTrips) {
+            this.roundTrip(clazz, options.rounds(), start, budget);
+        }
+
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private void collect(Type type) {
+        if (type instanceof ParameterizedType parameterizedType) {
+            this.collect(parameterizedType.getRawType());
+            for (Type argument : parameterizedType.getActualTypeArguments()) {
+                this.collect(argument);
+            }
+        } else if (type instanceof GenericArrayType arrayType) {
+            this.collect(arrayType.getGenericComponentType());
+        } else if (type instanceof WildcardType wildcardType) {
+            for (Type bound : wildcardType.getUpperBounds()) {
+                this.collect(bound);
+            }
+        } else if (type instanceof Class<?> clazz && !clazz.isPrimitive() && this.seen.add(clazz)) {
+            this.prepare(clazz);
+        }
+    }
+
+    private void prepare(@NotNull Class<?> clazz) {
+        if (clazz.isArray()) {
+            this.collect(clazz.getComponentType());
+            return;
+        }
+
+        final Codec<?> codec;
+        try {
+            codec = this.codecRegistry.get(clazz);
+        } catch (CodecConfigurationException e) {
+            return;
+        }
+
+        if (codec instanceof TypeCodec<?> typeCodec) {
+            typeCodec.resolveCodecs();
+        }
+
+        val holder = clazz.isEnum() ? null : this.registry.getModelOrType(clazz);
+        if (holder == null) {
+            return;
+        }
+
+        this.roundTrips.add(clazz);
+        for (val field : holder.fields().values()) {
+            this.collect(field.genericType());
+        }
+    }
+
+    private <T> void roundTrip(@NotNull Class<T> clazz, int rounds, long start, long budget) {
+        val codec = this.codecRegistry.get(clazz);
+
+        var instance = this.representative(clazz, 0);
+        if (instance == null) {
+            return;
+        }
+
+        for (int round = 0; round < rounds && System.nanoTime() - start < budget; round++) {
+            val document = MongoUtil.toBsonDocument(this.codecRegistry, clazz, instance);
+            instance = codec.decode(new BsonDocumentReader(document), DECODER_CONTEXT);
+        }
+    }
+
+    /**
+     * Returns an instance of {@code clazz} with sample values in every field that takes one, or {@code null} when its
+     * constructor rejects the defaults of an empty document; such classes are only built, not exercised.
+     */
+    private <T> @Nullable T representative(@NotNull Class<T> clazz, int depth) {
+        val codec = this.codecRegistry.get(clazz);
+
+        final T empty;
+        try {
+            empty = codec.decode(new BsonDocumentReader(new BsonDocument()), DECODER_CONTEXT);
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        val holder = this.registry.getModelOrType(clazz);
+        if (holder == null) {
+            return empty;
+        }
+
+        for (val field : holder.fields().values()) {
+            if (Modifier.isFinal(field.field().getModifiers())) {
+                continue;
+            }
+            val sample = this.sample(field.genericType(), depth);
+            if (sample == null) {
+                continue;
+            }
+
+            // A sample the codec cannot encode (a custom codec with its own invariants) leaves the field as it was.
+            val previous = field.get(empty);
+            field.accessor().set(empty, sample);
+            try {
+                MongoUtil.toBsonDocument(this.codecRegistry, clazz, empty);
+            } catch (RuntimeException e) {
+                field.accessor().set(empty, previous);
+            }
+        }
+
+        return codec.decode(new BsonDocumentReader(MongoUtil.toBsonDocument(this.codecRegistry, clazz, empty)), DECODER_CONTEXT);
+    }
+
+    private @Nullable Object sample(@NotNull Type type, int depth) {
+        if (type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() instanceof Class<?> raw) {
+            val arguments = parameterizedType.getActualTypeArguments();
+            if (Map.class.isAssignableFrom(raw) && raw.isAssignableFrom(HashMap.class) && arguments[0] == String.class) {
+                val value = this.sample(arguments[1], depth);
+                val map = new HashMap<String, Object>();
+                if (value != null) {
+                    map.put("warmUp", value);
+                }
+                return map;
+            }
+            if (Collection.class.isAssignableFrom(raw)) {
+                final Collection<Object> collection;
+                if (raw.isAssignableFrom(ArrayList.class)) {
+                    collection = new ArrayList<>();
+                } else if (raw.isAssignableFrom(LinkedHashSet.class)) {
+                    collection = new LinkedHashSet<>();
+                } else {
+                    return null;
+                }
+                val element = this.sample(arguments[0], depth);
+                if (element != null) {
+                    collection.add(element);
+                }
+                return collection;
+            }
+            return null;
+        }
+        if (!(type instanceof Class<?> clazz)) {
+            return null;
+        }
+
+        if (clazz == String.class) {
+            return "warm-up";
+        }
+        if (clazz == int.class || clazz == Integer.class) {
+            return 1;
+        }
+        if (clazz == long.class || clazz == Long.class) {
+            return 1L;
+        }
+        if (clazz == double.class || clazz == Double.class) {
+            return 1.0;
+        }
+        if (clazz == float.class || clazz == Float.class) {
+            return 1.0F;
+        }
+        if (clazz == boolean.class || clazz == Boolean.class) {
+            return true;
+        }
+        if (clazz == UUID.class) {
+            return new UUID(1L, 1L);
+        }
+        if (clazz == ObjectId.class) {
+            return new ObjectId();
+        }
+        if (clazz == Instant.class) {
+            return Instant.EPOCH;
+        }
+        if (clazz == Date.class) {
+            return new Date(0L);
+        }
+        if (clazz.isEnum()) {
+            val constants = clazz.getEnumConstants();
+            return constants.length > 0 ? constants[0] : null;
+        }
+        if (depth < MAX_DEPTH && this.roundTrips.contains(clazz)) {
+            return this.representative(clazz, depth + 1);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.schematic;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Settings of the codec warm-up of a schema, see
+ * {@link MongoSchemaHelper#newSchema(String, org.bson.codecs.configuration.CodecRegistry, net.clydo.mongodb.codec.uuid.UUIDStorage, WarmUpOptions, Class[])}.
+ *
+ * @param rounds      The number of encode/decode round-trips per model and nested type; {@code 0} skips the warm-up.
+ * @param maxDuration How long the round-trips of the whole schema may take before warm-up stops early, or {@code null}
+ *                    to always run every round.
+ */
+public record WarmUpOptions(int rounds, @Nullable Duration maxDuration) {
+    public static final int DEFAULT_ROUNDS = 5_000;
+    public static final Duration DEFAULT_MAX_DURATION = Duration.ofSeconds(5);
+
+    public WarmUpOptions {
+        if (rounds < 0) {
+            throw new IllegalArgumentException("rounds must not be negative");
+        }
+        if (maxDuration != null && (maxDuration.isNegative() || maxDuration.isZero())) {
+            throw new IllegalArgumentException("maxDuration must be positive");
+        }
+    }
+
+    /**
+     * {@value #DEFAULT_ROUNDS} rounds, stopping after 5 seconds.
+     */
+    @Contract(" -> new")
+    public static @NotNull WarmUpOptions defaults() {
+        return new WarmUpOptions(DEFAULT_ROUNDS, DEFAULT_MAX_DURATION);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull WarmUpOptions withRounds(int rounds) {
+        return new WarmUpOptions(rounds, this.maxDuration);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull WarmUpOptions withMaxDuration(@Nullable Duration maxDuration) {
+        return new WarmUpOptions(this.rounds, maxDuration);
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+
+package net.clydo.mongodb.tracking;
+
+import lombok.val;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.loader.classes.values.MongoMutableField;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers what the fields of decoded entities looked like, so updates can send only the fields that changed since.
+ * <p>
+ * A snapshot is one 64-bit FNV-1a hash of the encoded BSON of every field (except {@code _id}), keyed weakly by the
+ * identity of the entity: snapshots never keep entities alive and entities with custom {@code equals} do not collide.
+ *
+ * @param <M> The type of the model.
+ */
+public final class ChangeTracker<M> {
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_HASH = 0L;
+
+    private final MongoModelValue<M> model;
+    private final ConcurrentHashMap<Key, long[]> snapshots = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    private volatile Slots slots;
+
+    public ChangeTracker(@NotNull MongoModelValue<M> model) {
+        this.model = model;
+    }
+
+    /**
+     * Records the current state of {@code datum} as its snapshot.
+     */
+    public void capture(@NotNull M datum) {
+        this.commit(datum, this.fingerprint(datum));
+    }
+
+    /**
+     * Compares {@code datum} with its snapshot.
+     *
+     * @return The changed fields together with the state to {@link #commit} once they are written, or {@code null} when
+     * {@code datum} has no snapshot.
+     */
+    public @Nullable Changes diff(@NotNull M datum) {
+        val snapshot = this.snapshots.get(new Key(datum, null));
+        if (snapshot == null) {
+            return null;
+        }
+
+        val slots = this.slots();
+        val current = this.fingerprint(datum);
+        val changed = new ArrayList<String>();
+        for (int slot = 0; slot < current.length; slot++) {
+            if (current[slot] != snapshot[slot]) {
+                changed.add(slots.names[slot]);
+            }
+        }
+        return new Changes(changed, current);
+    }
+
+    /**
+     * Replaces the snapshot of {@code datum} with a state returned by {@link #diff}.
+     */
+    public void commit(@NotNull M datum, long @NotNull [] fingerprints) {
+        this.expunge();
+        this.snapshots.put(new Key(datum, this.collected), fingerprints);
+    }
+
+    /**
+     * Drops the snapshot of {@code datum}, if any.
+     */
+    public void forget(@NotNull M datum) {
+        this.snapshots.remove(new Key(datum, null));
+    }
+
+    private long @NotNull [] fingerprint(@NotNull M datum) {
+        val slots = this.slots();
+        val fingerprints = new long[slots.names.length];
+        val buffer = new BasicOutputBuffer();
+
+        for (int slot = 0; slot < fingerprints.length; slot++) {
+            val value = slots.fields[slot].get(datum);
+            if (value == null) {
+                fingerprints[slot] = NULL_HASH;
+                continue;
+            }
+
+            buffer.truncateToPosition(0);
+            try (val writer = new BsonBinaryWriter(buffer)) {
+                writer.writeStartDocument();
+                writer.writeName("v");
+                ENCODER_CONTEXT.encodeWithChildContext(slots.codecs.get(slot), writer, value);
+                writer.writeEndDocument();
+            }
+            fingerprints[slot] = hash(buffer.getInternalBuffer(), buffer.getPosition());
+        }
+        return fingerprints;
+    }
+
+    private static long hash(byte[] bytes, int length) {
+        var hash = FNV_OFFSET;
+        for (int i = 0; i < length; i++) {
+            hash ^= bytes[i] & 0xff;
+            hash *= FNV_PRIME;
+        }
+        // Keep NULL_HASH reserved for null values.
+        return hash == NULL_HASH ? 1L : hash;
+    }
+
+    private @NotNull Slots slots() {
+        var slots = this.slots;
+        if (slots == null) {
+            val registry = this.model.collection().getCodecRegistry();
+            val names = new ArrayList<String>();
+            val fields = new ArrayList<MongoMutableField>();
+            val codecs = new ArrayList<Codec<Object>>();
+            this.model.fields().forEach((name, field) -> {
+                if (!"_id".equals(name)) {
+                    names.add(name);
+                    fields.add(field);
+                    codecs.add(field.codec(registry));
+                }
+            });
+            slots = new Slots(names.toArray(String[]::new), fields.toArray(MongoMutableField[]::new), List.copyOf(codecs));
+            this.slots = slots;
+        }
+        return slots;
+    }
+
+    private void expunge() {
+        Object stale;
+        while ((stale = this.collected.poll()) != null) {
+            this.snapshots.remove((Key) stale);
+        }
+    }
+
+    /**
+     * The fields of an entity that differ from its snapshot.
+     *
+     * @param fields       The names of the changed fields.
+     * @param fingerprints The state to {@link #commit} after the change is written.
+     */
+    public record Changes(List<String> fields, long[] fingerprints) {
+        public boolean isEmpty() {
+            return this.fields.isEmpty();
+        }
+    }
+
+    private record Slots(String[] names, MongoMutableField[] fields, List<Codec<Object>> codecs) {
+    }
+
+    private static final class Key extends WeakReference<Object> {
+        private final int hash;
+
+        private Key(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key that)) return false;
+            val referent = this.get();
+            return referent != null && referent == that.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.cache;
+
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.annotations.MongoUnique;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.testing.TestCollections;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class NearCacheTest {
+
+    @ParameterizedTest
+    @EnumSource(NearCacheOptions.Storage.class)
+    void cachedEntitiesKeepTheirId(NearCacheOptions.Storage storage) {
+        val cache = new NearCache<>(model(), "name", NearCacheOptions.defaults().offHeap(1024 * 1024).withStorage(storage));
+
+        val loaded = new Player();
+        loaded.id = new ObjectId();
+        loaded.name = "alice";
+        loaded.level = 3;
+
+        assertSame(loaded, cache.get("alice", name -> loaded));
+        val cached = cache.get("alice", name -> {
+            throw new AssertionError("The entity was not cached");
+        });
+
+        if (storage != NearCacheOptions.Storage.OBJECT) {
+            assertNotSame(loaded, cached);
+        }
+        assertEquals(loaded.id, cached.id);
+        assertEquals("alice", cached.name);
+        assertEquals(3, cached.level);
+    }
+
+    private static MongoModelValue<Player> model() {
+        return TestCollections.fake(Player.class, List.of("name"), (proxy, method, args) -> {
+            throw TestCollections.unsupported(method);
+        });
+    }
+
+    @MongoType
+    public static class Player {
+        @MongoField("_id")
+        public ObjectId id;
+
+        @MongoUnique
+        @MongoField("name")
+        public String name;
+
+        @MongoField("level")
+        public int level;
+    }
+}
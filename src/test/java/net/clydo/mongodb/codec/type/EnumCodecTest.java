@@ -0,0 +1,100 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.codec.type;
+
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoEnum;
+import net.clydo.mongodb.annotations.MongoMapAs;
+import net.clydo.mongodb.loader.enums.values.MongoEnumValue;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * An {@link EnumCodec} writes the configured storage and reads both, so documents written before a storage change still
+ * decode.
+ */
+class EnumCodecTest {
+
+    @Test
+    void int32StorageWritesCodes() {
+        val codec = new EnumCodec<>(Tier.class, MongoEnumValue.of(Tier.class));
+
+        assertEquals(new BsonInt32(7), encode(codec, Tier.GOLD));
+    }
+
+    @Test
+    void int32StorageReadsLegacyStrings() {
+        val codec = new EnumCodec<>(Tier.class, MongoEnumValue.of(Tier.class));
+
+        assertEquals(Tier.GOLD, decode(codec, new BsonString("gold")));
+        assertEquals(Tier.BRONZE, decode(codec, new BsonInt32(0)));
+    }
+
+    @Test
+    void stringStorageWritesKeysAndReadsCodes() {
+        val codec = new EnumCodec<>(Rank.class, MongoEnumValue.of(Rank.class));
+
+        assertEquals(new BsonString("hi"), encode(codec, Rank.HIGH));
+        assertEquals(Rank.HIGH, decode(codec, new BsonInt32(2)));
+    }
+
+    private static <E extends Enum<E>> BsonValue encode(EnumCodec<E> codec, E value) {
+        val document = new BsonDocument();
+        try (val writer = new BsonDocumentWriter(document)) {
+            writer.writeStartDocument();
+            writer.writeName("v");
+            codec.encode(writer, value, EncoderContext.builder().build());
+            writer.writeEndDocument();
+        }
+        return document.get("v");
+    }
+
+    private static <E extends Enum<E>> E decode(EnumCodec<E> codec, BsonValue value) {
+        try (val reader = new BsonDocumentReader(new BsonDocument("v", value))) {
+            reader.readStartDocument();
+            reader.readName();
+            return codec.decode(reader, DecoderContext.builder().build());
+        }
+    }
+
+    @MongoEnum(storage = MongoEnum.Storage.INT32)
+    public enum Tier {
+        @MongoMapAs(value = "bronze", code = 0)
+        BRONZE,
+        @MongoMapAs(value = "gold", code = 7)
+        GOLD
+    }
+
+    public enum Rank {
+        @MongoMapAs(value = "lo", code = 1)
+        LOW,
+        @MongoMapAs(value = "hi", code = 2)
+        HIGH
+    }
+}
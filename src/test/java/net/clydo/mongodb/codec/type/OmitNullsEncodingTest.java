@@ -0,0 +1,117 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.codec.type;
+
+import com.mongodb.MongoClientSettings;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.loader.LoaderRegistry;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A field with {@link MongoField#omitNull()} is left out of the document when it is {@code null}, which makes a mostly
+ * empty document smaller than the same fields written as BSON null, and decodes back to {@code null}.
+ */
+class OmitNullsEncodingTest {
+
+    @Test
+    void omittedNullsShrinkTheDocumentAndDecodeAsNull() {
+        val registry = CodecRegistries.fromRegistries(
+                CodecRegistries.fromProviders(new ClassCodecProvider(null, new LoaderRegistry())),
+                MongoClientSettings.getDefaultCodecRegistry()
+        );
+
+        val dense = new Dense();
+        dense.name = "player";
+        val sparse = new Sparse();
+        sparse.name = "player";
+
+        val denseBytes = encode(registry, Dense.class, dense);
+        val sparseBytes = encode(registry, Sparse.class, sparse);
+
+        assertEquals(Set.of("name", "nickname", "guild", "lastSeen"), new RawBsonDocument(denseBytes).keySet());
+        assertEquals(Set.of("name"), new RawBsonDocument(sparseBytes).keySet());
+        assertTrue(sparseBytes.length < denseBytes.length, sparseBytes.length + " bytes sparse, " + denseBytes.length + " bytes with nulls");
+
+        try (val reader = new BsonBinaryReader(ByteBuffer.wrap(sparseBytes))) {
+            val decoded = registry.get(Sparse.class).decode(reader, DecoderContext.builder().build());
+            assertEquals("player", decoded.name);
+            assertNull(decoded.nickname);
+            assertNull(decoded.guild);
+            assertNull(decoded.lastSeen);
+        }
+    }
+
+    private static <T> byte[] encode(CodecRegistry registry, Class<T> type, T value) {
+        final Codec<T> codec = registry.get(type);
+        val buffer = new BasicOutputBuffer();
+        try (val writer = new BsonBinaryWriter(buffer)) {
+            codec.encode(writer, value, EncoderContext.builder().build());
+        }
+        return buffer.toByteArray();
+    }
+
+    @MongoType
+    public static class Dense {
+        @MongoField("name")
+        public String name;
+
+        @MongoField("nickname")
+        public String nickname;
+
+        @MongoField("guild")
+        public String guild;
+
+        @MongoField("lastSeen")
+        public Long lastSeen;
+    }
+
+    @MongoType
+    public static class Sparse {
+        @MongoField(value = "name", omitNull = true)
+        public String name;
+
+        @MongoField(value = "nickname", omitNull = true)
+        public String nickname;
+
+        @MongoField(value = "guild", omitNull = true)
+        public String guild;
+
+        @MongoField(value = "lastSeen", omitNull = true)
+        public Long lastSeen;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.codec.type;
+
+import com.mongodb.MongoClientSettings;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.loader.LoaderRegistry;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonReader;
+import org.bson.BsonReaderMark;
+import org.bson.BsonType;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.io.BasicOutputBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Decoding a model of {@code int}, {@code long}, {@code double} and {@code boolean} fields must not allocate anything
+ * but the instance itself.
+ * <p>
+ * Allocations are counted with the per-thread counter of {@link com.sun.management.ThreadMXBean} over many decodes,
+ * after enough rounds for the JIT to compile the decode path. What the reader allocates to walk the same document
+ * (field names longer than one character are read into new strings) is measured separately and not charged to the
+ * codec.
+ */
+class TypeCodecAllocationTest {
+    private static final int WARM_UP_ROUNDS = 50_000;
+    private static final int ROUNDS = 10_000;
+
+    /**
+     * Written by every round so neither the instances nor their allocation can be optimized away.
+     */
+    static volatile Object sink;
+
+    @Test
+    void decodingPrimitiveFieldsOnlyAllocatesTheInstance() {
+        val loader = new LoaderRegistry();
+        val registry = CodecRegistries.fromRegistries(
+                CodecRegistries.fromProviders(new ClassCodecProvider(null, loader)),
+                MongoClientSettings.getDefaultCodecRegistry()
+        );
+        final Codec<Flat> codec = registry.get(Flat.class);
+
+        val flat = new Flat();
+        flat.score = 7;
+        flat.balance = 1L << 40;
+        flat.ratio = 0.25;
+        flat.active = true;
+
+        val buffer = new BasicOutputBuffer();
+        try (val writer = new BsonBinaryWriter(buffer)) {
+            codec.encode(writer, flat, EncoderContext.builder().build());
+        }
+
+        val decoderContext = DecoderContext.builder().build();
+        try (val reader = new BsonBinaryReader(ByteBuffer.wrap(buffer.toByteArray()))) {
+            val mark = reader.getMark();
+
+            val decoded = codec.decode(reader, decoderContext);
+            assertEquals(7, decoded.score);
+            assertEquals(1L << 40, decoded.balance);
+            assertEquals(0.25, decoded.ratio);
+            assertTrue(decoded.active);
+
+            val perDecode = measure(() -> {
+                mark.reset();
+                sink = codec.decode(reader, decoderContext);
+            });
+            val perWalk = measure(() -> {
+                mark.reset();
+                walk(reader);
+                sink = new Flat();
+            });
+
+            assertTrue(
+                    perDecode <= perWalk,
+                    "Decoding allocated " + perDecode + " bytes per document, walking it and allocating the instance " + perWalk
+            );
+        }
+    }
+
+    private static void walk(BsonReader reader) {
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            reader.readName();
+            reader.skipValue();
+        }
+        reader.readEndDocument();
+    }
+
+    /**
+     * @return The bytes allocated by the current thread per run of {@code round}, once it is compiled.
+     */
+    private static long measure(Runnable round) {
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            round.run();
+        }
+
+        val threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        val before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ROUNDS; i++) {
+            round.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / ROUNDS;
+    }
+
+    @MongoType
+    public static class Flat {
+        @MongoField("score")
+        public int score;
+
+        @MongoField("balance")
+        public long balance;
+
+        @MongoField("ratio")
+        public double ratio;
+
+        @MongoField("active")
+        public boolean active;
+
+        public Flat() {
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.codec.uuid;
+
+import lombok.val;
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.UuidRepresentation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UUIDMigrationsTest {
+    private static final UUID ID = UUID.fromString("6f1b2c3d-4e5f-4a6b-8c7d-9e0f1a2b3c4d");
+
+    @Test
+    void convertsTopLevelAndEmbeddedValues() {
+        val document = new BsonDocument("id", new BsonString(ID.toString()))
+                .append("owner", new BsonDocument("id", new BsonBinary(ID)));
+
+        assertEquals(new BsonBinary(ID), UUIDMigrations.converted(document, "id", true));
+        assertEquals(new BsonString(ID.toString()), UUIDMigrations.converted(document, "owner.id", false));
+    }
+
+    @Test
+    void skipsValuesThatAreNotUuids() {
+        val document = new BsonDocument("name", new BsonString("not a uuid"))
+                .append("legacy", new BsonBinary(ID, UuidRepresentation.JAVA_LEGACY))
+                .append("generic", new BsonBinary(BsonBinarySubType.BINARY, new byte[16]))
+                .append("short", new BsonBinary(BsonBinarySubType.UUID_STANDARD, new byte[5]))
+                .append("owners", new BsonArray(List.of(new BsonDocument("id", new BsonString(ID.toString())))));
+
+        assertNull(UUIDMigrations.converted(document, "name", true));
+        assertNull(UUIDMigrations.converted(document, "legacy", false));
+        assertNull(UUIDMigrations.converted(document, "generic", false));
+        assertNull(UUIDMigrations.converted(document, "short", false));
+        assertNull(UUIDMigrations.converted(document, "owners.id", true));
+        assertNull(UUIDMigrations.converted(document, "missing.id", true));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.loader;
+
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hundreds of threads resolving the same types of a fresh {@link LoaderRegistry} at once must all see the single value
+ * that was built, including the nested and self-referencing types built as a side effect.
+ */
+class LoaderRegistryConcurrencyTest {
+    private static final int THREADS = 200;
+    private static final int REGISTRIES = 20;
+
+    @Test
+    void concurrentLoadsBuildEveryTypeOnce() throws Exception {
+        val pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int i = 0; i < REGISTRIES; i++) {
+                val registry = new LoaderRegistry();
+                val barrier = new CyclicBarrier(THREADS);
+
+                val futures = new ArrayList<Future<Object[]>>();
+                for (int thread = 0; thread < THREADS; thread++) {
+                    futures.add(pool.submit(() -> {
+                        barrier.await();
+                        return new Object[]{registry.getModelOrType(Order.class), registry.getModelOrType(Line.class)};
+                    }));
+                }
+
+                val orders = Collections.newSetFromMap(new IdentityHashMap<>());
+                val lines = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (Future<Object[]> future : futures) {
+                    val values = future.get(30, TimeUnit.SECONDS);
+                    assertNotNull(values[0]);
+                    assertNotNull(values[1]);
+                    orders.add(values[0]);
+                    lines.add(values[1]);
+                }
+
+                assertEquals(1, orders.size(), "Order was built more than once");
+                assertEquals(1, lines.size(), "Line was built more than once");
+                assertSame(registry.getModelOrType(Line.class), only(lines));
+            }
+        } finally {
+            shutdown(pool);
+        }
+    }
+
+    private static Object only(Set<Object> values) {
+        return values.iterator().next();
+    }
+
+    private static void shutdown(ExecutorService pool) throws InterruptedException {
+        pool.shutdownNow();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @MongoType
+    public static class Order {
+        @MongoField("lines")
+        public List<Line> lines;
+
+        @MongoField("parent")
+        public Order parent;
+    }
+
+    @MongoType
+    public static class Line {
+        @MongoField("sku")
+        public String sku;
+
+        @MongoField("next")
+        public Line next;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.loader.enums.values;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Lookups in an {@link EnumKeyTable}, both in buckets whose keys differ at one character position and in buckets that
+ * fall back to comparing every key.
+ */
+class EnumKeyTableTest {
+
+    @Test
+    void findsKeysByTheirDistinguishingPosition() {
+        // Length 2 keys differ at position 1 only; "b" is alone in its bucket.
+        val table = EnumKeyTable.of(new String[]{"ab", "ac", "ba", "b"}, new Integer[]{0, 1, 2, 3});
+
+        assertEquals(0, table.get("ab"));
+        assertEquals(1, table.get("ac"));
+        assertEquals(2, table.get("ba"));
+        assertEquals(3, table.get("b"));
+        // Same character at the position as "ab", but another key
+        assertNull(table.get("bb"));
+        assertNull(table.get("ad"));
+    }
+
+    @Test
+    void findsKeysWithoutADistinguishingPosition() {
+        // Every position of these keys repeats a character.
+        val table = EnumKeyTable.of(new String[]{"ab", "ba", "aa", "bb"}, new Integer[]{0, 1, 2, 3});
+
+        assertEquals(0, table.get("ab"));
+        assertEquals(1, table.get("ba"));
+        assertEquals(2, table.get("aa"));
+        assertEquals(3, table.get("bb"));
+        assertNull(table.get("ac"));
+    }
+
+    @Test
+    void missesKeysOfUnknownLengths() {
+        val table = EnumKeyTable.of(new String[]{"one", "three"}, new Integer[]{1, 3});
+
+        assertNull(table.get(""));
+        assertNull(table.get("four"));
+        assertNull(table.get("eleven"));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.loader.enums.values;
+
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoEnum;
+import net.clydo.mongodb.annotations.MongoMapAs;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Building the {@code @MongoMapAs} mapping of an enum, including the validation of its keys and codes.
+ */
+class MongoEnumValueTest {
+
+    @Test
+    void mapsKeysAndCodes() {
+        val value = MongoEnumValue.of(Tier.class);
+
+        assertEquals(MongoEnum.Storage.INT32, value.storage());
+        assertEquals("g", value.encode(Tier.GOLD));
+        assertEquals(7, value.encodeCode(Tier.GOLD));
+        assertEquals(Tier.GOLD, value.decode("g"));
+        assertEquals(Tier.GOLD, value.decode(7));
+        assertEquals(Tier.BRONZE, value.decode(0));
+        assertNull(value.decode(1));
+        assertNull(value.decode(8));
+        assertNull(value.decode(-1));
+        assertNull(value.decode("x"));
+    }
+
+    @Test
+    void stringStorageNeedsNoCodes() {
+        val value = MongoEnumValue.of(Color.class);
+
+        assertEquals(MongoEnum.Storage.STRING, value.storage());
+        assertEquals(-1, value.encodeCode(Color.RED));
+        assertNull(value.decode(0));
+    }
+
+    @Test
+    void rejectsDuplicateKeys() {
+        val thrown = assertThrows(IllegalStateException.class, () -> MongoEnumValue.of(DuplicateKey.class));
+        assertTrue(thrown.getMessage().contains("'a'"));
+    }
+
+    @Test
+    void rejectsDuplicateCodes() {
+        val thrown = assertThrows(IllegalStateException.class, () -> MongoEnumValue.of(DuplicateCode.class));
+        assertTrue(thrown.getMessage().contains("code 3"));
+    }
+
+    @Test
+    void rejectsMissingAndOutOfRangeCodes() {
+        assertThrows(IllegalStateException.class, () -> MongoEnumValue.of(MissingCode.class));
+        assertThrows(IllegalStateException.class, () -> MongoEnumValue.of(LargeCode.class));
+    }
+
+    @MongoEnum(storage = MongoEnum.Storage.INT32)
+    public enum Tier {
+        @MongoMapAs(value = "b", code = 0)
+        BRONZE,
+        @MongoMapAs(value = "g", code = 7)
+        GOLD
+    }
+
+    public enum Color {
+        @MongoMapAs("r")
+        RED,
+        @MongoMapAs("gr")
+        GREEN
+    }
+
+    public enum DuplicateKey {
+        @MongoMapAs("a")
+        FIRST,
+        @MongoMapAs("a")
+        SECOND
+    }
+
+    @MongoEnum(storage = MongoEnum.Storage.INT32)
+    public enum DuplicateCode {
+        @MongoMapAs(value = "a", code = 3)
+        FIRST,
+        @MongoMapAs(value = "b", code = 3)
+        SECOND
+    }
+
+    @MongoEnum(storage = MongoEnum.Storage.INT32)
+    public enum MissingCode {
+        @MongoMapAs(value = "a", code = 0)
+        FIRST,
+        @MongoMapAs("b")
+        SECOND
+    }
+
+    @MongoEnum(storage = MongoEnum.Storage.INT32)
+    public enum LargeCode {
+        @MongoMapAs(value = "a", code = 65536)
+        FIRST
+    }
+}
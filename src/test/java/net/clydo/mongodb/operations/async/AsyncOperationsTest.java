@@ -0,0 +1,123 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.async;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.model.Filters;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.annotations.MongoUnique;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.testing.TestCollections;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link AsyncOperations} against a fake collection that records the threads it is called from, so no server is needed.
+ */
+class AsyncOperationsTest {
+
+    @Test
+    void readmeExampleRunsOffTheCallingThread() {
+        val alice = new Player("alice", 120);
+        val threads = ConcurrentHashMap.<Thread>newKeySet();
+        val model = model(alice, threads);
+
+        val user = model.async().find(find -> find.firstByUnique("alice"));
+        val count = model.async().count(c -> c.raw(Filters.gt("score", 100)));
+        CompletableFuture.allOf(user, count).join();
+
+        assertSame(alice, user.join());
+        assertEquals(2L, count.join());
+        assertFalse(threads.isEmpty());
+        assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    void customExecutorRunsEveryOperationAndPassesFailuresOn() {
+        val tasks = new AtomicInteger();
+        final Executor executor = task -> {
+            tasks.incrementAndGet();
+            task.run();
+        };
+        val model = model(new Player("bob", 10), ConcurrentHashMap.newKeySet());
+        val async = model.async(executor);
+
+        assertEquals(2L, async.count(c -> c.raw("score", 10)).join());
+        assertEquals("bob", async.run(m -> m.find().firstByUnique("bob").name).join());
+
+        val failed = async.find(find -> find.many(Filters.eq("name", "carol")));
+        val thrown = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(UnsupportedOperationException.class, thrown.getCause());
+        assertEquals(3, tasks.get());
+    }
+
+    private static MongoModelValue<Player> model(Player stored, Set<Thread> threads) {
+        final FindIterable<Player> iterable = TestCollections.proxy(FindIterable.class, (proxy, method, args) -> switch (method) {
+            case "first" -> stored;
+            default -> throw TestCollections.unsupported(method);
+        });
+        return TestCollections.fake(Player.class, List.of("name"), (proxy, method, args) -> {
+            threads.add(Thread.currentThread());
+            return switch (method) {
+                case "find" -> {
+                    if (args[0].toString().contains("carol")) {
+                        throw TestCollections.unsupported(method);
+                    }
+                    yield iterable;
+                }
+                case "countDocuments" -> 2L;
+                default -> throw TestCollections.unsupported(method);
+            };
+        });
+    }
+
+    @MongoType
+    public static class Player {
+        @MongoUnique
+        @MongoField("name")
+        public String name;
+
+        @MongoField("score")
+        public int score;
+
+        public Player() {
+        }
+
+        Player(String name, int score) {
+            this.name = name;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.bulk;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.testing.TestCollections;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Bulk updates and upserts against a collection whose {@code bulkWrite} rejects the items named in {@code failing}, the
+ * way a server reports duplicate keys: an ordered batch stops at its first error, an unordered one reports all of them.
+ */
+class BulkWriteTest {
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Test
+    void unorderedUpdateMapsErrorIndexesAcrossBatches() {
+        val commands = new AtomicInteger();
+        val model = model(commands, Set.of("b", "d"));
+        val items = items("a", "b", "c", "d", "e");
+
+        val result = model.update().many(items, BulkOptions.unordered().withBatchSize(2));
+
+        assertEquals(3, commands.get());
+        assertEquals(5, result.sent());
+        assertEquals(3, result.matched());
+        assertEquals(2, result.errors().size());
+        assertEquals(1, result.errors().get(0).index());
+        assertSame(items.get(1), result.errors().get(0).item());
+        assertEquals(3, result.errors().get(1).index());
+        assertSame(items.get(3), result.errors().get(1).item());
+        assertEquals(DUPLICATE_KEY, result.errors().get(1).code());
+    }
+
+    @Test
+    void orderedUpdateStopsAtTheFirstError() {
+        val commands = new AtomicInteger();
+        val model = model(commands, Set.of("d"));
+        val items = items("a", "b", "c", "d", "e", "f");
+
+        val result = model.update().many(items, BulkOptions.defaults().withBatchSize(3));
+
+        // The second batch stops at "d"; "e" was never processed and "f" was never sent
+        assertEquals(2, commands.get());
+        assertEquals(4, result.sent());
+        assertEquals(3, result.matched());
+        assertEquals(1, result.errors().size());
+        assertEquals(3, result.errors().get(0).index());
+        assertSame(items.get(3), result.errors().get(0).item());
+    }
+
+    @Test
+    void upsertCountsUpsertedItems() {
+        val commands = new AtomicInteger();
+        val model = model(commands, Set.of());
+
+        val result = model.upsert().many(items("a", "b", "c"));
+
+        assertEquals(1, commands.get());
+        assertEquals(3, result.sent());
+        assertEquals(3, result.upserted());
+        assertEquals(List.of(), result.errors());
+    }
+
+    private static List<Item> items(String... names) {
+        val items = new ArrayList<Item>();
+        for (val name : names) {
+            val item = new Item();
+            item.name = name;
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static MongoModelValue<Item> model(AtomicInteger commands, Set<String> failing) {
+        return TestCollections.fake(Item.class, List.of("name"), (proxy, method, args) -> switch (method) {
+            case "bulkWrite" -> {
+                commands.incrementAndGet();
+                // The fake only receives the requests built by bulkWrite
+                @SuppressWarnings("unchecked") val requests = (List<WriteModel<Item>>) args[0];
+                val ordered = ((BulkWriteOptions) args[1]).isOrdered();
+                yield write(requests, ordered, failing);
+            }
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+
+    private static BulkWriteResult write(List<WriteModel<Item>> requests, boolean ordered, Set<String> failing) {
+        val errors = new ArrayList<BulkWriteError>();
+        val upserts = new ArrayList<BulkWriteUpsert>();
+        var matched = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            val request = requests.get(i);
+            val name = filter(request).toBsonDocument().getString("name").getValue();
+            if (failing.contains(name)) {
+                errors.add(new BulkWriteError(DUPLICATE_KEY, "duplicate key " + name, new BsonDocument(), i));
+                if (ordered) {
+                    break;
+                }
+            } else if (request instanceof ReplaceOneModel<Item>) {
+                upserts.add(new BulkWriteUpsert(i, new BsonString(name)));
+            } else {
+                matched++;
+            }
+        }
+
+        val result = BulkWriteResult.acknowledged(0, matched, 0, matched, upserts, List.of());
+        if (errors.isEmpty()) {
+            return result;
+        }
+        throw new MongoBulkWriteException(result, errors, null, new ServerAddress(), Set.of());
+    }
+
+    private static Bson filter(WriteModel<Item> request) {
+        return request instanceof UpdateOneModel<Item> update
+                ? update.getFilter()
+                : ((ReplaceOneModel<Item>) request).getFilter();
+    }
+
+    @MongoType
+    public static class Item {
+        @MongoField("name")
+        public String name;
+
+        @MongoField("score")
+        public int score;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.bulk;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelChunksTest {
+
+    @Test
+    void runsAtMostParallelismChunksAndReturnsResultsInOrder() {
+        val running = new AtomicInteger();
+        val maxRunning = new AtomicInteger();
+
+        final List<Integer> results;
+        try (val chunks = new ParallelChunks<Integer>(3)) {
+            for (int i = 0; i < 20; i++) {
+                val chunk = i;
+                chunks.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return chunk;
+                });
+            }
+            results = chunks.results();
+        }
+
+        val expected = new ArrayList<Integer>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, results);
+        assertTrue(maxRunning.get() <= 3, maxRunning.get() + " chunks ran at once");
+    }
+
+    @Test
+    void closeWaitsForChunksInFlight() {
+        val finished = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> {
+            try (val chunks = new ParallelChunks<Void>(4)) {
+                for (int i = 0; i < 4; i++) {
+                    chunks.submit(() -> {
+                        Thread.sleep(50);
+                        finished.incrementAndGet();
+                        return null;
+                    });
+                }
+                throw new IllegalStateException("producer failed");
+            }
+        });
+
+        assertEquals(4, finished.get());
+    }
+
+    @Test
+    void aFailedChunkStopsFurtherSubmissions() {
+        try (val chunks = new ParallelChunks<Void>(1)) {
+            chunks.submit(() -> {
+                throw new IllegalArgumentException("chunk failed");
+            });
+
+            assertFalse(chunks.submit(() -> null));
+            assertThrows(IllegalArgumentException.class, chunks::results);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.create;
+
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.operations.bulk.BulkResult;
+import net.clydo.mongodb.testing.TestCollections;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link CreateOperations#stream} against a collection that accepts every insert, so no server is needed.
+ */
+class CreateOperationsStreamTest {
+
+    @Test
+    void streamedInsertsAreTrackedAndTheStreamIsClosed() {
+        val inserted = new AtomicInteger();
+        val model = model(inserted);
+
+        val items = List.of(new Item("a"), new Item("b"), new Item("c"));
+        val closed = new AtomicBoolean();
+        val results = model.create().stream(items.stream().onClose(() -> closed.set(true)));
+
+        assertTrue(closed.get(), "The stream was not closed");
+        assertEquals(3, inserted.get());
+        assertEquals(3, results.stream().mapToInt(BulkResult::inserted).sum());
+
+        val tracker = model.changeTracker();
+        assertNotNull(tracker);
+        for (Item item : items) {
+            val changes = tracker.diff(item);
+            assertNotNull(changes, item.name + " was not tracked");
+            assertTrue(changes.fields().isEmpty());
+        }
+
+        items.get(0).name = "changed";
+        assertEquals(List.of("name"), tracker.diff(items.get(0)).fields());
+    }
+
+    @Test
+    void aFailingStreamIsClosed() {
+        val model = model(new AtomicInteger());
+        val closed = new AtomicBoolean();
+
+        assertThrows(IllegalStateException.class, () -> model.create().stream(Stream.<Item>generate(() -> {
+            throw new IllegalStateException("source failed");
+        }).onClose(() -> closed.set(true))));
+
+        assertTrue(closed.get(), "The stream was not closed");
+    }
+
+    private static MongoModelValue<Item> model(AtomicInteger inserted) {
+        return TestCollections.fake(Item.class, List.of(), true, (proxy, method, args) -> switch (method) {
+            case "withDocumentClass" -> proxy;
+            case "insertMany" -> {
+                inserted.addAndGet(((List<?>) args[0]).size());
+                yield null;
+            }
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+
+    @MongoType
+    public static class Item {
+        @MongoField("name")
+        public String name;
+
+        public Item() {
+        }
+
+        Item(String name) {
+            this.name = name;
+        }
+    }
+}
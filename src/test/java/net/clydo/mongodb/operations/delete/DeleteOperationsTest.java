@@ -0,0 +1,82 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.delete;
+
+import com.mongodb.client.result.DeleteResult;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.operations.bulk.ChunkOptions;
+import net.clydo.mongodb.testing.TestCollections;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Deletes by key sets against a collection that counts its {@code deleteMany} commands, so no server is needed.
+ */
+class DeleteOperationsTest {
+    private static final int KEYS = 5_000;
+
+    @Test
+    void manyByValuesSendsOneCommand() {
+        val commands = new AtomicInteger();
+        val model = model(commands);
+
+        val result = model.delete().many("name", IntStream.range(0, KEYS).mapToObj(i -> "key-" + i).toArray());
+
+        assertEquals(1, commands.get());
+        assertEquals(KEYS, result.getDeletedCount());
+    }
+
+    @Test
+    void chunkedManyIsOptIn() {
+        val commands = new AtomicInteger();
+        val model = model(commands);
+
+        val keys = IntStream.range(0, KEYS).mapToObj(i -> "key-" + i).toList();
+        val result = model.delete().many("name", keys, ChunkOptions.defaults().withBatchSize(1000), null);
+
+        assertEquals(5, commands.get());
+        assertEquals(KEYS, result.getDeletedCount());
+    }
+
+    private static MongoModelValue<Item> model(AtomicInteger commands) {
+        return TestCollections.fake(Item.class, List.of("name"), (proxy, method, args) -> switch (method) {
+            case "deleteMany" -> {
+                commands.incrementAndGet();
+                val filter = args[0].toString();
+                yield DeleteResult.acknowledged(filter.split("key-", -1).length - 1);
+            }
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+
+    @MongoType
+    public static class Item {
+        @MongoField("name")
+        public String name;
+    }
+}
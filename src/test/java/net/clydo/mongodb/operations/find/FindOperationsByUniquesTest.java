@@ -0,0 +1,118 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.find;
+
+import com.mongodb.client.FindIterable;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.annotations.MongoUnique;
+import net.clydo.mongodb.codec.uuid.UUIDStorage;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.operations.bulk.ChunkOptions;
+import net.clydo.mongodb.testing.TestCollections;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * {@link FindOperations#byUniques} against a collection that returns fixed documents for every query, so no server is
+ * needed. The keys requested and the unique fields read back differ in Java type but not in stored form.
+ */
+class FindOperationsByUniquesTest {
+
+    @Test
+    void integerKeysFindLongFields() {
+        val five = new Account(5L);
+        val seven = new Account(7L);
+        val find = model(Account.class, List.of("number"), five, seven).find();
+
+        final Map<Object, Account> found = find.byUniques(List.of(5, 7, 9), ChunkOptions.defaults());
+        assertEquals(2, found.size());
+        assertSame(five, found.get(5));
+        assertSame(seven, found.get(7));
+
+        assertEquals(Arrays.asList(five, null, seven), find.byUniquesOrdered(List.of(5, 9, 7), ChunkOptions.defaults()));
+    }
+
+    @Test
+    void stringKeysFindUuidsStoredAsStrings() {
+        val first = new Player(UUID.randomUUID());
+        val second = new Player(UUID.randomUUID());
+        val find = model(Player.class, List.of("id"), first, second).find();
+
+        final Map<Object, Player> found = find.byUniques(List.of(first.id.toString(), second.id), ChunkOptions.defaults());
+        assertSame(first, found.get(first.id.toString()));
+        assertSame(second, found.get(second.id));
+    }
+
+    @SafeVarargs
+    private static <T> MongoModelValue<T> model(Class<T> type, List<String> uniques, T... documents) {
+        final FindIterable<T> iterable = TestCollections.proxy(FindIterable.class, (proxy, method, args) -> switch (method) {
+            case "batchSize" -> proxy;
+            case "into" -> {
+                @SuppressWarnings("unchecked") // into is called with a collection of T.
+                final Collection<T> target = (Collection<T>) args[0];
+                target.addAll(List.of(documents));
+                yield target;
+            }
+            default -> throw TestCollections.unsupported(method);
+        });
+        return TestCollections.fake(type, uniques, (proxy, method, args) -> switch (method) {
+            case "find" -> iterable;
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+
+    @MongoType
+    public static class Account {
+        @MongoUnique
+        @MongoField("number")
+        public long number;
+
+        public Account() {
+        }
+
+        Account(long number) {
+            this.number = number;
+        }
+    }
+
+    @MongoType
+    public static class Player {
+        @MongoUnique
+        @MongoField(value = "id", uuid = UUIDStorage.STRING)
+        public UUID id;
+
+        public Player() {
+        }
+
+        Player(UUID id) {
+            this.id = id;
+        }
+    }
+}
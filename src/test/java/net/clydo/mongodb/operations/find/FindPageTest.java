@@ -0,0 +1,211 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.find;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.testing.TestCollections;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keyset pages over a collection whose fake applies the {@code $gt} of the page token, the sort and the limit to an
+ * in-memory list, so no server is needed.
+ */
+class FindPageTest {
+
+    @Test
+    void walksEveryPageInSortOrder() {
+        val limits = new ArrayList<Integer>();
+        val model = model(7, limits);
+
+        val first = model.find().page(Filters.empty(), null, 3);
+        assertEquals(List.of("k0", "k1", "k2"), names(first.items()));
+        assertTrue(first.hasNext());
+
+        val second = model.find().page(Filters.empty(), first.next(), 3);
+        assertEquals(List.of("k3", "k4", "k5"), names(second.items()));
+
+        val last = model.find().page(Filters.empty(), second.next(), 3);
+        assertEquals(List.of("k6"), names(last.items()));
+        assertNull(last.next());
+
+        // One more document than the page is asked for, to know whether another page follows
+        assertEquals(List.of(4, 4, 4), limits);
+    }
+
+    @Test
+    void fullLastPageHasNoNextToken() {
+        val model = model(6, new ArrayList<>());
+
+        val first = model.find().page(Filters.empty(), null, 3);
+        val last = model.find().page(Filters.empty(), first.next(), 3);
+
+        assertEquals(List.of("k3", "k4", "k5"), names(last.items()));
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    void pagesByAnotherUniqueField() {
+        val model = model(5, new ArrayList<>(), List.of("name", "code"));
+
+        val first = model.find().page(Filters.empty(), null, 2, "code");
+        val second = model.find().page(Filters.empty(), first.next(), 2, "code");
+
+        assertEquals(List.of("k2", "k3"), names(second.items()));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        val model = model(3, new ArrayList<>());
+        val notBson = Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[]{1, 2, 3});
+        val withoutKey = encode(new BsonDocument("f", new BsonString("name")));
+
+        assertThrows(IllegalArgumentException.class, () -> model.find().page(Filters.empty(), "not a token!", 2));
+        assertThrows(IllegalArgumentException.class, () -> model.find().page(Filters.empty(), notBson, 2));
+        assertThrows(IllegalArgumentException.class, () -> model.find().page(Filters.empty(), withoutKey, 2));
+    }
+
+    @Test
+    void rejectsATokenOfAnotherSortField() {
+        val model = model(5, new ArrayList<>(), List.of("name", "code"));
+        val byCode = model.find().page(Filters.empty(), null, 2, "code");
+
+        val thrown = assertThrows(IllegalArgumentException.class, () -> model.find().page(Filters.empty(), byCode.next(), 2, "name"));
+        assertTrue(thrown.getMessage().contains("'code'"));
+    }
+
+    @Test
+    void rejectsANonUniqueSortFieldAndEmptyPages() {
+        val model = model(3, new ArrayList<>());
+
+        assertThrows(IllegalArgumentException.class, () -> model.find().page(Filters.empty(), null, 2, "score"));
+        assertThrows(IllegalArgumentException.class, () -> model.find().page(Filters.empty(), null, 0));
+    }
+
+    private static List<String> names(Collection<Item> items) {
+        return items.stream().map(item -> item.name).toList();
+    }
+
+    private static String encode(BsonDocument token) {
+        val bytes = new RawBsonDocument(token, new BsonDocumentCodec()).getByteBuffer().asNIO();
+        val array = new byte[bytes.remaining()];
+        bytes.get(array);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(array);
+    }
+
+    private static MongoModelValue<Item> model(int size, List<Integer> limits) {
+        return model(size, limits, List.of("name"));
+    }
+
+    private static MongoModelValue<Item> model(int size, List<Integer> limits, List<String> uniques) {
+        val documents = new ArrayList<RawBsonDocument>();
+        for (int i = 0; i < size; i++) {
+            val document = new BsonDocument("name", new BsonString("k" + i))
+                    .append("code", new BsonString("c" + i))
+                    .append("score", new BsonInt32(i % 2));
+            documents.add(new RawBsonDocument(document, new BsonDocumentCodec()));
+        }
+
+        final MongoCollection<RawBsonDocument> raw = TestCollections.proxy(MongoCollection.class, (proxy, method, args) -> switch (method) {
+            case "find" -> find(documents, ((Bson) args[0]).toBsonDocument(), limits);
+            default -> throw TestCollections.unsupported(method);
+        });
+        return TestCollections.fake(Item.class, uniques, (proxy, method, args) -> switch (method) {
+            case "withDocumentClass" -> raw;
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+
+    private static FindIterable<RawBsonDocument> find(List<RawBsonDocument> documents, BsonDocument filter, List<Integer> limits) {
+        val sortField = new String[1];
+        val limit = new AtomicInteger();
+        return TestCollections.proxy(FindIterable.class, (proxy, method, args) -> switch (method) {
+            case "sort" -> {
+                sortField[0] = ((Bson) args[0]).toBsonDocument().getFirstKey();
+                yield proxy;
+            }
+            case "limit" -> {
+                limit.set((int) args[0]);
+                limits.add(limit.get());
+                yield proxy;
+            }
+            case "batchSize" -> proxy;
+            case "into" -> {
+                // The page collects into a list of raw documents
+                @SuppressWarnings("unchecked") val target = (Collection<RawBsonDocument>) args[0];
+                documents.stream()
+                        .filter(document -> matches(document, filter))
+                        .sorted((left, right) -> left.getString(sortField[0]).getValue().compareTo(right.getString(sortField[0]).getValue()))
+                        .limit(limit.get())
+                        .forEach(target::add);
+                yield target;
+            }
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+
+    private static boolean matches(RawBsonDocument document, BsonDocument filter) {
+        if (filter.containsKey("$and")) {
+            return filter.getArray("$and").stream().allMatch(part -> matches(document, part.asDocument()));
+        }
+        for (val entry : filter.entrySet()) {
+            val after = entry.getValue().asDocument().getString("$gt").getValue();
+            if (document.getString(entry.getKey()).getValue().compareTo(after) <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @MongoType
+    public static class Item {
+        @MongoField("name")
+        public String name;
+
+        @MongoField("code")
+        public String code;
+
+        @MongoField("score")
+        public int score;
+    }
+}
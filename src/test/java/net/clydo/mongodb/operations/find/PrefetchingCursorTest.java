@@ -0,0 +1,120 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.find;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
+import lombok.val;
+import net.clydo.mongodb.testing.TestCollections;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link PrefetchingCursor} over a cursor that returns fixed batches, so no server is needed.
+ */
+class PrefetchingCursorTest {
+
+    @Test
+    void streamsEveryBatchInOrder() {
+        val batches = List.of(range(0, 3), range(3, 7), range(7, 8));
+        try (val stream = PrefetchingCursor.stream(iterable(batches, null, new CountDownLatch(1)), 1)) {
+            assertEquals(range(0, 8), stream.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void rethrowsFailureAfterFetchedBatches() {
+        val failure = new MongoException("cursor killed");
+        val read = new ArrayList<Integer>();
+        try (val stream = PrefetchingCursor.stream(iterable(List.of(range(0, 2)), failure, new CountDownLatch(1)), 2)) {
+            val thrown = assertThrows(MongoException.class, () -> stream.forEach(read::add));
+            assertEquals(failure, thrown);
+        }
+        assertEquals(range(0, 2), read);
+    }
+
+    @Test
+    void closingStopsFetchingAndClosesCursor() throws InterruptedException {
+        val batches = IntStream.range(0, 1000).mapToObj(i -> range(i, i + 1)).toList();
+        val closed = new CountDownLatch(1);
+        try (val stream = PrefetchingCursor.stream(iterable(batches, null, closed), 1)) {
+            assertEquals(List.of(0, 1), stream.limit(2).collect(Collectors.toList()));
+        }
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().toList();
+    }
+
+    private static FindIterable<Integer> iterable(List<List<Integer>> batches, MongoException failure, CountDownLatch closed) {
+        val remaining = batches.iterator();
+        val current = new Object() {
+            Iterator<Integer> batch = List.<Integer>of().iterator();
+
+            boolean advance() {
+                while (!this.batch.hasNext()) {
+                    if (!remaining.hasNext()) {
+                        if (failure != null) {
+                            throw failure;
+                        }
+                        return false;
+                    }
+                    this.batch = remaining.next().iterator();
+                }
+                return true;
+            }
+
+            int available() {
+                // The number left in the current batch is all that matters to the prefetcher.
+                return this.batch.hasNext() ? 1 : 0;
+            }
+        };
+        final MongoCursor<Integer> cursor = TestCollections.proxy(MongoCursor.class, (proxy, method, args) -> switch (method) {
+            case "hasNext" -> current.advance();
+            case "next" -> {
+                current.advance();
+                yield current.batch.next();
+            }
+            case "available" -> current.available();
+            case "close" -> {
+                closed.countDown();
+                yield null;
+            }
+            default -> throw TestCollections.unsupported(method);
+        });
+        return TestCollections.proxy(FindIterable.class, (proxy, method, args) -> switch (method) {
+            case "cursor" -> cursor;
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.find;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.FindIterable;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.annotations.MongoUnique;
+import net.clydo.mongodb.testing.TestCollections;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link UniqueBatcher} against a collection that answers every {@code $in} query from a fixed set of documents and
+ * records the keys of each query, so no server is needed.
+ */
+class UniqueBatcherTest {
+    private static final Map<String, Item> STORED = Map.of("a", new Item("a"), "b", new Item("b"), "c", new Item("c"));
+
+    private final List<List<String>> queries = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean failing = new AtomicBoolean();
+
+    @Test
+    void lookupsWithinTheWindowShareOneQuery() {
+        try (val batcher = this.batcher(new UniqueBatchOptions(Duration.ofMillis(200), 100, 1))) {
+            val a = batcher.load("a");
+            val b = batcher.load("b");
+            val again = batcher.load("a");
+            val missing = batcher.load("z");
+
+            assertSame(a, again);
+            assertSame(STORED.get("a"), a.join());
+            assertSame(STORED.get("b"), b.join());
+            assertNull(missing.join());
+
+            assertEquals(1, this.queries.size());
+            assertEquals(List.of("a", "b", "z"), this.queries.get(0).stream().sorted().toList());
+
+            val metrics = batcher.metrics();
+            assertEquals(1, metrics.batches());
+            assertEquals(3, metrics.keys());
+            assertEquals(1, metrics.deduplicated());
+            assertEquals(3, metrics.largestBatch());
+            assertEquals(3.0, metrics.averageBatchSize());
+        }
+    }
+
+    @Test
+    void fullBatchIsSentBeforeTheWindowEnds() throws Exception {
+        try (val batcher = this.batcher(new UniqueBatchOptions(Duration.ofHours(1), 2, 1))) {
+            val a = batcher.load("a");
+            val b = batcher.load("b");
+            val c = batcher.load("c");
+
+            assertSame(STORED.get("a"), a.get(5, TimeUnit.SECONDS));
+            assertSame(STORED.get("b"), b.get(5, TimeUnit.SECONDS));
+            assertEquals(1, this.queries.size());
+            assertEquals(1, batcher.metrics().batches());
+            // The third key opened a new batch that waits for its window.
+            assertEquals(false, c.isDone());
+        }
+    }
+
+    @Test
+    void failedQueryFailsItsLookupsAndReleasesTheirKeys() {
+        try (val batcher = this.batcher(new UniqueBatchOptions(Duration.ZERO, 100, 1))) {
+            this.failing.set(true);
+            val thrown = assertThrows(CompletionException.class, () -> batcher.load("a").join());
+            assertInstanceOf(MongoException.class, thrown.getCause());
+
+            this.failing.set(false);
+            assertSame(STORED.get("a"), batcher.load("a").join());
+            assertEquals(2, this.queries.size());
+        }
+    }
+
+    @Test
+    void closeLetsOpenBatchesCompleteAndRejectsNewLookups() {
+        val batcher = this.batcher(new UniqueBatchOptions(Duration.ofMillis(50), 100, 1));
+        val a = batcher.load("a");
+        batcher.close();
+
+        assertThrows(IllegalStateException.class, () -> batcher.load("b"));
+        assertSame(STORED.get("a"), a.join());
+    }
+
+    private UniqueBatcher<Item> batcher(UniqueBatchOptions options) {
+        val model = TestCollections.fake(Item.class, List.of("name"), (proxy, method, args) -> switch (method) {
+            case "find" -> this.iterable(keys((Bson) args[0]));
+            default -> throw TestCollections.unsupported(method);
+        });
+        return new UniqueBatcher<>(model.find(), options);
+    }
+
+    private FindIterable<Item> iterable(List<String> keys) {
+        return TestCollections.proxy(FindIterable.class, (proxy, method, args) -> switch (method) {
+            case "batchSize" -> proxy;
+            case "into" -> {
+                this.queries.add(keys);
+                if (this.failing.get()) {
+                    throw new MongoException("query failed");
+                }
+                @SuppressWarnings("unchecked") // into is called with a collection of Item.
+                final Collection<Item> target = (Collection<Item>) args[0];
+                keys.stream().map(STORED::get).filter(item -> item != null).forEach(target::add);
+                yield target;
+            }
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+
+    private static List<String> keys(Bson filter) {
+        val keys = new ArrayList<String>();
+        for (BsonValue key : filter.toBsonDocument().getDocument("name").getArray("$in")) {
+            keys.add(key.asString().getValue());
+        }
+        return keys;
+    }
+
+    @MongoType
+    public static class Item {
+        @MongoUnique
+        @MongoField("name")
+        public String name;
+
+        public Item() {
+        }
+
+        Item(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.scan;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import lombok.val;
+import net.clydo.mongodb.testing.TestCollections;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Scans an in-memory collection whose fake evaluates the {@code _id} filters of the partitions the way the server does:
+ * {@code $gt}, {@code $gte} and {@code $lt} only match values of the type of their operand.
+ */
+class PartitionedScanTest {
+    private static final Comparator<BsonValue> BSON_ORDER = Comparator
+            .comparingInt((BsonValue value) -> typeOrder(value.getBsonType()))
+            .thenComparing(PartitionedScanTest::compareSameType);
+
+    @Test
+    void mixedIdTypesAreScannedCompletely() {
+        val ids = new ArrayList<BsonValue>();
+        for (int i = 0; i < 30; i++) {
+            ids.add(new BsonInt32(i));
+            ids.add(new BsonString("s" + i));
+            ids.add(new BsonObjectId(new ObjectId(new Date(1_700_000_000_000L + i * 1000L))));
+        }
+        ids.add(new BsonInt64(1_000L));
+
+        val seen = new ConcurrentLinkedQueue<BsonValue>();
+        val result = scan(ids, ScanOptions.of(4), document -> seen.add(document.get("_id")));
+
+        assertEquals(ids.size(), result.documents());
+        assertEquals(ids.size(), seen.size());
+        assertEquals(new HashSet<>(ids), new HashSet<>(seen));
+        assertEquals(4, result.partitionDocuments().size());
+    }
+
+    @Test
+    void interpolationSplitsEvenlySpacedObjectIds() {
+        val ids = new ArrayList<BsonValue>();
+        for (int i = 0; i < 40; i++) {
+            ids.add(new BsonObjectId(new ObjectId(new Date(1_700_000_000_000L + i * 60_000L))));
+        }
+
+        val result = scan(ids, ScanOptions.of(4).withSplit(ScanOptions.Split.INTERPOLATE), document -> {
+        });
+
+        assertEquals(ids.size(), result.documents());
+        assertEquals(4, result.partitionDocuments().size());
+        for (Long documents : result.partitionDocuments()) {
+            assertTrue(documents >= 9 && documents <= 11, () -> "uneven partitions " + result.partitionDocuments());
+        }
+    }
+
+    @Test
+    void failureStopsTheScanAndResumesFromCheckpoints() {
+        val ids = new ArrayList<BsonValue>();
+        for (int i = 0; i < 30; i++) {
+            ids.add(new BsonInt32(i));
+            ids.add(new BsonString("s" + i));
+        }
+        val store = ScanCheckpointStore.inMemory();
+        val options = ScanOptions.of(3).withParallelism(1).withCheckpoints(store).withCheckpointInterval(1);
+
+        val first = new ArrayList<BsonValue>();
+        val delivered = new AtomicInteger();
+        val failure = new IllegalStateException("consumer failed");
+        val thrown = assertThrows(IllegalStateException.class, () -> scan(ids, options, document -> {
+            if (delivered.incrementAndGet() == 25) {
+                throw failure;
+            }
+            first.add(document.get("_id"));
+        }));
+        assertSame(failure, thrown);
+        assertEquals(24, first.size());
+
+        val second = new ArrayList<BsonValue>();
+        val result = scan(ids, options, document -> second.add(document.get("_id")));
+
+        assertEquals(ids.size() - first.size(), result.documents());
+        assertTrue(second.stream().noneMatch(first::contains), "a scanned document was handed out again");
+        val all = new HashSet<>(first);
+        all.addAll(second);
+        assertEquals(new HashSet<>(ids), all);
+        assertNull(store.load());
+    }
+
+    private static ScanResult scan(List<BsonValue> ids, ScanOptions options, Consumer<BsonDocument> consumer) {
+        val documents = new ArrayList<BsonDocument>();
+        for (BsonValue id : ids) {
+            documents.add(new BsonDocument("_id", id).append("value", new BsonString(id.toString())));
+        }
+        documents.sort(Comparator.comparing(document -> document.get("_id"), BSON_ORDER));
+
+        final MongoCollection<BsonDocument> collection = collection(documents, BsonDocument.class);
+        return new PartitionedScan<>(collection, options, 0).run(Filters.empty(), consumer);
+    }
+
+    private static <T> MongoCollection<T> collection(List<BsonDocument> documents, Class<?> documentClass) {
+        return TestCollections.proxy(MongoCollection.class, (proxy, method, args) -> switch (method) {
+            case "getCodecRegistry" -> MongoClientSettings.getDefaultCodecRegistry();
+            case "getDocumentClass" -> documentClass;
+            case "withDocumentClass" -> collection(documents, (Class<?>) args[0]);
+            case "find" -> find(documents, documentClass, args.length == 0 ? new BsonDocument() : ((Bson) args[0]).toBsonDocument());
+            case "aggregate" -> iterable(documents.stream().map(document -> new BsonDocument("_id", document.get("_id"))).toList());
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+
+    private static Object find(List<BsonDocument> documents, Class<?> documentClass, BsonDocument filter) {
+        val descending = new boolean[1];
+        return TestCollections.proxy(FindIterable.class, (proxy, method, args) -> switch (method) {
+            case "sort" -> {
+                descending[0] = ((Bson) args[0]).toBsonDocument().getInt32("_id").getValue() < 0;
+                yield proxy;
+            }
+            case "projection", "batchSize" -> proxy;
+            case "first", "cursor" -> {
+                val matching = new ArrayList<Object>();
+                for (BsonDocument document : documents) {
+                    if (matches(document.get("_id"), filter)) {
+                        matching.add(documentClass == RawBsonDocument.class ? new RawBsonDocument(document, new BsonDocumentCodec()) : document);
+                    }
+                }
+                if (descending[0]) {
+                    Collections.reverse(matching);
+                }
+                yield method.equals("first") ? matching.stream().findFirst().orElse(null) : cursor(matching);
+            }
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+
+    private static Object iterable(List<BsonDocument> documents) {
+        return TestCollections.proxy(AggregateIterable.class, (proxy, method, args) -> switch (method) {
+            case "forEach" -> {
+                // The scan only passes consumers of its sampled documents
+                @SuppressWarnings("unchecked") val consumer = (Consumer<Object>) args[0];
+                documents.forEach(consumer);
+                yield null;
+            }
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+
+    private static Object cursor(List<Object> documents) {
+        val iterator = documents.iterator();
+        return TestCollections.proxy(MongoCursor.class, (proxy, method, args) -> switch (method) {
+            case "hasNext" -> iterator.hasNext();
+            case "next" -> iterator.next();
+            case "close" -> null;
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+
+    private static boolean matches(BsonValue id, BsonDocument filter) {
+        for (val entry : filter.entrySet()) {
+            val matched = switch (entry.getKey()) {
+                case "$and" -> entry.getValue().asArray().stream().allMatch(part -> matches(id, part.asDocument()));
+                case "$or" -> entry.getValue().asArray().stream().anyMatch(part -> matches(id, part.asDocument()));
+                case "_id" -> matchesOperators(id, entry.getValue().asDocument());
+                default -> throw new IllegalArgumentException("unexpected filter " + filter);
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesOperators(BsonValue id, BsonDocument operators) {
+        for (val entry : operators.entrySet()) {
+            val operand = entry.getValue();
+            if (entry.getKey().equals("$type")) {
+                val types = operand.asArray().stream().map(type -> type.asInt32().getValue()).toList();
+                if (!types.contains(id.getBsonType().getValue())) {
+                    return false;
+                }
+                continue;
+            }
+
+            if (typeOrder(id.getBsonType()) != typeOrder(operand.getBsonType())) {
+                return false;
+            }
+            val comparison = compareSameType(id, operand);
+            val matched = switch (entry.getKey()) {
+                case "$gt" -> comparison > 0;
+                case "$gte" -> comparison >= 0;
+                case "$lt" -> comparison < 0;
+                default -> throw new IllegalArgumentException("unexpected operator " + entry.getKey());
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int compareSameType(BsonValue left, BsonValue right) {
+        if (left.isNumber()) {
+            return Long.compare(left.asNumber().longValue(), right.asNumber().longValue());
+        }
+        if (left.isString()) {
+            return left.asString().getValue().compareTo(right.asString().getValue());
+        }
+        return left.asObjectId().getValue().compareTo(right.asObjectId().getValue());
+    }
+
+    private static int typeOrder(BsonType type) {
+        return switch (type) {
+            case INT32, INT64 -> 3;
+            case STRING -> 4;
+            case OBJECT_ID -> 8;
+            default -> throw new IllegalArgumentException("unexpected _id type " + type);
+        };
+    }
+}
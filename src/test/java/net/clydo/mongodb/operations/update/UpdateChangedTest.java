@@ -0,0 +1,164 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.update;
+
+import com.mongodb.client.result.UpdateResult;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.codec.type.TrackingCodec;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.testing.TestCollections;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonInt32;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.codecs.DecoderContext;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes back tracked entities against a collection that records its {@code updateOne} commands, so no server is needed.
+ * Entities are decoded through a {@link TrackingCodec}, as the codec registry of a tracked model does.
+ */
+class UpdateChangedTest {
+    private static final ObjectId ID = new ObjectId();
+
+    @Test
+    void sendsOnlyTheChangedFieldsOfADecodedEntity() {
+        val updates = new ArrayList<Bson[]>();
+        val model = model(updates, true);
+        val item = decode(model);
+
+        item.score = 2;
+        item.nickname = null;
+        assertNotNull(model.update().changed(item));
+
+        assertEquals(1, updates.size());
+        assertEquals(BsonDocument.parse("{_id: {$oid: '" + ID.toHexString() + "'}}"), updates.get(0)[0].toBsonDocument());
+        assertEquals(BsonDocument.parse("{$set: {score: 2}, $unset: {nickname: ''}}"), updates.get(0)[1].toBsonDocument());
+    }
+
+    @Test
+    void sendsNothingForAnUnchangedEntity() {
+        val updates = new ArrayList<Bson[]>();
+        val model = model(updates, true);
+        val item = decode(model);
+
+        assertNull(model.update().changed(item));
+        assertTrue(updates.isEmpty());
+    }
+
+    @Test
+    void commitsTheSnapshotOnlyAfterAMatchingWrite() {
+        val updates = new ArrayList<Bson[]>();
+        val model = model(updates, true);
+        val item = decode(model);
+
+        item.score = 2;
+        model.update().changed(item);
+        assertNull(model.update().changed(item));
+
+        item.name = "b";
+        model.update().changed(item);
+        assertEquals(BsonDocument.parse("{$set: {name: 'b'}}"), updates.get(1)[1].toBsonDocument());
+
+        // The fake matches no document while the name is "b", so the change is still pending afterwards
+        item.score = 3;
+        model.update().changed(item);
+        assertEquals(BsonDocument.parse("{$set: {name: 'b', score: 3}}"), updates.get(2)[1].toBsonDocument());
+    }
+
+    @Test
+    void updatesAnUntrackedEntityInFullAndTracksIt() {
+        val updates = new ArrayList<Bson[]>();
+        val model = model(updates, true);
+        val item = new Item();
+        item._id = ID;
+        item.name = "a";
+        item.score = 1;
+
+        model.update().changed(item);
+        assertEquals(1, updates.size());
+        assertEquals(BsonDocument.parse("{name: 'a'}"), updates.get(0)[0].toBsonDocument());
+        assertEquals(1, updates.get(0)[1].toBsonDocument().getDocument("$set").getInt32("score").getValue());
+
+        assertNull(model.update().changed(item));
+        assertEquals(1, updates.size());
+    }
+
+    @Test
+    void rejectsAModelWithoutTracking() {
+        val model = model(new ArrayList<>(), false);
+        assertThrows(IllegalStateException.class, () -> model.update().changed(new Item()));
+    }
+
+    private static Item decode(MongoModelValue<Item> model) {
+        val codec = new TrackingCodec<>(
+                model.collection().getCodecRegistry().get(Item.class),
+                Objects.requireNonNull(model.changeTracker())
+        );
+        val document = new BsonDocument("_id", new BsonObjectId(ID))
+                .append("name", new BsonString("a"))
+                .append("score", new BsonInt32(1))
+                .append("nickname", new BsonString("n"));
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+    private static MongoModelValue<Item> model(List<Bson[]> updates, boolean trackChanges) {
+        return TestCollections.fake(Item.class, List.of("name"), trackChanges, (proxy, method, args) -> switch (method) {
+            case "updateOne" -> {
+                val filter = (Bson) args[0];
+                val update = (Bson) args[1];
+                updates.add(new Bson[]{filter, update});
+                val matched = update.toBsonDocument().toJson().contains("\"name\": \"b\"") ? 0 : 1;
+                yield UpdateResult.acknowledged(matched, (long) matched, null);
+            }
+            default -> throw TestCollections.unsupported(method);
+        });
+    }
+
+    @MongoType
+    public static class Item {
+        @MongoField("_id")
+        public ObjectId _id;
+
+        @MongoField("name")
+        public String name;
+
+        @MongoField("score")
+        public int score;
+
+        @MongoField(value = "nickname", omitNull = true)
+        public String nickname;
+    }
+}
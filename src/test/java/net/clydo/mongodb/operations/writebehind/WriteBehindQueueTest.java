@@ -0,0 +1,193 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.operations.writebehind;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.annotations.MongoUnique;
+import net.clydo.mongodb.codec.uuid.UUIDStorage;
+import net.clydo.mongodb.testing.TestCollections;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The statistics and failed keys of {@link WriteBehindQueue} flushes against a collection whose {@code bulkWrite}
+ * answers with a fixed result or failure, so no server is needed.
+ */
+class WriteBehindQueueTest {
+
+    @Test
+    void countsSuccessfulFlush() {
+        try (val queue = queue(requests -> BulkWriteResult.acknowledged(0, requests.size(), 0, requests.size(), List.of(), List.of()))) {
+            queue.inc("a", "score", 1);
+            queue.inc("a", "score", 2);
+            queue.inc("b", "score", 3);
+
+            assertEquals(2, queue.flush());
+            val stats = queue.stats();
+            assertEquals(2, stats.writes());
+            assertEquals(3, stats.flushedUpdates());
+            assertEquals(0, stats.failures());
+            assertTrue(queue.lastFailedKeys().isEmpty());
+        }
+    }
+
+    @Test
+    void failedFlushCountsNothingAsWritten() {
+        val failure = new MongoException("connection reset");
+        try (val queue = queue(requests -> {
+            throw failure;
+        })) {
+            queue.inc("a", "score", 1);
+            queue.set("b", "score", 5);
+
+            assertSame(failure, assertThrows(MongoException.class, queue::flush));
+            val stats = queue.stats();
+            assertEquals(0, stats.writes());
+            assertEquals(0, stats.flushedUpdates());
+            assertEquals(2, stats.failures());
+            assertEquals(1, stats.flushes());
+            assertEquals(List.of("a", "b"), queue.lastFailedKeys());
+            assertSame(failure, queue.lastFailure());
+            assertEquals(0, queue.depth());
+        }
+    }
+
+    @Test
+    void rejectedUpdatesAreReportedByKey() {
+        try (val queue = queue(requests -> {
+            throw new MongoBulkWriteException(
+                    BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()),
+                    List.of(new BulkWriteError(121, "Document failed validation", new BsonDocument(), 1)),
+                    null,
+                    new ServerAddress(),
+                    Set.of()
+            );
+        })) {
+            queue.inc("a", "score", 1);
+            queue.inc("b", "score", 1);
+            queue.inc("b", "score", 1);
+            queue.inc("c", "score", 1);
+
+            assertThrows(MongoBulkWriteException.class, queue::flush);
+            val stats = queue.stats();
+            assertEquals(2, stats.writes());
+            assertEquals(2, stats.flushedUpdates());
+            assertEquals(1, stats.failures());
+            assertEquals(List.of("b"), queue.lastFailedKeys());
+        }
+    }
+
+    @Test
+    void coalescesUniqueValuesByStoredForm() {
+        val filters = new ArrayList<BsonDocument>();
+        try (val queue = queue(Account.class, "number", requests -> {
+            requests.forEach(request -> filters.add(((UpdateOneModel<Account>) request).getFilter().toBsonDocument()));
+            return BulkWriteResult.acknowledged(0, requests.size(), 0, requests.size(), List.of(), List.of());
+        })) {
+            queue.inc(7, "balance", 1);
+            queue.inc(7L, "balance", 2);
+            queue.inc((short) 7, "balance", 3);
+            assertEquals(1, queue.depth());
+
+            assertEquals(1, queue.flush());
+            assertEquals(3, queue.stats().flushedUpdates());
+            assertEquals(List.of(BsonDocument.parse("{number: 7}")), filters);
+        }
+    }
+
+    @Test
+    void coalescesUuidsWithTheStringsTheyAreStoredAs() {
+        val id = UUID.randomUUID();
+        try (val queue = queue(Wallet.class, "id", requests -> BulkWriteResult.acknowledged(0, requests.size(), 0, requests.size(), List.of(), List.of()))) {
+            queue.inc(id, "balance", 1);
+            queue.inc(id.toString(), "balance", 1);
+
+            assertEquals(1, queue.depth());
+            assertEquals(1, queue.flush());
+        }
+    }
+
+    private static WriteBehindQueue<Player> queue(Function<List<WriteModel<Player>>, BulkWriteResult> bulkWrite) {
+        return queue(Player.class, "name", bulkWrite);
+    }
+
+    @SuppressWarnings("unchecked") // bulkWrite is only called with the requests of documents of type.
+    private static <T> WriteBehindQueue<T> queue(Class<T> type, String unique, Function<List<WriteModel<T>>, BulkWriteResult> bulkWrite) {
+        val model = TestCollections.fake(type, List.of(unique), (proxy, method, args) -> switch (method) {
+            case "bulkWrite" -> bulkWrite.apply((List<WriteModel<T>>) args[0]);
+            default -> throw TestCollections.unsupported(method);
+        });
+        return new WriteBehindQueue<>(model, unique, WriteBehindOptions.defaults().withFlushInterval(Duration.ofHours(1)));
+    }
+
+    @MongoType
+    public static class Player {
+        @MongoUnique
+        @MongoField("name")
+        public String name;
+
+        @MongoField("score")
+        public int score;
+
+        public Player() {
+        }
+    }
+
+    @MongoType
+    public static class Account {
+        @MongoUnique
+        @MongoField("number")
+        public long number;
+
+        @MongoField("balance")
+        public long balance;
+    }
+
+    @MongoType
+    public static class Wallet {
+        @MongoUnique
+        @MongoField(value = "id", uuid = UUIDStorage.STRING)
+        public UUID id;
+
+        @MongoField("balance")
+        public long balance;
+    }
+}
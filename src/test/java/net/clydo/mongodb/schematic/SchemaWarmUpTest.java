@@ -0,0 +1,168 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.schematic;
+
+import lombok.val;
+import net.clydo.mongodb.annotations.MongoConstructor;
+import net.clydo.mongodb.annotations.MongoField;
+import net.clydo.mongodb.annotations.MongoParameter;
+import net.clydo.mongodb.annotations.MongoType;
+import net.clydo.mongodb.loader.LoaderRegistry;
+import net.clydo.mongodb.testing.TestCollections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Warms up a schema with a nested, self-referencing type. The fixtures record every instance their codecs create, which
+ * shows both how many round-trips ran and what the representatives were filled with.
+ */
+class SchemaWarmUpTest {
+
+    @BeforeEach
+    void reset() {
+        Root.created.clear();
+        Strict.attempts.set(0);
+    }
+
+    @Test
+    void runsTheRequestedRounds() {
+        warmUp(new WarmUpOptions(4, null));
+
+        // The empty and the filled representative, then one decode per round
+        assertEquals(2 + 4, Root.created.size());
+    }
+
+    @Test
+    void stopsAtTheMaxDuration() {
+        warmUp(new WarmUpOptions(1_000_000, Duration.ofNanos(1)));
+
+        assertEquals(2, Root.created.size());
+    }
+
+    @Test
+    void fillsRepresentativesWithSamples() {
+        warmUp(new WarmUpOptions(1, null));
+
+        val root = Root.created.get(Root.created.size() - 1);
+        assertEquals("warm-up", root.name);
+        assertEquals(List.of(1L), root.scores);
+        assertEquals(List.of(), root.tags);
+    }
+
+    @Test
+    void endsSelfReferencesAtTheMaxDepth() {
+        warmUp(new WarmUpOptions(1, null));
+
+        val root = Root.created.get(Root.created.size() - 1);
+        assertNotNull(root.node);
+        assertEquals("warm-up", root.node.name);
+        assertNotNull(root.node.child);
+        assertNotNull(root.node.child.child);
+        assertNull(root.node.child.child.child);
+    }
+
+    @Test
+    void skipsTypesWhoseConstructorRejectsDefaults() {
+        warmUp(new WarmUpOptions(1, null));
+
+        assertTrue(Strict.attempts.get() > 0);
+        assertNull(Root.created.get(Root.created.size() - 1).strict);
+    }
+
+    @Test
+    void leavesUnencodableSamplesOut() {
+        warmUp(new WarmUpOptions(1, null));
+
+        // The codecs of this registry have no UUID representation, so a UUID sample cannot be encoded
+        assertNull(Root.created.get(Root.created.size() - 1).id);
+    }
+
+    private static void warmUp(WarmUpOptions options) {
+        val loader = new LoaderRegistry();
+        val model = TestCollections.fake(Root.class, List.of("name"), (proxy, method, args) -> {
+            throw TestCollections.unsupported(method);
+        });
+        new SchemaWarmUp(loader, TestCollections.registry(loader)).run(List.of(model), options);
+    }
+
+    @MongoType
+    public static class Root {
+        static final List<Root> created = new ArrayList<>();
+
+        @MongoField("name")
+        public String name;
+
+        @MongoField("scores")
+        public List<Long> scores;
+
+        @MongoField("tags")
+        public final List<String> tags = new ArrayList<>();
+
+        @MongoField("node")
+        public Node node;
+
+        @MongoField("strict")
+        public Strict strict;
+
+        @MongoField("id")
+        public UUID id;
+
+        public Root() {
+            created.add(this);
+        }
+    }
+
+    @MongoType
+    public static class Node {
+        @MongoField("name")
+        public String name;
+
+        @MongoField("child")
+        public Node child;
+    }
+
+    @MongoType
+    public static class Strict {
+        static final AtomicInteger attempts = new AtomicInteger();
+
+        @MongoField("name")
+        public String name;
+
+        @MongoConstructor
+        public Strict(@MongoParameter("name") String name) {
+            attempts.incrementAndGet();
+            if (name == null) {
+                throw new IllegalArgumentException("name is required");
+            }
+            this.name = name;
+        }
+    }
+}
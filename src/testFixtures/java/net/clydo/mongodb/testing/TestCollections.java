@@ -0,0 +1,129 @@
+/*
+ * This file is part of MongoHelper.
+ *
+ * MongoHelper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * MongoHelper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MongoHelper. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2024 ClydoNetwork
+ */
+package net.clydo.mongodb.testing;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoCollection;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import net.clydo.mongodb.codec.type.ClassCodecProvider;
+import net.clydo.mongodb.loader.LoaderRegistry;
+import net.clydo.mongodb.loader.classes.values.MongoModelValue;
+import net.clydo.mongodb.loader.classes.values.MongoMutableField;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Fakes of driver interfaces for tests and benchmarks that need no server: every call is answered by a
+ * {@link Handler}, which throws {@link #unsupported(String)} for the calls the test does not expect.
+ */
+@UtilityClass
+public class TestCollections {
+    private static final Object[] NO_ARGS = new Object[0];
+
+    /**
+     * Answers the calls made on a fake.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * @param proxy  The fake the call was made on.
+         * @param method The name of the called method.
+         * @param args   The arguments of the call, empty for none.
+         * @return The result of the call.
+         */
+        Object answer(@NotNull Object proxy, @NotNull String method, @NotNull Object @NotNull [] args) throws Throwable;
+    }
+
+    /**
+     * A model of {@code type} on a fake collection. The collection answers {@code getCodecRegistry} with the codecs of
+     * the model and {@code getDocumentClass} with {@code type}; every other call goes to {@code handler}.
+     */
+    public static <T> @NotNull MongoModelValue<T> fake(@NotNull Class<T> type, @NotNull List<String> uniques, @NotNull Handler handler) {
+        return fake(type, uniques, false, handler);
+    }
+
+    /**
+     * Like {@link #fake(Class, List, Handler)}, with change tracking as given.
+     */
+    public static <T> @NotNull MongoModelValue<T> fake(
+            @NotNull Class<T> type,
+            @NotNull List<String> uniques,
+            boolean trackChanges,
+            @NotNull Handler handler
+    ) {
+        val loader = new LoaderRegistry();
+        val registry = registry(loader);
+        final MongoCollection<T> collection = proxy(MongoCollection.class, (proxy, method, args) -> switch (method) {
+            case "getCodecRegistry" -> registry;
+            case "getDocumentClass" -> type;
+            default -> handler.answer(proxy, method, args);
+        });
+        return new MongoModelValue<>(type, type.getSimpleName(), collection, uniques, fields(loader, type), null, trackChanges);
+    }
+
+    /**
+     * A fake of the driver interface {@code api}, e.g. a {@code FindIterable} or a {@code MongoCursor}.
+     *
+     * @param <P> The type of the fake, which may be a parameterization of {@code api}.
+     */
+    @SuppressWarnings("unchecked") // The proxy implements api, whatever type arguments the caller gives it.
+    public static <P> @NotNull P proxy(@NotNull Class<?> api, @NotNull Handler handler) {
+        return (P) Proxy.newProxyInstance(
+                TestCollections.class.getClassLoader(),
+                new Class<?>[]{api},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> api.getSimpleName() + " fake";
+                    default -> handler.answer(proxy, method.getName(), args == null ? NO_ARGS : args);
+                }
+        );
+    }
+
+    /**
+     * The class codecs of {@code loader} in front of the default codecs of the driver.
+     */
+    public static @NotNull CodecRegistry registry(@NotNull LoaderRegistry loader) {
+        return CodecRegistries.fromRegistries(
+                CodecRegistries.fromProviders(new ClassCodecProvider(null, loader)),
+                MongoClientSettings.getDefaultCodecRegistry()
+        );
+    }
+
+    /**
+     * The fields of {@code type}, as a model built by {@code loader} has them.
+     */
+    public static @NotNull HashMap<String, MongoMutableField> fields(@NotNull LoaderRegistry loader, @NotNull Class<?> type) {
+        return new HashMap<>(loader.buildType(type).fields());
+    }
+
+    /**
+     * The failure a {@link Handler} throws for a call it does not answer.
+     */
+    public static @NotNull UnsupportedOperationException unsupported(@NotNull String method) {
+        return new UnsupportedOperationException(method);
+    }
+}